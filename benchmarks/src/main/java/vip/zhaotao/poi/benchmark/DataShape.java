@@ -0,0 +1,120 @@
+package vip.zhaotao.poi.benchmark;
+
+import vip.zhaotao.poi.excel.TestExcel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Generated benchmark data, the same seed gives the same rows on every run.
+ *
+ * @author zhaotao
+ */
+public enum DataShape {
+
+    /**
+     * Three columns
+     */
+    NARROW(NarrowRow.class, (random, i) -> {
+        NarrowRow row = new NarrowRow();
+        row.setId((long) i);
+        row.setName("name" + i);
+        row.setAmount(random.nextDouble() * 10000);
+        return row;
+    }),
+
+    /**
+     * All supported types, eleven columns
+     */
+    WIDE(TestExcel.class, (random, i) -> new TestExcel((char) ('A' + random.nextInt(26)), "row" + i, (byte) random.nextInt(128),
+            (short) random.nextInt(Short.MAX_VALUE), random.nextInt(100), random.nextLong(), (float) random.nextDouble(),
+            random.nextDouble() * 10000, new Date(Samples.BASE_TIME + random.nextInt(Integer.MAX_VALUE) * 1000L),
+            random.nextBoolean(), BigDecimal.valueOf(random.nextInt(1000000), 2))),
+
+    /**
+     * Eight text columns, mixed lengths, repeated values and CJK text
+     */
+    STRINGS(StringRow.class, (random, i) -> {
+        StringRow row = new StringRow();
+        row.setCode(String.format("C%08d", i));
+        row.setName("张三" + random.nextInt(1000));
+        row.setCategory(Samples.CATEGORIES[random.nextInt(Samples.CATEGORIES.length)]);
+        row.setCity(Samples.CITIES[random.nextInt(Samples.CITIES.length)]);
+        row.setAddress(random.nextInt(10000) + " Example Road, Building " + random.nextInt(100) + ", Room " + random.nextInt(1000));
+        row.setEmail("user" + random.nextInt(100000) + "@example.com");
+        row.setRemark(random.nextInt(4) == 0 ? "" : Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        row.setStatus(random.nextBoolean() ? "ACTIVE" : "INACTIVE");
+        return row;
+    }),
+
+    /**
+     * Eight numeric columns, primitive and boxed fields
+     */
+    NUMBERS(NumericRow.class, (random, i) -> {
+        NumericRow row = new NumericRow();
+        row.setIntValue(i);
+        row.setLongValue(random.nextLong());
+        row.setDoubleValue(random.nextDouble());
+        row.setIntegerValue(random.nextInt());
+        row.setBoxedLongValue((long) random.nextInt(1000000));
+        row.setBoxedDoubleValue(random.nextDouble() * 1000000);
+        row.setFloatValue((float) random.nextDouble());
+        row.setBigDecimalValue(BigDecimal.valueOf(random.nextInt(1000000), 2));
+        return row;
+    }),
+
+    /**
+     * Four date columns with different formats
+     */
+    DATES(DateRow.class, (random, i) -> {
+        DateRow row = new DateRow();
+        row.setCreated(new Date(Samples.BASE_TIME + random.nextInt(Integer.MAX_VALUE) * 1000L));
+        row.setUpdated(new Date(Samples.BASE_TIME + random.nextInt(Integer.MAX_VALUE) * 1000L));
+        row.setDay(new Date(Samples.BASE_TIME + random.nextInt(10000) * 86400000L));
+        row.setTime(new Date(Samples.BASE_TIME + random.nextInt(86400) * 1000L));
+        return row;
+    });
+
+    private static final long SEED = 20181201L;
+
+    private final Class<?> type;
+
+    private final BiFunction<SplittableRandom, Integer, Object> generator;
+
+    DataShape(Class<?> type, BiFunction<SplittableRandom, Integer, Object> generator) {
+        this.type = type;
+        this.generator = generator;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public List<Object> generate(int rowCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Object> dataList = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            dataList.add(generator.apply(random, i));
+        }
+        return dataList;
+    }
+
+    /**
+     * Sample values, enum constants can not refer to the static fields of the enum
+     */
+    private static class Samples {
+
+        /**
+         * 2000-01-01T00:00:00Z
+         */
+        private static final long BASE_TIME = 946684800000L;
+
+        private static final String[] CATEGORIES = {"Book", "Food", "Clothing", "Electronics", "图书", "食品"};
+
+        private static final String[] CITIES = {"Beijing", "Shanghai", "Guangzhou", "Shenzhen", "杭州", "成都"};
+    }
+}
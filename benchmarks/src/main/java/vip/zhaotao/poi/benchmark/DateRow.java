@@ -0,0 +1,27 @@
+package vip.zhaotao.poi.benchmark;
+
+import lombok.Data;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+
+import java.util.Date;
+
+/**
+ * Date heavy row
+ *
+ * @author zhaotao
+ */
+@Data
+public class DateRow {
+
+    @ExcelColumn(name = "Created", number = 0)
+    private Date created;
+
+    @ExcelColumn(name = "Updated", number = 1)
+    private Date updated;
+
+    @ExcelColumn(name = "Day", number = 2, format = "yyyy-MM-dd")
+    private Date day;
+
+    @ExcelColumn(name = "Time", number = 3, format = "HH:mm:ss")
+    private Date time;
+}
@@ -0,0 +1,22 @@
+package vip.zhaotao.poi.benchmark;
+
+import lombok.Data;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+
+/**
+ * Narrow row, three columns
+ *
+ * @author zhaotao
+ */
+@Data
+public class NarrowRow {
+
+    @ExcelColumn(name = "Id", number = 0)
+    private Long id;
+
+    @ExcelColumn(name = "Name", number = 1)
+    private String name;
+
+    @ExcelColumn(name = "Amount", number = 2, format = "0.00")
+    private Double amount;
+}
@@ -0,0 +1,39 @@
+package vip.zhaotao.poi.benchmark;
+
+import lombok.Data;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+
+import java.math.BigDecimal;
+
+/**
+ * Numeric heavy row, primitive and boxed fields
+ *
+ * @author zhaotao
+ */
+@Data
+public class NumericRow {
+
+    @ExcelColumn(name = "Int", number = 0)
+    private int intValue;
+
+    @ExcelColumn(name = "Long", number = 1)
+    private long longValue;
+
+    @ExcelColumn(name = "Double", number = 2, format = "0.00")
+    private double doubleValue;
+
+    @ExcelColumn(name = "Integer", number = 3)
+    private Integer integerValue;
+
+    @ExcelColumn(name = "BoxedLong", number = 4)
+    private Long boxedLongValue;
+
+    @ExcelColumn(name = "BoxedDouble", number = 5, format = "#,##0.00")
+    private Double boxedDoubleValue;
+
+    @ExcelColumn(name = "Float", number = 6)
+    private Float floatValue;
+
+    @ExcelColumn(name = "BigDecimal", number = 7)
+    private BigDecimal bigDecimalValue;
+}
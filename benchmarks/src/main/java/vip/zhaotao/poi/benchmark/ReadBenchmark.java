@@ -0,0 +1,56 @@
+package vip.zhaotao.poi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read throughput of the usermodel read {@link ExcelUtils#read(java.io.InputStream, Class)}
+ * and the streaming read {@link ExcelUtils#read(java.io.InputStream, Class, vip.zhaotao.poi.read.RowHandler)},
+ * the file is generated and written once per trial.
+ *
+ * @author zhaotao
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReadBenchmark {
+
+    @Param({"MICROSOFT_EXCEL", "OFFICE_OPEN_XML_SHEET"})
+    public ExcelUtils.Type type;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rowCount;
+
+    @Param({"NARROW", "WIDE", "STRINGS", "NUMBERS", "DATES"})
+    public DataShape shape;
+
+    private byte[] file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(type, outputStream, shape.generate(rowCount));
+        file = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public int read(RowCounter counter) {
+        int size = ExcelUtils.read(new ByteArrayInputStream(file), shape.getType()).size();
+        counter.rows += size;
+        return size;
+    }
+
+    @Benchmark
+    public void streamingRead(RowCounter counter, Blackhole blackhole) {
+        ExcelUtils.read(new ByteArrayInputStream(file), shape.getType(), blackhole::consume);
+        counter.rows += rowCount;
+    }
+}
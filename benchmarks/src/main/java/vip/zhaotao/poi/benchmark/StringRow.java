@@ -0,0 +1,37 @@
+package vip.zhaotao.poi.benchmark;
+
+import lombok.Data;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+
+/**
+ * String heavy row
+ *
+ * @author zhaotao
+ */
+@Data
+public class StringRow {
+
+    @ExcelColumn(name = "Code", number = 0)
+    private String code;
+
+    @ExcelColumn(name = "Name", number = 1)
+    private String name;
+
+    @ExcelColumn(name = "Category", number = 2)
+    private String category;
+
+    @ExcelColumn(name = "City", number = 3)
+    private String city;
+
+    @ExcelColumn(name = "Address", number = 4)
+    private String address;
+
+    @ExcelColumn(name = "Email", number = 5)
+    private String email;
+
+    @ExcelColumn(name = "Remark", number = 6)
+    private String remark;
+
+    @ExcelColumn(name = "Status", number = 7)
+    private String status;
+}
@@ -0,0 +1,72 @@
+package vip.zhaotao.poi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import vip.zhaotao.poi.util.ExcelUtils;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of {@link ExcelUtils#write(ExcelUtils.Type, OutputStream, java.util.Iterator, WriteOptions)},
+ * sequential and pipelined, the file is written to a discarding output stream.
+ *
+ * @author zhaotao
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WriteBenchmark {
+
+    @Param({"MICROSOFT_EXCEL", "OFFICE_OPEN_XML_SHEET", "OFFICE_OPEN_XML_SHEET_DIRECT", "CSV", "TSV"})
+    public ExcelUtils.Type type;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rowCount;
+
+    @Param({"NARROW", "WIDE", "STRINGS", "NUMBERS", "DATES"})
+    public DataShape shape;
+
+    /**
+     * 0 is the sequential write, otherwise the mapping threads of the pipelined write
+     */
+    @Param({"0", "2"})
+    public int mappingThreads;
+
+    private List<Object> dataList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataList = shape.generate(rowCount);
+    }
+
+    @Benchmark
+    public long write(RowCounter counter) {
+        DiscardingOutputStream outputStream = new DiscardingOutputStream();
+        ExcelUtils.write(type, outputStream, dataList.iterator(), new WriteOptions().setMappingThreads(mappingThreads));
+        counter.rows += rowCount;
+        return outputStream.count;
+    }
+
+    /**
+     * Counts the written bytes, so the write can not be eliminated
+     */
+    private static class DiscardingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package vip.zhaotao.poi.annotation;
 
+import vip.zhaotao.poi.convert.CellConverter;
+
 import java.lang.annotation.*;
 
 @Documented
@@ -21,4 +23,33 @@ public @interface ExcelColumn {
      * Column data format
      */
     String format() default "";
+
+    /**
+     * Column width sizing, the width is applied once the sheet is complete
+     */
+    WidthMode widthMode() default WidthMode.EXACT;
+
+    /**
+     * Column width in characters, only used by {@link WidthMode#FIXED}
+     */
+    int width() default 0;
+
+    /**
+     * Whether the text cells of a String or enum field are interned on read, equal texts of all rows share one canonical
+     * field value from a dictionary of the column which lives as long as the read, e.g. the status, region or currency
+     * columns of few distinct values
+     */
+    boolean intern() default false;
+
+    /**
+     * Max number of distinct texts of the dictionary of an interned column, once full new texts are not interned,
+     * so a column of many distinct values does not grow the dictionary
+     */
+    int internLimit() default 4096;
+
+    /**
+     * Cell value converter, the default uses the converter registered for the field type
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends CellConverter> converter() default CellConverter.class;
 }
@@ -0,0 +1,24 @@
+package vip.zhaotao.poi.annotation;
+
+/**
+ * Column width sizing of the write
+ *
+ * @author zhaotao
+ */
+public enum WidthMode {
+
+    /**
+     * The width of the ExcelColumn annotation
+     */
+    FIXED,
+
+    /**
+     * Widest cell of the first rows of the sheet, see the write options
+     */
+    SAMPLED,
+
+    /**
+     * Widest cell of all rows of the sheet
+     */
+    EXACT
+}
@@ -0,0 +1,67 @@
+package vip.zhaotao.poi.convert;
+
+import java.util.Date;
+
+/**
+ * Cell value converter of one field type, each method converts one cell type, so numeric cells are converted
+ * from the double value without an intermediate text.
+ * The converter of a column is resolved once, a converter declared on the ExcelColumn annotation
+ * must have a public no argument constructor.
+ *
+ * @param <T> field type
+ * @author zhaotao
+ */
+public interface CellConverter<T> {
+
+    /**
+     * Convert a text cell
+     *
+     * @param value
+     * @return null if no value should be set
+     */
+    default T fromString(String value) {
+        throw new UnsupportedOperationException("String cell is not supported.");
+    }
+
+    /**
+     * Convert a numeric cell which is not date formatted
+     *
+     * @param value
+     * @return null if no value should be set
+     */
+    default T fromNumeric(double value) {
+        throw new UnsupportedOperationException("Numeric cell is not supported.");
+    }
+
+    /**
+     * Convert a numeric cell which is not date formatted, of a workbook whose dates may count from 1904.
+     * Only converters which read the number as an excel date need to override it.
+     *
+     * @param value
+     * @param date1904 whether the dates of the workbook count from 1904
+     * @return null if no value should be set
+     */
+    default T fromNumeric(double value, boolean date1904) {
+        return fromNumeric(value);
+    }
+
+    /**
+     * Convert a date formatted numeric cell
+     *
+     * @param value
+     * @return null if no value should be set
+     */
+    default T fromDate(Date value) {
+        throw new UnsupportedOperationException("Date cell is not supported.");
+    }
+
+    /**
+     * Convert a boolean cell
+     *
+     * @param value
+     * @return null if no value should be set
+     */
+    default T fromBoolean(boolean value) {
+        throw new UnsupportedOperationException("Boolean cell is not supported.");
+    }
+}
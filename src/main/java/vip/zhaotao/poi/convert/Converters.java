@@ -0,0 +1,333 @@
+package vip.zhaotao.poi.convert;
+
+import com.google.common.primitives.Primitives;
+import org.apache.commons.lang3.CharUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+
+/**
+ * Converter registry, the key is the field type.
+ * Built in converters: String, Character, numbers, BigDecimal, Boolean, Date, LocalDate, LocalDateTime, Instant and enums.
+ *
+ * @author zhaotao
+ */
+public final class Converters {
+
+    private static final ConcurrentMap<Class<?>, CellConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Built in Date converter, text cells are not accepted
+     */
+    private static final CellConverter<Date> DATE_CONVERTER = new DateConverter<>(Function.identity(), null);
+
+    static {
+        register(String.class, new StringConverter());
+        register(Character.class, new CharacterConverter());
+        register(Byte.class, new NumberConverter<>(value -> (byte) toWhole(value, byte.class), Byte::valueOf));
+        register(Short.class, new NumberConverter<>(value -> (short) toWhole(value, short.class), Short::valueOf));
+        register(Integer.class, new NumberConverter<>(value -> (int) toWhole(value, int.class), Integer::valueOf));
+        register(Long.class, new NumberConverter<>(value -> toWhole(value, long.class), Long::valueOf));
+        register(Float.class, new NumberConverter<>(value -> (float) value, Float::valueOf));
+        register(Double.class, new NumberConverter<>(Double::valueOf, Double::valueOf));
+        register(BigDecimal.class, new NumberConverter<>(value -> NumberUtils.toScaledBigDecimal(BigDecimal.valueOf(value)),
+                value -> NumberUtils.toScaledBigDecimal(new BigDecimal(value))));
+        register(Boolean.class, new BooleanConverter());
+        register(Date.class, DATE_CONVERTER);
+        register(LocalDate.class, new DateConverter<>(value -> value.toInstant().atZone(ZoneId.systemDefault()).toLocalDate(), LocalDate::parse));
+        register(LocalDateTime.class, new DateConverter<>(value -> LocalDateTime.ofInstant(value.toInstant(), ZoneId.systemDefault()),
+                value -> LocalDateTime.parse(value.replace(' ', 'T'))));
+        register(Instant.class, new DateConverter<>(Date::toInstant, Instant::parse));
+    }
+
+    private Converters() {
+    }
+
+    /**
+     * Register the converter of the field type, replaces the built in converter.
+     * Must be called before the class is first read, the converters of the class columns are resolved only once.
+     *
+     * @param type
+     * @param converter
+     * @param <T>
+     */
+    public static <T> void register(Class<T> type, CellConverter<T> converter) {
+        CONVERTERS.put(Primitives.wrap(type), converter);
+    }
+
+    /**
+     * Get the converter of the field type, primitive types use the converter of the wrapper type.
+     *
+     * @param type
+     * @param <T>
+     * @return a converter which only accepts values of the field type if no converter is registered
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CellConverter<T> get(Class<T> type) {
+        Class<T> wrapperType = Primitives.wrap(type);
+        CellConverter<?> converter = CONVERTERS.get(wrapperType);
+        if (converter == null) {
+            converter = wrapperType.isEnum() ? CONVERTERS.computeIfAbsent(wrapperType, EnumConverter::new) : new InstanceConverter<>(wrapperType);
+        }
+        return (CellConverter<T>) converter;
+    }
+
+    /**
+     * Get a Date converter which also parses text cells with the date pattern, e.g. the dates of delimited text files.
+     *
+     * @param pattern date pattern of {@link FastDateFormat}
+     * @return the registered converter if the built in Date converter is replaced
+     */
+    public static CellConverter<Date> getDateConverter(String pattern) {
+        CellConverter<Date> registered = get(Date.class);
+        if (registered != DATE_CONVERTER) {
+            return registered;
+        }
+        FastDateFormat dateFormat = FastDateFormat.getInstance(pattern);
+        return new DateConverter<>(Function.identity(), value -> {
+            try {
+                return dateFormat.parse(value);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException(String.format("Invalid date, %s, expected pattern is %s.", value, pattern), e);
+            }
+        });
+    }
+
+    /**
+     * Whether the converter is a built in converter of numbers or booleans, which converts numeric and boolean cells
+     * by narrowing the value, so the cells can be written through the primitive setters of the column.
+     *
+     * @param converter
+     * @return
+     */
+    public static boolean isBuiltIn(CellConverter<?> converter) {
+        return converter instanceof NumberConverter || converter instanceof BooleanConverter;
+    }
+
+    /**
+     * Narrow the value to a whole number of the integer type, fractional values and values out of the range
+     * are not rounded or wrapped.
+     *
+     * @param value
+     * @param type  byte, short, int or long, primitive or boxed
+     * @return
+     */
+    public static long toWhole(double value, Class<?> type) {
+        long min;
+        long max;
+        if (type == int.class || type == Integer.class) {
+            min = Integer.MIN_VALUE;
+            max = Integer.MAX_VALUE;
+        } else if (type == long.class || type == Long.class) {
+            min = Long.MIN_VALUE;
+            max = Long.MAX_VALUE;
+        } else if (type == short.class || type == Short.class) {
+            min = Short.MIN_VALUE;
+            max = Short.MAX_VALUE;
+        } else if (type == byte.class || type == Byte.class) {
+            min = Byte.MIN_VALUE;
+            max = Byte.MAX_VALUE;
+        } else {
+            throw new IllegalArgumentException(String.format("%s is not an integer type.", type.getSimpleName()));
+        }
+        // max + 1 is exact as a double, max itself is rounded up for long
+        if (value != Math.rint(value) || value < min || value >= max + 1d) {
+            throw new IllegalArgumentException(String.format("Invalid %s, %s, expected a whole number from %s to %s.",
+                    Primitives.unwrap(type).getSimpleName(), NumberToTextConverter.toText(value), min, max));
+        }
+        return (long) value;
+    }
+
+    private static class StringConverter implements CellConverter<String> {
+
+        @Override
+        public String fromString(String value) {
+            return value;
+        }
+
+        @Override
+        public String fromNumeric(double value) {
+            return NumberToTextConverter.toText(value);
+        }
+    }
+
+    private static class CharacterConverter implements CellConverter<Character> {
+
+        @Override
+        public Character fromString(String value) {
+            return CharUtils.toChar(value);
+        }
+
+        @Override
+        public Character fromNumeric(double value) {
+            return NumberToTextConverter.toText(value).charAt(0);
+        }
+    }
+
+    /**
+     * Numeric cells are narrowed from the double value, text cells are parsed and blank text is no value.
+     * Integer types only accept whole numbers of their range.
+     */
+    private static class NumberConverter<T> implements CellConverter<T> {
+
+        private final DoubleFunction<T> numericFunction;
+
+        private final Function<String, T> parseFunction;
+
+        private NumberConverter(DoubleFunction<T> numericFunction, Function<String, T> parseFunction) {
+            this.numericFunction = numericFunction;
+            this.parseFunction = parseFunction;
+        }
+
+        @Override
+        public T fromString(String value) {
+            if (StringUtils.isBlank(value)) {
+                return null;
+            }
+            String text = value.trim();
+            try {
+                return parseFunction.apply(text);
+            } catch (NumberFormatException e) {
+                // e.g. 1.0 or 1E3 of an integer field, 1.5 and values out of the range are rejected
+                return numericFunction.apply(Double.parseDouble(text));
+            }
+        }
+
+        @Override
+        public T fromNumeric(double value) {
+            return numericFunction.apply(value);
+        }
+    }
+
+    private static class BooleanConverter implements CellConverter<Boolean> {
+
+        @Override
+        public Boolean fromString(String value) {
+            if (StringUtils.isBlank(value)) {
+                return null;
+            }
+            String text = value.trim();
+            if (!Boolean.TRUE.toString().equalsIgnoreCase(text) && !Boolean.FALSE.toString().equalsIgnoreCase(text)) {
+                throw new IllegalArgumentException(String.format("Invalid boolean, %s.", value));
+            }
+            return Boolean.valueOf(text);
+        }
+
+        @Override
+        public Boolean fromBoolean(boolean value) {
+            return value;
+        }
+    }
+
+    /**
+     * Date cells and numeric cells as excel date, text cells are parsed as ISO 8601 if the parse function is not null
+     */
+    private static class DateConverter<T> implements CellConverter<T> {
+
+        private final Function<Date, T> dateFunction;
+
+        private final Function<String, T> parseFunction;
+
+        private DateConverter(Function<Date, T> dateFunction, Function<String, T> parseFunction) {
+            this.dateFunction = dateFunction;
+            this.parseFunction = parseFunction;
+        }
+
+        @Override
+        public T fromString(String value) {
+            if (parseFunction == null) {
+                return CellConverter.super.fromString(value);
+            }
+            return StringUtils.isBlank(value) ? null : parseFunction.apply(value.trim());
+        }
+
+        @Override
+        public T fromNumeric(double value) {
+            return fromNumeric(value, false);
+        }
+
+        @Override
+        public T fromNumeric(double value, boolean date1904) {
+            if (!DateUtil.isValidExcelDate(value)) {
+                throw new IllegalArgumentException(String.format("Invalid excel date, %s.", value));
+            }
+            return dateFunction.apply(DateUtil.getJavaDate(value, date1904));
+        }
+
+        @Override
+        public T fromDate(Date value) {
+            return dateFunction.apply(value);
+        }
+    }
+
+    /**
+     * Text cells are the constant names
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static class EnumConverter implements CellConverter<Enum> {
+
+        private final Class<? extends Enum> type;
+
+        private EnumConverter(Class<?> type) {
+            this.type = (Class<? extends Enum>) type;
+        }
+
+        @Override
+        public Enum fromString(String value) {
+            return StringUtils.isBlank(value) ? null : Enum.valueOf(type, value.trim());
+        }
+    }
+
+    /**
+     * Field types without converter, e.g. Object or CharSequence, only accept the cell values of the field type
+     */
+    private static class InstanceConverter<T> implements CellConverter<T> {
+
+        private final Class<T> type;
+
+        private InstanceConverter(Class<T> type) {
+            this.type = type;
+        }
+
+        @Override
+        public T fromString(String value) {
+            return cast(value);
+        }
+
+        @Override
+        public T fromNumeric(double value) {
+            return cast(value);
+        }
+
+        @Override
+        public T fromDate(Date value) {
+            return cast(value);
+        }
+
+        @Override
+        public T fromBoolean(boolean value) {
+            return cast(value);
+        }
+
+        private T cast(Object value) {
+            if (!type.isInstance(value)) {
+                throw new UnsupportedOperationException(String.format("%s cell is not supported.", value.getClass().getSimpleName()));
+            }
+            return type.cast(value);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package vip.zhaotao.poi.crypt;
+
+import lombok.Lombok;
+import org.apache.poi.poifs.crypt.*;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Output stream of an office open xml package which is encrypted with the password, with the agile encryption
+ * (AES-256, SHA-512) of excel. The package is encrypted in chunks as it is written and the encrypted compound file
+ * is built in a temp file, so neither the plain nor the encrypted package is kept in memory.
+ * The encrypted file is copied to the target output stream by {@link #finish()}.
+ *
+ * @author zhaotao
+ */
+public class EncryptedPackageOutputStream extends OutputStream {
+
+    private final OutputStream outputStream;
+
+    private final File file;
+
+    private final POIFSFileSystem fileSystem;
+
+    /**
+     * Chunked cipher stream of the encrypted package entry
+     */
+    private final OutputStream dataStream;
+
+    private boolean finished;
+
+    /**
+     * Create the stream
+     *
+     * @param outputStream target of the encrypted file, not closed by this stream
+     * @param password
+     */
+    public EncryptedPackageOutputStream(OutputStream outputStream, String password) {
+        if (password == null) {
+            throw new IllegalArgumentException("Password of the encrypted package is null.");
+        }
+        this.outputStream = outputStream;
+        File tempFile = null;
+        POIFSFileSystem poifsFileSystem = null;
+        try {
+            tempFile = TempFile.createTempFile("excel-encrypted", ".tmp");
+            // The file backed file system writes its blocks to the temp file instead of the heap
+            poifsFileSystem = POIFSFileSystem.create(tempFile);
+            EncryptionInfo info = new EncryptionInfo(EncryptionMode.agile, CipherAlgorithm.aes256, HashAlgorithm.sha512, -1, -1, null);
+            Encryptor encryptor = info.getEncryptor();
+            encryptor.confirmPassword(password);
+            this.dataStream = encryptor.getDataStream(poifsFileSystem);
+        } catch (Throwable t) {
+            IOUtils.closeQuietly(poifsFileSystem);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            throw Lombok.sneakyThrow(t);
+        }
+        this.file = tempFile;
+        this.fileSystem = poifsFileSystem;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        dataStream.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        dataStream.write(b, off, len);
+    }
+
+    /**
+     * Encrypt the rest of the package and copy the encrypted file to the output stream, the output stream is not closed.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            // Closing the data stream writes the encrypted package and the encryption info to the file system
+            dataStream.close();
+            fileSystem.writeFilesystem();
+            fileSystem.close();
+            Files.copy(file.toPath(), outputStream);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Delete the temp files, the output stream is not closed.
+     * If the stream is not finished nothing is written to the output stream.
+     */
+    @Override
+    public void close() {
+        if (!finished) {
+            finished = true;
+            // The data stream deletes its own temp file when it is closed
+            IOUtils.closeQuietly(dataStream);
+        }
+        IOUtils.closeQuietly(fileSystem);
+        file.delete();
+    }
+}
@@ -0,0 +1,57 @@
+package vip.zhaotao.poi.crypt;
+
+import lombok.Lombok;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.TempFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Decryption of encrypted office open xml packages, the package is decrypted in chunks into a temp file
+ * instead of the heap, and parsed from the temp file as a plain package.
+ *
+ * @author zhaotao
+ */
+public final class PackageDecryption {
+
+    private PackageDecryption() {
+    }
+
+    /**
+     * Decrypt the package of the compound file into a temp file.
+     *
+     * @param file     compound file
+     * @param password null tries the default password of excel, which is used by files protected only against modification
+     * @return the decrypted package, deleted by the caller, null if the compound file is not an encrypted package
+     */
+    public static File decrypt(File file, String password) {
+        File decryptedFile = null;
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(file, true)) {
+            if (!fileSystem.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY)) {
+                return null;
+            }
+            EncryptionInfo info = new EncryptionInfo(fileSystem);
+            Decryptor decryptor = info.getDecryptor();
+            if (!decryptor.verifyPassword(password == null ? Decryptor.DEFAULT_PASSWORD : password)) {
+                throw new EncryptedDocumentException(password == null ? "The file is encrypted, the password is required."
+                        : "Password of the encrypted file is incorrect.");
+            }
+            decryptedFile = TempFile.createTempFile("excel-decrypted", ".tmp");
+            try (InputStream inputStream = decryptor.getDataStream(fileSystem)) {
+                Files.copy(inputStream, decryptedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return decryptedFile;
+        } catch (Throwable t) {
+            if (decryptedFile != null) {
+                decryptedFile.delete();
+            }
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package vip.zhaotao.poi.engine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of byte buffers of one size, a buffer is created when the pool is empty
+ * and dropped when it is returned to a full pool.
+ *
+ * @author zhaotao
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[bufferSize] : buffer;
+    }
+
+    void release(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    /**
+     * Number of idle buffers in the pool
+     *
+     * @return
+     */
+    int size() {
+        return buffers.size();
+    }
+}
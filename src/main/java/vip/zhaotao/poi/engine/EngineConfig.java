@@ -0,0 +1,56 @@
+package vip.zhaotao.poi.engine;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.File;
+
+/**
+ * Excel engine configuration
+ *
+ * @author zhaotao
+ */
+@Data
+@Accessors(chain = true)
+public class EngineConfig {
+
+    /**
+     * Max number of reads and writes running at the same time, the other operations wait in the queue
+     */
+    private int maxConcurrentOperations = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Max number of operations waiting for a running slot, further operations are rejected at once
+     */
+    private int maxQueuedOperations = 100;
+
+    /**
+     * Max time in milliseconds an operation waits in the queue before it is rejected
+     */
+    private long queueTimeoutMillis = 30000L;
+
+    /**
+     * Max running time in milliseconds of an operation, checked between rows, 0 means no timeout
+     */
+    private long operationTimeoutMillis;
+
+    /**
+     * Directory of the temp files created by the operations, null means the excel-engine directory in java.io.tmpdir
+     */
+    private File tempDirectory;
+
+    /**
+     * Max total size in bytes of the temp files of the running operations, 0 means no quota
+     */
+    private long diskQuota;
+
+    /**
+     * Size in bytes of the pooled buffers between the engine and the streams of the caller
+     */
+    private int bufferSize = 65536;
+
+    /**
+     * Max number of sheets of one multi-sheet write generated at the same time
+     */
+    private int maxConcurrentSheets = 2;
+}
@@ -0,0 +1,49 @@
+package vip.zhaotao.poi.engine;
+
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.util.TempFileCreationStrategy;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Temp file creation strategy of POI which creates the temp files of the thread's engine operation in the
+ * engine directory and registers them with the operation, including the sheet files of SXSSF.
+ * Temp files outside an operation are created by the default strategy.
+ *
+ * @author zhaotao
+ */
+final class EngineTempFileStrategy implements TempFileCreationStrategy {
+
+    private static final EngineTempFileStrategy INSTANCE = new EngineTempFileStrategy();
+
+    private static boolean installed;
+
+    private final TempFileCreationStrategy defaultStrategy = new DefaultTempFileCreationStrategy();
+
+    private EngineTempFileStrategy() {
+    }
+
+    /**
+     * Install the strategy, it replaces the strategy of POI for the whole JVM.
+     */
+    static synchronized void install() {
+        if (!installed) {
+            TempFile.setTempFileCreationStrategy(INSTANCE);
+            installed = true;
+        }
+    }
+
+    @Override
+    public File createTempFile(String prefix, String suffix) throws IOException {
+        Operation operation = Operation.current();
+        return operation == null ? defaultStrategy.createTempFile(prefix, suffix) : operation.createTempFile(prefix, suffix);
+    }
+
+    @Override
+    public File createTempDirectory(String prefix) throws IOException {
+        Operation operation = Operation.current();
+        return operation == null ? defaultStrategy.createTempDirectory(prefix) : operation.createTempDirectory(prefix);
+    }
+}
@@ -0,0 +1,315 @@
+package vip.zhaotao.poi.engine;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.Lombok;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.read.RowHandler;
+import vip.zhaotao.poi.read.RowIterator;
+import vip.zhaotao.poi.read.StreamReader;
+import vip.zhaotao.poi.util.ExcelUtils.Type;
+import vip.zhaotao.poi.write.ParallelSheetWriter;
+import vip.zhaotao.poi.write.RowWriter;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Reusable and thread safe excel engine of a server, unlike {@link vip.zhaotao.poi.util.ExcelUtils} the reads and writes
+ * of an engine share its resources and are admitted under its limits:
+ * <ul>
+ * <li>At most the max concurrent operations run at the same time, the others wait in a bounded queue
+ * and are rejected with a {@link RejectedExecutionException} when the queue is full or the queue timeout is over.</li>
+ * <li>The temp files of an operation, including the sheet files of SXSSF, are created in the engine directory
+ * and deleted when the operation ends. Their total size is bounded by the disk quota.</li>
+ * <li>An operation over the operation timeout fails with an {@link com.google.common.util.concurrent.UncheckedTimeoutException}
+ * at the next row.</li>
+ * <li>The streams of the caller are buffered with pooled buffers and are never closed by the engine.</li>
+ * </ul>
+ * The row mappers of the classes are shared by all operations, see {@link #warmUp(Class[])}.
+ * Styles belong to one workbook, they are cached per file by the writers.
+ *
+ * @author zhaotao
+ */
+public class ExcelEngine implements Closeable {
+
+    private final EngineConfig config;
+
+    private final File tempDirectory;
+
+    private final Semaphore operationPermits;
+
+    private final AtomicInteger queuedOperations = new AtomicInteger();
+
+    private final Set<Operation> operations = ConcurrentHashMap.newKeySet();
+
+    private final BufferPool bufferPool;
+
+    private volatile boolean closed;
+
+    public ExcelEngine() {
+        this(new EngineConfig());
+    }
+
+    public ExcelEngine(EngineConfig config) {
+        if (config.getMaxConcurrentOperations() <= 0) {
+            throw new IllegalArgumentException(String.format("Max concurrent operations must be positive, value is %s.",
+                    config.getMaxConcurrentOperations()));
+        }
+        if (config.getBufferSize() <= 0) {
+            throw new IllegalArgumentException(String.format("Buffer size must be positive, value is %s.", config.getBufferSize()));
+        }
+        this.config = config;
+        this.tempDirectory = config.getTempDirectory() == null
+                ? new File(System.getProperty("java.io.tmpdir"), "excel-engine") : config.getTempDirectory();
+        if (!tempDirectory.isDirectory() && !tempDirectory.mkdirs() && !tempDirectory.isDirectory()) {
+            throw new IllegalArgumentException(String.format("Temp directory can not be created, %s.", tempDirectory));
+        }
+        this.operationPermits = new Semaphore(config.getMaxConcurrentOperations(), true);
+        // A read and a write buffer for each running operation
+        this.bufferPool = new BufferPool(config.getBufferSize(), config.getMaxConcurrentOperations() * 2);
+        EngineTempFileStrategy.install();
+    }
+
+    /**
+     * Compile the row mappers of the classes ahead of the first operation.
+     *
+     * @param classes
+     */
+    public void warmUp(Class<?>... classes) {
+        RowMapper.warmUp(classes);
+    }
+
+    /**
+     * Streaming write file, the output stream is not closed.
+     *
+     * @param type
+     * @param outputStream
+     * @param iterator
+     * @param options
+     * @param <T>
+     */
+    public <T> void write(Type type, OutputStream outputStream, Iterator<T> iterator, WriteOptions options) {
+        if (type == null || outputStream == null || iterator == null || !iterator.hasNext()) {
+            return;
+        }
+        try (Operation operation = begin();
+             OutputStream bufferedStream = new PooledOutputStream(outputStream, bufferPool);
+             RowWriter rowWriter = RowWriter.open(type, bufferedStream, options)) {
+            rowWriter.write(operation.check(iterator));
+            rowWriter.finish();
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Streaming write file, the stream is consumed sequentially and closed, the output stream is not closed.
+     *
+     * @param type
+     * @param outputStream
+     * @param stream
+     * @param options
+     * @param <T>
+     */
+    public <T> void write(Type type, OutputStream outputStream, Stream<T> stream, WriteOptions options) {
+        if (stream == null) {
+            return;
+        }
+        try (Stream<T> s = stream) {
+            write(type, outputStream, s.iterator(), options);
+        }
+    }
+
+    /**
+     * Write an office open xml sheet file of several sheets, up to the max concurrent sheets are generated
+     * at the same time on the common fork join pool, see {@link ParallelSheetWriter}. The output stream is not closed.
+     *
+     * @param outputStream
+     * @param sheets       key is the sheet name, in the order of the map
+     * @param options
+     */
+    public void writeSheets(OutputStream outputStream, Map<String, ? extends Iterable<?>> sheets, WriteOptions options) {
+        if (outputStream == null || sheets == null) {
+            return;
+        }
+        try (Operation operation = begin();
+             OutputStream bufferedStream = new PooledOutputStream(outputStream, bufferPool)) {
+            Map<String, Iterable<?>> checkedSheets = Maps.newLinkedHashMap();
+            sheets.forEach((name, rows) -> checkedSheets.put(name, operation.check(rows)));
+            new ParallelSheetWriter(operation.wrap(ForkJoinPool.commonPool()), config.getMaxConcurrentSheets())
+                    .write(bufferedStream, checkedSheets, options);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Streaming read the workbook, the input stream is not closed.
+     *
+     * @param inputStream
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> read(InputStream inputStream, ReadQuery query, Class<T> clazz) {
+        return read(inputStream, null, query, clazz);
+    }
+
+    /**
+     * Streaming read the file of the type, the input stream is not closed.
+     *
+     * @param inputStream
+     * @param type        null detects the workbook type, delimited text must be given the type
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> read(InputStream inputStream, Type type, ReadQuery query, Class<T> clazz) {
+        List<T> dataList = Lists.newArrayList();
+        read(inputStream, type, query, clazz, dataList::add);
+        return dataList;
+    }
+
+    /**
+     * Streaming read the file of the type, each mapped row is passed to the handler. The input stream is not closed.
+     *
+     * @param inputStream
+     * @param type        null detects the workbook type, delimited text must be given the type
+     * @param query
+     * @param clazz
+     * @param handler
+     * @param <T>
+     */
+    public <T> void read(InputStream inputStream, Type type, ReadQuery query, Class<T> clazz, RowHandler<T> handler) {
+        if (inputStream == null || query == null || clazz == null || handler == null) {
+            return;
+        }
+        try (Operation operation = begin();
+             InputStream bufferedStream = new PooledInputStream(inputStream, bufferPool);
+             RowIterator<T> reader = type == null ? StreamReader.open(bufferedStream, query, clazz)
+                     : StreamReader.open(bufferedStream, type, query, clazz)) {
+            while (reader.hasNext()) {
+                operation.checkRow();
+                handler.handle(reader.next());
+            }
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Admit an operation on the calling thread, wait in the queue if all running slots are taken.
+     *
+     * @return
+     */
+    private Operation begin() {
+        if (closed) {
+            throw new RejectedExecutionException("Excel engine is closed.");
+        }
+        if (!operationPermits.tryAcquire()) {
+            if (queuedOperations.incrementAndGet() > config.getMaxQueuedOperations()) {
+                queuedOperations.decrementAndGet();
+                throw new RejectedExecutionException(String.format("Too many excel operations, %s are running and %s are queued.",
+                        getRunningOperations(), config.getMaxQueuedOperations()));
+            }
+            try {
+                if (!operationPermits.tryAcquire(config.getQueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new RejectedExecutionException(String.format("No excel operation slot is free within %s ms.",
+                            config.getQueueTimeoutMillis()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Lombok.sneakyThrow(e);
+            } finally {
+                queuedOperations.decrementAndGet();
+            }
+        }
+        Operation operation;
+        try {
+            long diskUsage = getDiskUsage();
+            if (config.getDiskQuota() > 0 && diskUsage >= config.getDiskQuota()) {
+                throw new RejectedExecutionException(String.format("Disk quota of the temp files is used up, %s of %s bytes are used.",
+                        diskUsage, config.getDiskQuota()));
+            }
+            operation = new Operation(this, TimeUnit.MILLISECONDS.toNanos(config.getOperationTimeoutMillis()));
+        } catch (Throwable t) {
+            operationPermits.release();
+            throw t;
+        }
+        operations.add(operation);
+        operation.bind();
+        return operation;
+    }
+
+    /**
+     * Release the running slot of the ended operation.
+     *
+     * @param operation
+     */
+    void end(Operation operation) {
+        if (operations.remove(operation)) {
+            operationPermits.release();
+        }
+    }
+
+    /**
+     * Fail the operation if the temp files of all running operations are over the disk quota.
+     */
+    void checkDiskQuota() {
+        if (config.getDiskQuota() <= 0) {
+            return;
+        }
+        long diskUsage = getDiskUsage();
+        if (diskUsage > config.getDiskQuota()) {
+            throw new IllegalStateException(String.format("Disk quota of the temp files is exceeded, %s of %s bytes are used.",
+                    diskUsage, config.getDiskQuota()));
+        }
+    }
+
+    File getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * Total size in bytes of the temp files of the running operations
+     *
+     * @return
+     */
+    public long getDiskUsage() {
+        long diskUsage = 0;
+        for (Operation operation : operations) {
+            diskUsage += operation.getDiskUsage();
+        }
+        return diskUsage;
+    }
+
+    public int getRunningOperations() {
+        return operations.size();
+    }
+
+    public int getQueuedOperations() {
+        return queuedOperations.get();
+    }
+
+    /**
+     * Reject new operations, the running operations are completed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,201 @@
+package vip.zhaotao.poi.engine;
+
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * One running read or write of the engine, it owns the temp files created on its threads and checks the timeout
+ * and the disk quota between rows. The temp files which are left when the operation ends are deleted.
+ * <p>
+ * The operation is bound to the calling thread and inherited by the threads it starts, e.g. the writer thread
+ * of the pipelined mode, tasks on executors are bound by {@link #wrap(Executor)}.
+ *
+ * @author zhaotao
+ */
+class Operation implements Closeable {
+
+    /**
+     * Rows between two checks of the disk usage, the sizes of the temp files are read from the file system
+     */
+    private static final int DISK_CHECK_INTERVAL = 1024;
+
+    private static final InheritableThreadLocal<Operation> CURRENT = new InheritableThreadLocal<>();
+
+    private final ExcelEngine engine;
+
+    private final long startNanos;
+
+    /**
+     * Max running time in nanoseconds, 0 means no timeout
+     */
+    private final long timeoutNanos;
+
+    private final Queue<File> files = new ConcurrentLinkedQueue<>();
+
+    private final Queue<File> directories = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger rowCount = new AtomicInteger();
+
+    /**
+     * Operation of the calling thread before this one was bound, e.g. a read within the row handler of another read
+     */
+    private Operation previous;
+
+    private volatile boolean closed;
+
+    Operation(ExcelEngine engine, long timeoutNanos) {
+        this.engine = engine;
+        this.startNanos = System.nanoTime();
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Operation of the current thread
+     *
+     * @return null if the thread does not run an operation
+     */
+    static Operation current() {
+        Operation operation = CURRENT.get();
+        // Threads started by an operation keep it after the operation has ended
+        return operation == null || operation.closed ? null : operation;
+    }
+
+    void bind() {
+        previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Executor whose tasks run bound to this operation.
+     *
+     * @param executor
+     * @return
+     */
+    Executor wrap(Executor executor) {
+        return command -> executor.execute(() -> {
+            Operation previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                command.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        });
+    }
+
+    /**
+     * Iterator which checks the operation before each row.
+     *
+     * @param iterator
+     * @param <T>
+     * @return
+     */
+    <T> Iterator<T> check(Iterator<T> iterator) {
+        return new Iterator<T>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                checkRow();
+                return iterator.next();
+            }
+        };
+    }
+
+    <T> Iterable<T> check(Iterable<T> iterable) {
+        return () -> check(iterable.iterator());
+    }
+
+    /**
+     * Check the timeout of each row and the disk quota every n-th row.
+     */
+    void checkRow() {
+        checkTimeout();
+        if (rowCount.incrementAndGet() % DISK_CHECK_INTERVAL == 0) {
+            engine.checkDiskQuota();
+        }
+    }
+
+    private void checkTimeout() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (timeoutNanos > 0 && elapsedNanos > timeoutNanos) {
+            throw new UncheckedTimeoutException(String.format("Excel operation timed out after %s ms.", elapsedNanos / 1000000L));
+        }
+    }
+
+    File createTempFile(String prefix, String suffix) throws IOException {
+        engine.checkDiskQuota();
+        File file = Files.createTempFile(engine.getTempDirectory().toPath(), prefix, suffix).toFile();
+        files.add(file);
+        return file;
+    }
+
+    File createTempDirectory(String prefix) throws IOException {
+        File directory = Files.createTempDirectory(engine.getTempDirectory().toPath(), prefix).toFile();
+        directories.add(directory);
+        return directory;
+    }
+
+    /**
+     * Total size of the temp files which still exist, deleted files are forgotten
+     *
+     * @return
+     */
+    long getDiskUsage() {
+        long usage = 0;
+        Iterator<File> iterator = files.iterator();
+        while (iterator.hasNext()) {
+            File file = iterator.next();
+            if (file.exists()) {
+                usage += file.length();
+            } else {
+                iterator.remove();
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * End the operation on the calling thread, the temp files which are left are deleted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (CURRENT.get() == this) {
+            CURRENT.set(previous);
+        }
+        for (File file : files) {
+            file.delete();
+        }
+        files.clear();
+        for (File directory : directories) {
+            delete(directory);
+        }
+        directories.clear();
+        engine.end(this);
+    }
+
+    private static void delete(File directory) {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Already deleted
+        }
+    }
+}
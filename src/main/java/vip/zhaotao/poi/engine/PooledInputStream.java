@@ -0,0 +1,86 @@
+package vip.zhaotao.poi.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Buffered input stream of the caller's stream with a pooled buffer,
+ * closing it returns the buffer to the pool and does not close the caller's stream.
+ *
+ * @author zhaotao
+ */
+class PooledInputStream extends InputStream {
+
+    private final InputStream inputStream;
+
+    private final BufferPool bufferPool;
+
+    private byte[] buffer;
+
+    private int position;
+
+    private int limit;
+
+    PooledInputStream(InputStream inputStream, BufferPool bufferPool) {
+        this.inputStream = inputStream;
+        this.bufferPool = bufferPool;
+        this.buffer = bufferPool.acquire();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit) {
+            if (len >= ensureOpen().length) {
+                // Large reads bypass the buffer
+                return inputStream.read(b, off, len);
+            }
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return limit - position + inputStream.available();
+    }
+
+    private boolean fill() throws IOException {
+        int n = inputStream.read(ensureOpen());
+        position = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+
+    private byte[] ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed.");
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            bufferPool.release(buffer);
+            buffer = null;
+            position = 0;
+            limit = 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package vip.zhaotao.poi.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffered output stream to the caller's stream with a pooled buffer,
+ * closing it flushes and returns the buffer to the pool and does not close the caller's stream.
+ *
+ * @author zhaotao
+ */
+class PooledOutputStream extends OutputStream {
+
+    private final OutputStream outputStream;
+
+    private final BufferPool bufferPool;
+
+    private byte[] buffer;
+
+    private int count;
+
+    PooledOutputStream(OutputStream outputStream, BufferPool bufferPool) {
+        this.outputStream = outputStream;
+        this.bufferPool = bufferPool;
+        this.buffer = bufferPool.acquire();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == ensureOpen().length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len >= ensureOpen().length) {
+            // Large writes bypass the buffer
+            flushBuffer();
+            outputStream.write(b, off, len);
+            return;
+        }
+        if (len > buffer.length - count) {
+            flushBuffer();
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            outputStream.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private byte[] ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed.");
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            bufferPool.release(buffer);
+            buffer = null;
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package vip.zhaotao.poi.mapping;
+
+import com.google.common.primitives.Primitives;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Lombok;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+import vip.zhaotao.poi.annotation.WidthMode;
+import vip.zhaotao.poi.convert.CellConverter;
+import vip.zhaotao.poi.convert.Converters;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Date;
+
+/**
+ * Compiled ExcelColumn annotated field, the field is accessed through method handles which are resolved only once.
+ *
+ * @author zhaotao
+ */
+@Getter
+public final class ColumnMapping {
+
+    /**
+     * Default date format, used when the date field has no format
+     */
+    public static final String DEFAULT_DATE_FORMAT = String.format("%s %s",
+            DateFormatUtils.ISO_8601_EXTENDED_DATE_FORMAT.getPattern(), DateFormatUtils.ISO_8601_EXTENDED_TIME_FORMAT.getPattern());
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Column name
+     */
+    private final String name;
+
+    /**
+     * Column number
+     */
+    private final int number;
+
+    /**
+     * Column data format, date fields without format use {@link #DEFAULT_DATE_FORMAT}
+     */
+    private final String format;
+
+    /**
+     * Class field
+     */
+    private final Field field;
+
+    /**
+     * Field type
+     */
+    private final Class<?> type;
+
+    /**
+     * Column width sizing
+     */
+    private final WidthMode widthMode;
+
+    /**
+     * Column width in characters of the fixed width mode
+     */
+    private final int width;
+
+    /**
+     * Cell value converter of the field type
+     */
+    private final CellConverter<?> converter;
+
+    /**
+     * Whether the text cells are converted through a dictionary of the read
+     */
+    private final boolean interned;
+
+    /**
+     * Max number of distinct texts of the dictionary
+     */
+    private final int internLimit;
+
+    /**
+     * Whether numeric cells are written through the primitive setters without a boxed value,
+     * the field is numeric and has a built in converter
+     */
+    private final boolean directNumeric;
+
+    /**
+     * Whether boolean cells are written through the primitive setter without a boxed value,
+     * the field is boolean and has the built in converter
+     */
+    private final boolean directBoolean;
+
+    /**
+     * Whether the field is byte, short, int or long, primitive or boxed
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean wholeNumber;
+
+    /**
+     * (Object)Object
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle getter;
+
+    /**
+     * (Object, Object)void
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle setter;
+
+    /**
+     * (Object)double, null if the field is not numeric
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle doubleGetter;
+
+    /**
+     * (Object)long, null if the field is not numeric
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle longGetter;
+
+    /**
+     * (Object, double)void, null if the field is not numeric
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle doubleSetter;
+
+    /**
+     * (Object, long)void, null if the field is not numeric
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle longSetter;
+
+    /**
+     * (Object, boolean)void, null if the field is not boolean
+     */
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle booleanSetter;
+
+    ColumnMapping(ExcelColumn annotation, Field field) throws ReflectiveOperationException {
+        this.name = annotation.name();
+        this.number = annotation.number();
+        this.field = field;
+        this.type = field.getType();
+        this.format = StringUtils.isBlank(annotation.format()) && Date.class.isAssignableFrom(type) ? DEFAULT_DATE_FORMAT : annotation.format();
+
+        this.widthMode = annotation.widthMode();
+        this.width = annotation.width();
+        if (annotation.converter() != CellConverter.class) {
+            this.converter = annotation.converter().getConstructor().newInstance();
+        } else if (type == Date.class) {
+            // Text dates are parsed with the column format
+            this.converter = Converters.getDateConverter(format);
+        } else {
+            this.converter = Converters.get(type);
+        }
+        if (annotation.intern()) {
+            // Only immutable values can be shared by the beans
+            if (type != String.class && !type.isEnum()) {
+                throw new IllegalArgumentException(String.format("%s field can not be interned, only String and enum fields are supported.",
+                        field.getName()));
+            }
+            if (annotation.internLimit() <= 0) {
+                throw new IllegalArgumentException(String.format("Intern limit of %s field must be positive, value is %s.",
+                        field.getName(), annotation.internLimit()));
+            }
+        }
+        this.interned = annotation.intern();
+        this.internLimit = annotation.internLimit();
+
+        field.setAccessible(true);
+        MethodHandle rawGetter = LOOKUP.unreflectGetter(field);
+        MethodHandle rawSetter = LOOKUP.unreflectSetter(field);
+        this.getter = rawGetter.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = rawSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+        Class<?> primitiveType = Primitives.unwrap(type);
+        if (isNumeric(primitiveType)) {
+            MethodHandle primitiveGetter = rawGetter;
+            MethodHandle primitiveSetter = rawSetter;
+            if (!type.isPrimitive()) {
+                // Box only at the field boundary, e.g. Integer.valueOf(int) and Integer.intValue()
+                primitiveGetter = MethodHandles.filterReturnValue(rawGetter,
+                        LOOKUP.findVirtual(type, primitiveType.getName() + "Value", MethodType.methodType(primitiveType)));
+                primitiveSetter = MethodHandles.filterArguments(rawSetter, 1,
+                        LOOKUP.findStatic(type, "valueOf", MethodType.methodType(type, primitiveType)));
+            }
+            this.doubleGetter = MethodHandles.explicitCastArguments(primitiveGetter, MethodType.methodType(double.class, Object.class));
+            this.longGetter = MethodHandles.explicitCastArguments(primitiveGetter, MethodType.methodType(long.class, Object.class));
+            this.doubleSetter = MethodHandles.explicitCastArguments(primitiveSetter, MethodType.methodType(void.class, Object.class, double.class));
+            this.longSetter = MethodHandles.explicitCastArguments(primitiveSetter, MethodType.methodType(void.class, Object.class, long.class));
+        } else {
+            this.doubleGetter = null;
+            this.longGetter = null;
+            this.doubleSetter = null;
+            this.longSetter = null;
+        }
+        this.directNumeric = doubleSetter != null && Converters.isBuiltIn(converter);
+        this.wholeNumber = primitiveType == byte.class || primitiveType == short.class || primitiveType == int.class || primitiveType == long.class;
+        if (primitiveType == boolean.class) {
+            MethodHandle primitiveSetter = type.isPrimitive() ? rawSetter : MethodHandles.filterArguments(rawSetter, 1,
+                    LOOKUP.findStatic(Boolean.class, "valueOf", MethodType.methodType(Boolean.class, boolean.class)));
+            this.booleanSetter = primitiveSetter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+        } else {
+            this.booleanSetter = null;
+        }
+        this.directBoolean = booleanSetter != null && Converters.isBuiltIn(converter);
+    }
+
+    private static boolean isNumeric(Class<?> primitiveType) {
+        return primitiveType == byte.class || primitiveType == short.class || primitiveType == int.class
+                || primitiveType == long.class || primitiveType == float.class || primitiveType == double.class;
+    }
+
+    /**
+     * Whether the field is a primitive or boxed number, then the typed accessors can be used.
+     *
+     * @return
+     */
+    public boolean isNumeric() {
+        return doubleSetter != null;
+    }
+
+    public boolean isPrimitive() {
+        return type.isPrimitive();
+    }
+
+    /**
+     * Create an empty dictionary of the text cells for one read, the mapping is cached and shared by all reads,
+     * so the dictionary is held by the reader and released with it.
+     *
+     * @return null if the column is not interned
+     */
+    public ValueDictionary newDictionary() {
+        return interned ? new ValueDictionary(converter, internLimit) : null;
+    }
+
+    /**
+     * Convert the cell value to the field type.
+     *
+     * @param cellValue String, Date, Boolean or Double
+     * @return null if no value should be set
+     */
+    public Object convert(Object cellValue) {
+        return convert(cellValue, null);
+    }
+
+    /**
+     * Convert the cell value to the field type, text cells are converted through the dictionary.
+     *
+     * @param cellValue  String, Date, Boolean or Double
+     * @param dictionary dictionary of the read, see {@link #newDictionary()}, null converts without a dictionary
+     * @return null if no value should be set
+     */
+    public Object convert(Object cellValue, ValueDictionary dictionary) {
+        return convert(cellValue, dictionary, false);
+    }
+
+    /**
+     * Convert the cell value of a workbook whose dates may count from 1904 to the field type.
+     *
+     * @param cellValue  String, Date, Boolean or Double
+     * @param dictionary dictionary of the read, see {@link #newDictionary()}, null converts without a dictionary
+     * @param date1904   whether the dates of the workbook count from 1904
+     * @return null if no value should be set
+     */
+    public Object convert(Object cellValue, ValueDictionary dictionary, boolean date1904) {
+        if (cellValue instanceof String) {
+            return dictionary == null ? converter.fromString((String) cellValue) : dictionary.fromString((String) cellValue);
+        } else if (cellValue instanceof Double) {
+            return converter.fromNumeric((Double) cellValue, date1904);
+        } else if (cellValue instanceof Date) {
+            return converter.fromDate((Date) cellValue);
+        } else if (cellValue instanceof Boolean) {
+            return converter.fromBoolean((Boolean) cellValue);
+        }
+        throw new IllegalArgumentException(String.format("Unsupported cell value type, %s.", cellValue.getClass().getSimpleName()));
+    }
+
+    /**
+     * Convert a numeric cell to the field type without an intermediate text.
+     *
+     * @param value
+     * @return null if no value should be set
+     */
+    public Object convertNumeric(double value) {
+        return converter.fromNumeric(value);
+    }
+
+    /**
+     * Convert a numeric cell of a workbook whose dates may count from 1904 to the field type.
+     *
+     * @param value
+     * @param date1904 whether the dates of the workbook count from 1904
+     * @return null if no value should be set
+     */
+    public Object convertNumeric(double value, boolean date1904) {
+        return converter.fromNumeric(value, date1904);
+    }
+
+    /**
+     * Write a numeric cell to the field without boxing primitive fields, integer fields only accept the whole numbers
+     * of their range, see {@link Converters#toWhole(double, Class)}. The column must be {@link #isDirectNumeric()}.
+     *
+     * @param bean
+     * @param value
+     */
+    public void setNumeric(Object bean, double value) {
+        try {
+            if (wholeNumber) {
+                longSetter.invokeExact(bean, Converters.toWhole(value, type));
+            } else {
+                doubleSetter.invokeExact(bean, value);
+            }
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    public Object get(Object bean) {
+        try {
+            return getter.invokeExact(bean);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    public void set(Object bean, Object value) {
+        try {
+            setter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Read a numeric field without boxing primitive fields, the boxed field must not be null.
+     *
+     * @param bean
+     * @return
+     */
+    public double getDouble(Object bean) {
+        try {
+            return (double) doubleGetter.invokeExact(bean);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Read a numeric field as long without boxing primitive fields, floating point values are truncated.
+     * The boxed field must not be null.
+     *
+     * @param bean
+     * @return
+     */
+    public long getLong(Object bean) {
+        try {
+            return (long) longGetter.invokeExact(bean);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Write a numeric field, the value is narrowed to the field type.
+     *
+     * @param bean
+     * @param value
+     */
+    public void setDouble(Object bean, double value) {
+        try {
+            doubleSetter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Write a numeric field, the value is narrowed to the field type.
+     *
+     * @param bean
+     * @param value
+     */
+    public void setLong(Object bean, long value) {
+        try {
+            longSetter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    public void setBoolean(Object bean, boolean value) {
+        try {
+            booleanSetter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+}
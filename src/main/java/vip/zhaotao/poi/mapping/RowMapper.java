@@ -0,0 +1,218 @@
+package vip.zhaotao.poi.mapping;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import lombok.Lombok;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Row mapper of the ExcelColumn annotated class, compiled once per class and cached.
+ * The constructor and field accessors are resolved when compiled, so mapping a cell does not look up anything by reflection.
+ *
+ * @param <T>
+ * @author zhaotao
+ */
+public final class RowMapper<T> {
+
+    private static final ClassValue<RowMapper<?>> CACHE = new ClassValue<RowMapper<?>>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> type) {
+            return new RowMapper<>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    private final Supplier<T> constructor;
+
+    /**
+     * Sorted by the number of the ExcelColumn annotation
+     */
+    private final List<ColumnMapping> columns;
+
+    /**
+     * Key is the name of the ExcelColumn annotation
+     */
+    private final Map<String, ColumnMapping> columnNameMap;
+
+    /**
+     * The class is only invalid for read or for write, so the error is raised when that side is used
+     */
+    private final String duplicateNameError;
+
+    private final String duplicateNumberError;
+
+    private RowMapper(Class<T> type) {
+        this.type = type;
+        this.constructor = compileConstructor(type);
+        Map<String, ColumnMapping> nameMap = Maps.newHashMap();
+        TreeMap<Integer, ColumnMapping> numberMap = Maps.newTreeMap();
+        List<ColumnMapping> list = new ArrayList<>();
+        String nameError = null;
+        String numberError = null;
+        try {
+            for (Field field : FieldUtils.getAllFieldsList(type)) {
+                ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+                if (annotation == null) {
+                    continue;
+                }
+                ColumnMapping column = new ColumnMapping(annotation, field);
+                list.add(column);
+                if (nameMap.putIfAbsent(column.getName(), column) != null && nameError == null) {
+                    nameError = String.format("%s class @%s annotation has the same name, name is the %s.",
+                            type.getSimpleName(), ExcelColumn.class.getSimpleName(), column.getName());
+                }
+                if (numberMap.putIfAbsent(column.getNumber(), column) != null && numberError == null) {
+                    numberError = String.format("%s class @%s annotation has the same number, number is the %s.",
+                            type.getSimpleName(), ExcelColumn.class.getSimpleName(), column.getNumber());
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+        list.sort(Comparator.comparingInt(ColumnMapping::getNumber));
+        this.columns = ImmutableList.copyOf(list);
+        this.columnNameMap = ImmutableMap.copyOf(nameMap);
+        this.duplicateNameError = nameError;
+        this.duplicateNumberError = numberError;
+    }
+
+    /**
+     * Get the compiled row mapper of the class.
+     *
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> of(Class<T> clazz) {
+        return (RowMapper<T>) CACHE.get(clazz);
+    }
+
+    /**
+     * Compile the row mappers ahead of the first read or write, e.g. for all export classes at startup.
+     *
+     * @param classes
+     */
+    public static void warmUp(Class<?>... classes) {
+        warmUp(Arrays.asList(classes));
+    }
+
+    public static void warmUp(Collection<Class<?>> classes) {
+        for (Class<?> clazz : classes) {
+            of(clazz);
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public T newInstance() {
+        return constructor.get();
+    }
+
+    /**
+     * Get all columns, sorted by the number of the ExcelColumn annotation.
+     *
+     * @return
+     */
+    public List<ColumnMapping> getColumns() {
+        if (duplicateNumberError != null) {
+            throw new RuntimeException(duplicateNumberError);
+        }
+        return columns;
+    }
+
+    /**
+     * Get all columns, the key is the name of the ExcelColumn annotation.
+     *
+     * @return
+     */
+    public Map<String, ColumnMapping> getColumnNameMap() {
+        if (duplicateNameError != null) {
+            throw new RuntimeException(duplicateNameError);
+        }
+        return columnNameMap;
+    }
+
+    /**
+     * Read the cell values of the bean in column order, numbers, dates and booleans are kept as they are
+     * and the other values are converted to text, so the cells can be written without the bean.
+     *
+     * @param t
+     * @return
+     */
+    public Object[] getCellValues(Object t) {
+        List<ColumnMapping> columns = getColumns();
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = columns.get(i).get(t);
+            if (value == null || value instanceof Number || value instanceof Date || value instanceof Boolean) {
+                values[i] = value;
+            } else {
+                values[i] = value.toString();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Public classes visible to this class loader get a LambdaMetafactory generated constructor,
+     * the others fall back to a method handle.
+     *
+     * @param type
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> compileConstructor(Class<T> type) {
+        Constructor<T> declaredConstructor;
+        MethodHandle handle;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            declaredConstructor = type.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            handle = lookup.unreflectConstructor(declaredConstructor);
+        } catch (ReflectiveOperationException e) {
+            // Same as Class.newInstance, fail when a row is created
+            return () -> {
+                throw new RuntimeException(String.format("%s class has no accessible no-arg constructor.", type.getName()), e);
+            };
+        }
+        if (Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(declaredConstructor.getModifiers()) && isVisible(type)) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), handle, MethodType.methodType(type));
+                return (Supplier<T>) callSite.getTarget().invokeExact();
+            } catch (Throwable t) {
+                // Fall back to the method handle
+            }
+        }
+        MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return (T) genericHandle.invokeExact();
+            } catch (Throwable t) {
+                throw Lombok.sneakyThrow(t);
+            }
+        };
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, RowMapper.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
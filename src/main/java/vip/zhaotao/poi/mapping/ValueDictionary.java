@@ -0,0 +1,50 @@
+package vip.zhaotao.poi.mapping;
+
+import vip.zhaotao.poi.convert.CellConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded dictionary of the text cells of an interned column, the key is the cell text and the value is the converted
+ * field value, so equal texts of all rows share one canonical value and are converted only once.
+ * Once the dictionary is full new texts are converted without being added. A dictionary belongs to one read,
+ * see {@link ColumnMapping#newDictionary()}, so it is released with the read and is not thread safe.
+ *
+ * @author zhaotao
+ */
+public final class ValueDictionary {
+
+    private final Map<String, Object> values = new HashMap<>();
+
+    private final CellConverter<?> converter;
+
+    private final int limit;
+
+    ValueDictionary(CellConverter<?> converter, int limit) {
+        this.converter = converter;
+        this.limit = limit;
+    }
+
+    /**
+     * Convert a text cell through the dictionary.
+     *
+     * @param text
+     * @return null if no value should be set
+     */
+    public Object fromString(String text) {
+        Object value = values.get(text);
+        if (value != null) {
+            return value;
+        }
+        value = converter.fromString(text);
+        if (value != null && values.size() < limit) {
+            values.put(text, value);
+        }
+        return value;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,124 @@
+package vip.zhaotao.poi.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics listener which sums the metrics of all calls, thread safe and without locks.
+ *
+ * @author zhaotao
+ */
+public class CounterMetricsListener implements ExcelMetricsListener {
+
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder cells = new LongAdder();
+
+    private final LongAdder emptyCells = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /**
+     * Key is the sheet index
+     */
+    private final ConcurrentMap<Integer, SheetCounters> sheets = new ConcurrentHashMap<>();
+
+    public CounterMetricsListener() {
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    @Override
+    public void onPhase(Phase phase, long nanos) {
+        phaseNanos.get(phase).add(nanos);
+    }
+
+    @Override
+    public void onSheet(int sheetIndex, long rows, long cells, long emptyCells, long errors) {
+        this.rows.add(rows);
+        this.cells.add(cells);
+        this.emptyCells.add(emptyCells);
+        this.errors.add(errors);
+        SheetCounters sheetCounters = sheets.computeIfAbsent(sheetIndex, key -> new SheetCounters());
+        sheetCounters.emptyCells.add(emptyCells);
+        sheetCounters.errors.add(errors);
+    }
+
+    @Override
+    public void onBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase).sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getCells() {
+        return cells.sum();
+    }
+
+    public long getEmptyCells() {
+        return emptyCells.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getEmptyCells(int sheetIndex) {
+        SheetCounters sheetCounters = sheets.get(sheetIndex);
+        return sheetCounters == null ? 0 : sheetCounters.emptyCells.sum();
+    }
+
+    public long getErrors(int sheetIndex) {
+        SheetCounters sheetCounters = sheets.get(sheetIndex);
+        return sheetCounters == null ? 0 : sheetCounters.errors.sum();
+    }
+
+    /**
+     * Rows per second of the time spent in the parse, convert and map phases
+     *
+     * @return
+     */
+    public double getRowsPerSecond() {
+        return perSecond(getRows());
+    }
+
+    /**
+     * Cells per second of the time spent in the parse, convert and map phases
+     *
+     * @return
+     */
+    public double getCellsPerSecond() {
+        return perSecond(getCells());
+    }
+
+    private double perSecond(long count) {
+        long nanos = getPhaseNanos(Phase.PARSE) + getPhaseNanos(Phase.CONVERT) + getPhaseNanos(Phase.MAP);
+        return nanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    private static class SheetCounters {
+
+        private final LongAdder emptyCells = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,74 @@
+package vip.zhaotao.poi.metrics;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Global metrics listeners, they receive the metrics of all reads and writes in addition to the listener of the call.
+ *
+ * @author zhaotao
+ */
+public final class ExcelMetrics {
+
+    private static final List<ExcelMetricsListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private ExcelMetrics() {
+    }
+
+    public static void register(ExcelMetricsListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void unregister(ExcelMetricsListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Get the listener of a call, the global listeners and the listener of the call.
+     *
+     * @param callListener nullable
+     * @return {@link ExcelMetricsListener#NOOP} if there is no listener
+     */
+    public static ExcelMetricsListener getListener(ExcelMetricsListener callListener) {
+        List<ExcelMetricsListener> listeners = Lists.newArrayList(LISTENERS);
+        if (callListener != null && callListener != ExcelMetricsListener.NOOP) {
+            listeners.add(callListener);
+        }
+        if (listeners.isEmpty()) {
+            return ExcelMetricsListener.NOOP;
+        }
+        return listeners.size() == 1 ? listeners.get(0) : new CompositeListener(listeners);
+    }
+
+    private static class CompositeListener implements ExcelMetricsListener {
+
+        private final ExcelMetricsListener[] listeners;
+
+        private CompositeListener(List<ExcelMetricsListener> listeners) {
+            this.listeners = listeners.toArray(new ExcelMetricsListener[0]);
+        }
+
+        @Override
+        public void onPhase(Phase phase, long nanos) {
+            for (ExcelMetricsListener listener : listeners) {
+                listener.onPhase(phase, nanos);
+            }
+        }
+
+        @Override
+        public void onSheet(int sheetIndex, long rows, long cells, long emptyCells, long errors) {
+            for (ExcelMetricsListener listener : listeners) {
+                listener.onSheet(sheetIndex, rows, cells, emptyCells, errors);
+            }
+        }
+
+        @Override
+        public void onBytesWritten(long bytes) {
+            for (ExcelMetricsListener listener : listeners) {
+                listener.onBytesWritten(bytes);
+            }
+        }
+    }
+}
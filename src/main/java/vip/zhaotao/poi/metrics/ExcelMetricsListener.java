@@ -0,0 +1,47 @@
+package vip.zhaotao.poi.metrics;
+
+/**
+ * Metrics listener of the reads and writes, e.g. to export them to a metrics system.
+ * Timings are reported once per sheet or per file, not per row, and may be called from several threads at the same time.
+ *
+ * @author zhaotao
+ * @see ExcelMetrics#register(ExcelMetricsListener)
+ * @see CounterMetricsListener
+ */
+public interface ExcelMetricsListener {
+
+    /**
+     * Listener which ignores everything, the timings are not even measured
+     */
+    ExcelMetricsListener NOOP = new ExcelMetricsListener() {
+    };
+
+    /**
+     * Time spent in the phase
+     *
+     * @param phase
+     * @param nanos
+     */
+    default void onPhase(Phase phase, long nanos) {
+    }
+
+    /**
+     * A sheet has been read or written completely, or failed
+     *
+     * @param sheetIndex (0-based)
+     * @param rows       number of data rows
+     * @param cells      number of cells with a value
+     * @param emptyCells number of empty cells of the mapped columns
+     * @param errors     number of failed rows, the read or write stops at the first error
+     */
+    default void onSheet(int sheetIndex, long rows, long cells, long emptyCells, long errors) {
+    }
+
+    /**
+     * The workbook has been written
+     *
+     * @param bytes
+     */
+    default void onBytesWritten(long bytes) {
+    }
+}
@@ -0,0 +1,34 @@
+package vip.zhaotao.poi.metrics;
+
+/**
+ * Phases of a read or a write
+ *
+ * @author zhaotao
+ */
+public enum Phase {
+
+    /**
+     * Open the file, including the decryption; the usermodel read also parses the whole workbook
+     */
+    OPEN,
+
+    /**
+     * Parse the rows of the file
+     */
+    PARSE,
+
+    /**
+     * Convert the cell values to the field types
+     */
+    CONVERT,
+
+    /**
+     * Create the objects and set the fields; write: read the fields and create the cells
+     */
+    MAP,
+
+    /**
+     * Write the workbook to the output stream
+     */
+    SERIALIZE
+}
@@ -0,0 +1,303 @@
+package vip.zhaotao.poi.read;
+
+import lombok.Lombok;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IOUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Row source of delimited text (CSV, TSV), the file is one sheet and each record is one row.
+ * Quoted fields follow RFC 4180, a quote inside a quoted field is doubled and line breaks are allowed.
+ * Records may end with CRLF, LF or CR, empty fields are missing cells and a leading UTF-8 byte order mark is skipped.
+ * <p>
+ * The UTF-8 text is decoded from the channel through one byte buffer and one char buffer, the fields of the current
+ * record are kept in one char array and a String is only created when the value of a cell is read.
+ *
+ * @author zhaotao
+ */
+class DelimitedRowSource implements RowSource {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char QUOTE = '"';
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final ReadableByteChannel channel;
+
+    private final char delimiter;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final CharBuffer charBuffer = CharBuffer.allocate(BUFFER_SIZE);
+
+    private boolean endOfInput;
+
+    private boolean decoderFlushed;
+
+    /**
+     * Chars of the fields of the current record
+     */
+    private char[] chars = new char[256];
+
+    private int length;
+
+    /**
+     * Start, end and column number of each cell of the current record
+     */
+    private int[] starts = new int[16];
+
+    private int[] ends = new int[16];
+
+    private int[] columns = new int[16];
+
+    /**
+     * Cell values of the current record, created when read
+     */
+    private String[] values = new String[16];
+
+    private int cellCount;
+
+    private int rowNum = -1;
+
+    /**
+     * Index is the column number, null means all columns
+     */
+    private boolean[] columnFilter;
+
+    private boolean done;
+
+    DelimitedRowSource(ReadableByteChannel channel, char delimiter) {
+        this.channel = channel;
+        this.delimiter = delimiter;
+        // Start with an empty char buffer
+        this.charBuffer.flip();
+    }
+
+    @Override
+    public boolean nextRow() {
+        if (done) {
+            return false;
+        }
+        try {
+            while (readRecord()) {
+                rowNum++;
+                if (cellCount > 0) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+        done = true;
+        return false;
+    }
+
+    /**
+     * Read the fields of the next record.
+     *
+     * @return false if the end of the input is reached
+     * @throws IOException
+     */
+    private boolean readRecord() throws IOException {
+        Arrays.fill(values, 0, cellCount, null);
+        cellCount = 0;
+        length = 0;
+        int c = read();
+        if (rowNum < 0 && c == BYTE_ORDER_MARK) {
+            c = read();
+        }
+        if (c < 0) {
+            return false;
+        }
+        int column = 0;
+        while (true) {
+            boolean parsed = columnFilter == null || (column < columnFilter.length && columnFilter[column]);
+            int start = length;
+            if (c == QUOTE) {
+                while (true) {
+                    c = read();
+                    if (c < 0) {
+                        throw new RuntimeException(String.format("Unclosed quote, row %s.", rowNum + 2));
+                    }
+                    if (c == QUOTE) {
+                        c = read();
+                        if (c != QUOTE) {
+                            break;
+                        }
+                    }
+                    if (parsed) {
+                        append((char) c);
+                    }
+                }
+            }
+            // Unquoted field, or the text after the closing quote
+            while (c >= 0 && c != delimiter && c != '\r' && c != '\n') {
+                if (parsed) {
+                    append((char) c);
+                }
+                c = read();
+            }
+            if (length > start) {
+                addCell(column, start);
+            }
+            column++;
+            if (c == delimiter) {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c >= 0 && c != '\n') {
+                    // The record ends with CR only, keep the first char of the next record
+                    charBuffer.position(charBuffer.position() - 1);
+                }
+            }
+            return true;
+        }
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    private void addCell(int column, int start) {
+        if (cellCount == starts.length) {
+            int capacity = cellCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        starts[cellCount] = start;
+        ends[cellCount] = length;
+        columns[cellCount] = column;
+        cellCount++;
+    }
+
+    private int read() throws IOException {
+        if (!charBuffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return charBuffer.get();
+    }
+
+    /**
+     * Decode the next chars from the channel.
+     *
+     * @return false if the end of the input is reached
+     * @throws IOException
+     */
+    private boolean fill() throws IOException {
+        if (decoderFlushed) {
+            return false;
+        }
+        charBuffer.clear();
+        while (charBuffer.position() == 0) {
+            if (!endOfInput && channel.read(byteBuffer) < 0) {
+                endOfInput = true;
+            }
+            byteBuffer.flip();
+            CoderResult result = decoder.decode(byteBuffer, charBuffer, endOfInput);
+            byteBuffer.compact();
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (endOfInput) {
+                decoder.flush(charBuffer);
+                decoderFlushed = true;
+                break;
+            }
+        }
+        charBuffer.flip();
+        return charBuffer.hasRemaining();
+    }
+
+    @Override
+    public int getSheetIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    @Override
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public int getColumn(int index) {
+        return columns[index];
+    }
+
+    @Override
+    public Object getValue(int index) {
+        String value = values[index];
+        if (value == null) {
+            value = new String(chars, starts[index], ends[index] - starts[index]);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Delimited text has no numeric cells, numbers are parsed from the text by the converters.
+     *
+     * @param index
+     * @return
+     */
+    @Override
+    public boolean isNumeric(int index) {
+        return false;
+    }
+
+    @Override
+    public double getNumericValue(int index) {
+        throw new IllegalStateException("Delimited text has no numeric cells.");
+    }
+
+    @Override
+    public boolean isDate1904() {
+        return false;
+    }
+
+    @Override
+    public String getReference(int index) {
+        return new CellReference(rowNum, columns[index]).formatAsString();
+    }
+
+    @Override
+    public void setColumnFilter(boolean[] selectedColumns) {
+        this.columnFilter = selectedColumns;
+    }
+
+    @Override
+    public void skipSheet() {
+        done = true;
+    }
+
+    /**
+     * Close the channel and the input stream.
+     */
+    @Override
+    public void close() {
+        done = true;
+        IOUtils.closeQuietly(channel);
+    }
+}
@@ -0,0 +1,104 @@
+package vip.zhaotao.poi.read;
+
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * Row source of a page of an indexed xlsx sheet, the header row is taken from the index
+ * and the rows are parsed from an indexed row in the middle of the sheet data.
+ *
+ * @author zhaotao
+ */
+class IndexedRowSource implements RowSource {
+
+    private final int sheetIndex;
+
+    private final SheetIndex index;
+
+    private final XlsxSheetParser parser;
+
+    /**
+     * Whether the current row is the header
+     */
+    private boolean header;
+
+    private boolean started;
+
+    private boolean ended;
+
+    IndexedRowSource(int sheetIndex, SheetIndex index, XlsxSheetParser parser) {
+        this.sheetIndex = sheetIndex;
+        this.index = index;
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean nextRow() {
+        if (!started) {
+            started = true;
+            header = true;
+            return !index.isEmpty();
+        }
+        header = false;
+        return !ended && parser.nextRow();
+    }
+
+    @Override
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    @Override
+    public int getRowNum() {
+        return header ? index.getHeaderRowNum() : parser.getRowNum();
+    }
+
+    @Override
+    public int getCellCount() {
+        return header ? index.getHeaderCellCount() : parser.getCellCount();
+    }
+
+    @Override
+    public int getColumn(int i) {
+        return header ? index.getHeaderColumn(i) : parser.getColumn(i);
+    }
+
+    @Override
+    public Object getValue(int i) {
+        return header ? index.getHeaderName(i) : parser.getValue(i);
+    }
+
+    @Override
+    public boolean isNumeric(int i) {
+        return !header && parser.isNumeric(i);
+    }
+
+    @Override
+    public double getNumericValue(int i) {
+        return parser.getNumericValue(i);
+    }
+
+    @Override
+    public boolean isDate1904() {
+        return parser.isDate1904();
+    }
+
+    @Override
+    public String getReference(int i) {
+        return header ? new CellReference(index.getHeaderRowNum(), index.getHeaderColumn(i)).formatAsString() : parser.getReference(i);
+    }
+
+    @Override
+    public void setColumnFilter(boolean[] selectedColumns) {
+        parser.setColumnFilter(selectedColumns);
+    }
+
+    @Override
+    public void skipSheet() {
+        ended = true;
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+}
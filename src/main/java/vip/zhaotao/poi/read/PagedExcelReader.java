@@ -0,0 +1,222 @@
+package vip.zhaotao.poi.read;
+
+import com.google.common.collect.Lists;
+import lombok.Lombok;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.util.IOUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Paged reader of an office open xml sheet file, the workbook is indexed once and each page is parsed
+ * from the last indexed row before it, so the page latency does not depend on the size of the file.
+ * <p>
+ * The index records the header cells of each sheet and the byte offset of every n-th row in the inflated sheet xml,
+ * it is persisted in a sidecar file and reused as long as the file is not modified. A page still inflates the sheet
+ * part up to the indexed row, a zip entry can not be entered in the middle, but the skipped rows are not parsed.
+ * <p>
+ * The shared strings and styles are loaded when the reader is opened. Pages can be read concurrently.
+ * Microsoft excel files are a single record stream without offsets of the rows, they are not supported.
+ *
+ * @author zhaotao
+ */
+public class PagedExcelReader implements Closeable {
+
+    /**
+     * Default number of rows between two indexed rows
+     */
+    public static final int DEFAULT_INDEX_INTERVAL = 1000;
+
+    /**
+     * Suffix of the default index file, next to the file
+     */
+    public static final String INDEX_FILE_SUFFIX = ".idx";
+
+    /**
+     * Format version of the index file
+     */
+    private static final int INDEX_VERSION = 1;
+
+    private final XlsxWorkbook workbook;
+
+    private final List<SheetIndex> sheetIndexes;
+
+    private PagedExcelReader(XlsxWorkbook workbook, List<SheetIndex> sheetIndexes) {
+        this.workbook = workbook;
+        this.sheetIndexes = sheetIndexes;
+    }
+
+    /**
+     * Open the file with the default index file and interval.
+     *
+     * @param file
+     * @return
+     */
+    public static PagedExcelReader open(File file) {
+        return open(file, new File(file.getPath() + INDEX_FILE_SUFFIX), DEFAULT_INDEX_INTERVAL);
+    }
+
+    /**
+     * Open the file, the index file is loaded if it is written for this file and interval,
+     * otherwise the workbook is indexed and the index file is written.
+     *
+     * @param file
+     * @param indexFile
+     * @param indexInterval number of rows between two indexed rows
+     * @return
+     */
+    public static PagedExcelReader open(File file, File indexFile, int indexInterval) {
+        if (indexInterval <= 0) {
+            throw new IllegalArgumentException(String.format("Index interval must be positive, value is %s.", indexInterval));
+        }
+        XlsxWorkbook workbook = null;
+        try {
+            FileMagic fileMagic = FileMagic.valueOf(file);
+            if (fileMagic != FileMagic.OOXML) {
+                throw StreamReader.unsupportedFormat(fileMagic);
+            }
+            workbook = new XlsxWorkbook(file);
+            List<SheetIndex> sheetIndexes = loadIndex(file, indexFile, indexInterval);
+            if (sheetIndexes == null || sheetIndexes.size() != workbook.getNumberOfSheets()) {
+                sheetIndexes = Lists.newArrayList();
+                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                    sheetIndexes.add(SheetIndex.build(workbook, i, indexInterval));
+                }
+                saveIndex(file, indexFile, indexInterval, sheetIndexes);
+            }
+            return new PagedExcelReader(workbook, Collections.unmodifiableList(sheetIndexes));
+        } catch (Throwable t) {
+            if (workbook != null) {
+                workbook.close();
+            }
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Load the index file.
+     *
+     * @return null if there is no index file, or it is written for another version of the file or another interval
+     */
+    private static List<SheetIndex> loadIndex(File file, File indexFile, int indexInterval) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != INDEX_VERSION || input.readLong() != file.length() || input.readLong() != file.lastModified()
+                    || input.readInt() != indexInterval) {
+                return null;
+            }
+            int sheetCount = input.readInt();
+            List<SheetIndex> sheetIndexes = Lists.newArrayListWithCapacity(sheetCount);
+            for (int i = 0; i < sheetCount; i++) {
+                sheetIndexes.add(SheetIndex.read(input));
+            }
+            return sheetIndexes;
+        } catch (IOException e) {
+            // Incomplete or corrupt, the workbook is indexed again
+            return null;
+        }
+    }
+
+    /**
+     * Write the index file through a temp file, so a reader never sees a partial index.
+     * The index is still used if it can not be written, the workbook is indexed again next time.
+     */
+    private static void saveIndex(File file, File indexFile, int indexInterval, List<SheetIndex> sheetIndexes) {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(INDEX_VERSION);
+                output.writeLong(file.length());
+                output.writeLong(file.lastModified());
+                output.writeInt(indexInterval);
+                output.writeInt(sheetIndexes.size());
+                for (SheetIndex sheetIndex : sheetIndexes) {
+                    sheetIndex.write(output);
+                }
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            tempFile.delete();
+        }
+    }
+
+    public int getNumberOfSheets() {
+        return sheetIndexes.size();
+    }
+
+    /**
+     * Sheet name
+     *
+     * @param sheetIndex
+     * @return
+     */
+    public String getSheetName(int sheetIndex) {
+        return sheetIndexes.get(sheetIndex).getName();
+    }
+
+    /**
+     * Number of rows after the header, rows without cells are counted.
+     *
+     * @param sheetIndex
+     * @return
+     */
+    public int getRowCount(int sheetIndex) {
+        return sheetIndexes.get(sheetIndex).getRowCount();
+    }
+
+    /**
+     * Row number of the last row (0-based)
+     *
+     * @param sheetIndex
+     * @return -1 if the sheet has no rows
+     */
+    public int getLastRowNum(int sheetIndex) {
+        return sheetIndexes.get(sheetIndex).getLastRowNum();
+    }
+
+    /**
+     * Read a page of the sheet, the rows are parsed from the last indexed row at or before the first row.
+     *
+     * @param sheetIndex
+     * @param fromRow    row number of the first row (0-based), the header row is never returned
+     * @param count      max number of rows, rows without cells are not returned
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> read(int sheetIndex, int fromRow, int count, Class<T> clazz) {
+        List<T> dataList = Lists.newArrayList();
+        SheetIndex index = sheetIndexes.get(sheetIndex);
+        if (count <= 0 || index.isEmpty()) {
+            return dataList;
+        }
+        int startRowNum = Math.max(fromRow, index.getHeaderRowNum() + 1);
+        int checkpoint = index.findCheckpoint(startRowNum);
+        XlsxSheetParser parser = workbook.openSheet(sheetIndex, index.getPrefix(), index.getCheckpointOffset(checkpoint),
+                index.getCheckpointRowNum(checkpoint) - 1);
+        RowSource rowSource = new IndexedRowSource(sheetIndex, index, parser);
+        StreamReader<T> reader;
+        try {
+            reader = new StreamReader<>(null, rowSource, new ReadQuery().startRowNum(startRowNum).limit(count), clazz);
+        } catch (Throwable t) {
+            IOUtils.closeQuietly(rowSource);
+            throw t;
+        }
+        reader.forEach(dataList::add);
+        return dataList;
+    }
+
+    /**
+     * Release the workbook, the index file is kept.
+     */
+    @Override
+    public void close() {
+        workbook.close();
+    }
+}
@@ -0,0 +1,203 @@
+package vip.zhaotao.poi.read;
+
+import lombok.Lombok;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.util.IOUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Parallel reader, files and the sheets of office open xml sheet files are parsed concurrently on the executor.
+ * Microsoft excel files are a single record stream, their sheets are parsed one after another within the file task.
+ * <p>
+ * The number of workbooks open at the same time is bounded, the calling thread waits for a permit before a file
+ * is spooled and opened, so the heap used by the shared strings of the open workbooks stays predictable.
+ *
+ * @author zhaotao
+ */
+public class ParallelReader {
+
+    private final Executor executor;
+
+    private final Semaphore openWorkbookPermits;
+
+    /**
+     * Use the common fork join pool.
+     *
+     * @param maxOpenWorkbooks
+     */
+    public ParallelReader(int maxOpenWorkbooks) {
+        this(ForkJoinPool.commonPool(), maxOpenWorkbooks);
+    }
+
+    /**
+     * Create the reader
+     *
+     * @param executor         e.g. a {@link ForkJoinPool} or a fixed thread pool, tasks never wait on each other
+     * @param maxOpenWorkbooks max number of workbooks open at the same time
+     */
+    public ParallelReader(Executor executor, int maxOpenWorkbooks) {
+        if (maxOpenWorkbooks <= 0) {
+            throw new IllegalArgumentException(String.format("Max open workbooks must be positive, value is %s.", maxOpenWorkbooks));
+        }
+        this.executor = executor;
+        this.openWorkbookPermits = new Semaphore(maxOpenWorkbooks);
+    }
+
+    /**
+     * Read the sheets of one file concurrently, rows are merged in sheet order.
+     *
+     * @param inputStream
+     * @param startRowNum apply to all sheet (0-based)
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> read(InputStream inputStream, Integer startRowNum, Class<T> clazz) {
+        return read(Collections.singletonList(inputStream), startRowNum, clazz);
+    }
+
+    /**
+     * Read the files and their sheets concurrently, rows are merged in file order then sheet order.
+     *
+     * @param inputStreams
+     * @param startRowNum  apply to all sheet (0-based)
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> read(List<InputStream> inputStreams, Integer startRowNum, Class<T> clazz) {
+        List<CompletableFuture<List<T>>> futures = submit(inputStreams, startRowNum, clazz, null);
+        List<T> dataList = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            dataList.addAll(join(future));
+        }
+        return dataList;
+    }
+
+    /**
+     * Read the files and their sheets concurrently, rows are passed to the handler as soon as they are parsed,
+     * in no particular order. The handler is called from the executor threads and must be thread safe.
+     *
+     * @param inputStreams
+     * @param startRowNum  apply to all sheet (0-based)
+     * @param clazz
+     * @param handler
+     * @param <T>
+     */
+    public <T> void read(List<InputStream> inputStreams, Integer startRowNum, Class<T> clazz, RowHandler<T> handler) {
+        for (CompletableFuture<List<T>> future : submit(inputStreams, startRowNum, clazz, handler)) {
+            join(future);
+        }
+    }
+
+    private <T> List<CompletableFuture<List<T>>> submit(List<InputStream> inputStreams, Integer startRowNum, Class<T> clazz, RowHandler<T> handler) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        Iterator<InputStream> iterator = inputStreams.iterator();
+        try {
+            while (iterator.hasNext()) {
+                if (futures.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+                InputStream inputStream = iterator.next();
+                openWorkbookPermits.acquire();
+                CompletableFuture<List<T>> future;
+                try {
+                    future = CompletableFuture.supplyAsync(() -> OpenedFile.open(inputStream), executor)
+                            .thenCompose(openedFile -> readSheets(openedFile, startRowNum, clazz, handler));
+                } catch (Throwable t) {
+                    openWorkbookPermits.release();
+                    throw t;
+                }
+                future.whenComplete((dataList, t) -> openWorkbookPermits.release());
+                futures.add(future);
+            }
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        } finally {
+            // Streams of the files which are not submitted
+            iterator.forEachRemaining(IOUtils::closeQuietly);
+        }
+        return futures;
+    }
+
+    private <T> CompletableFuture<List<T>> readSheets(OpenedFile openedFile, Integer startRowNum, Class<T> clazz, RowHandler<T> handler) {
+        List<CompletableFuture<List<T>>> sheetFutures = new ArrayList<>();
+        if (openedFile.workbook != null) {
+            for (int i = 0; i < openedFile.workbook.getNumberOfSheets(); i++) {
+                int sheetIndex = i;
+                sheetFutures.add(CompletableFuture.supplyAsync(() ->
+                        readAll(new XlsxRowSource(openedFile.workbook, false, sheetIndex), startRowNum, clazz, handler), executor));
+            }
+        } else {
+            sheetFutures.add(CompletableFuture.supplyAsync(() ->
+                    readAll(new XlsRowSource(openedFile.file), startRowNum, clazz, handler), executor));
+        }
+        return CompletableFuture.allOf(sheetFutures.toArray(new CompletableFuture[0]))
+                .whenComplete((v, t) -> openedFile.close())
+                .thenApply(v -> {
+                    List<T> dataList = new ArrayList<>();
+                    for (CompletableFuture<List<T>> sheetFuture : sheetFutures) {
+                        dataList.addAll(sheetFuture.join());
+                    }
+                    return dataList;
+                });
+    }
+
+    private static <T> List<T> readAll(RowSource rowSource, Integer startRowNum, Class<T> clazz, RowHandler<T> handler) {
+        List<T> dataList = new ArrayList<>();
+        new StreamReader<>(null, rowSource, new ReadQuery().startRowNum(startRowNum), clazz).forEach(handler == null ? dataList::add : handler);
+        return dataList;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw Lombok.sneakyThrow(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    /**
+     * Spooled file, office open xml sheet files are opened once and shared by the sheet tasks.
+     */
+    private static class OpenedFile implements Closeable {
+
+        private final File file;
+
+        private final XlsxWorkbook workbook;
+
+        private OpenedFile(File file, XlsxWorkbook workbook) {
+            this.file = file;
+            this.workbook = workbook;
+        }
+
+        private static OpenedFile open(InputStream inputStream) {
+            File file = StreamReader.spool(inputStream);
+            try {
+                FileMagic fileMagic = FileMagic.valueOf(file);
+                if (fileMagic == FileMagic.OOXML) {
+                    return new OpenedFile(file, new XlsxWorkbook(file));
+                } else if (fileMagic == FileMagic.OLE2) {
+                    return new OpenedFile(file, null);
+                }
+                throw StreamReader.unsupportedFormat(fileMagic);
+            } catch (Throwable t) {
+                file.delete();
+                throw Lombok.sneakyThrow(t);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (workbook != null) {
+                workbook.close();
+            }
+            file.delete();
+        }
+    }
+}
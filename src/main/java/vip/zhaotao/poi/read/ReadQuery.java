@@ -0,0 +1,214 @@
+package vip.zhaotao.poi.read;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import lombok.Getter;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Read query, the sheets, columns and rows which are not selected are skipped while parsing:
+ * cells of columns which are not selected are not converted and rows which are filtered out are not mapped to the class.
+ *
+ * @author zhaotao
+ */
+@Getter
+public class ReadQuery {
+
+    /**
+     * 64 MB
+     */
+    public static final long DEFAULT_SHARED_STRINGS_SPILL_THRESHOLD = 64L << 20;
+
+    public static final int DEFAULT_SHARED_STRINGS_CACHE_SIZE = 10000;
+
+    /**
+     * Selected sheet names, empty means all sheets
+     */
+    private final Set<String> sheetNames = Sets.newHashSet();
+
+    /**
+     * Selected sheet indexes (0-based), empty means all sheets
+     */
+    private final Set<Integer> sheetIndexes = Sets.newHashSet();
+
+    /**
+     * Selected column names of the ExcelColumn annotation, empty means all columns
+     */
+    private final Set<String> columnNames = Sets.newLinkedHashSet();
+
+    /**
+     * Conditions of the columns, the key is the name of the ExcelColumn annotation
+     */
+    private final Map<String, Predicate<Object>> conditions = Maps.newLinkedHashMap();
+
+    /**
+     * First row number of each sheet (0-based, inclusive)
+     */
+    private int startRowNum = BigInteger.ONE.intValue();
+
+    /**
+     * Last row number of each sheet (0-based, inclusive)
+     */
+    private int endRowNum = Integer.MAX_VALUE;
+
+    /**
+     * Max number of rows of all sheets
+     */
+    private long limit = Long.MAX_VALUE;
+
+    private RowFilter rowFilter;
+
+    /**
+     * Metrics listener of this read, in addition to the global listeners
+     */
+    private ExcelMetricsListener metricsListener;
+
+    /**
+     * Estimated heap size in bytes of the shared strings of an office open xml sheet file,
+     * above which the shared strings are spilled to a temp file
+     */
+    private long sharedStringsSpillThreshold = DEFAULT_SHARED_STRINGS_SPILL_THRESHOLD;
+
+    /**
+     * Number of spilled shared strings cached on heap
+     */
+    private int sharedStringsCacheSize = DEFAULT_SHARED_STRINGS_CACHE_SIZE;
+
+    /**
+     * Password of the encrypted file, null if the file is not encrypted
+     */
+    private String password;
+
+    public ReadQuery sheets(String... names) {
+        sheetNames.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    public ReadQuery sheets(int... indexes) {
+        for (int index : indexes) {
+            sheetIndexes.add(index);
+        }
+        return this;
+    }
+
+    public ReadQuery columns(String... names) {
+        columnNames.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    /**
+     * Row range of each sheet, the header row is not counted as a data row.
+     *
+     * @param startRowNum 0-based, inclusive
+     * @param endRowNum   0-based, inclusive
+     * @return
+     */
+    public ReadQuery rows(int startRowNum, int endRowNum) {
+        this.startRowNum = startRowNum;
+        this.endRowNum = endRowNum;
+        return this;
+    }
+
+    public ReadQuery startRowNum(int startRowNum) {
+        this.startRowNum = startRowNum;
+        return this;
+    }
+
+    public ReadQuery limit(long limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Only rows whose cell value of the column matches the condition are mapped, conditions are combined with and.
+     * The cell value is converted to the field type, null if the cell is empty.
+     *
+     * @param columnName name of the ExcelColumn annotation, parsed even if it is not selected
+     * @param condition
+     * @return
+     */
+    public ReadQuery where(String columnName, Predicate<Object> condition) {
+        conditions.merge(columnName, condition, Predicate::and);
+        return this;
+    }
+
+    /**
+     * Only rows accepted by the filter are mapped, the filter can read the selected and the conditional columns.
+     *
+     * @param rowFilter
+     * @return
+     */
+    public ReadQuery filter(RowFilter rowFilter) {
+        this.rowFilter = rowFilter;
+        return this;
+    }
+
+    /**
+     * Password of the encrypted file. An encrypted office open xml sheet file is decrypted into a temp file in chunks,
+     * an encrypted microsoft excel file is decrypted record by record while parsing.
+     *
+     * @param password
+     * @return
+     */
+    public ReadQuery password(String password) {
+        this.password = password;
+        return this;
+    }
+
+    public ReadQuery metricsListener(ExcelMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    /**
+     * Spill the shared strings of office open xml sheet files to a temp file when their estimated heap size
+     * exceeds the threshold, only the recently used strings are kept on heap.
+     *
+     * @param spillThreshold estimated heap size in bytes, 0 always spills
+     * @param cacheSize      number of spilled strings cached on heap
+     * @return
+     */
+    public ReadQuery sharedStrings(long spillThreshold, int cacheSize) {
+        this.sharedStringsSpillThreshold = spillThreshold;
+        this.sharedStringsCacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * Whether the sheet is selected
+     *
+     * @param index
+     * @param name
+     * @return
+     */
+    public boolean isSheetSelected(int index, String name) {
+        if (sheetNames.isEmpty() && sheetIndexes.isEmpty()) {
+            return true;
+        }
+        return sheetIndexes.contains(index) || sheetNames.contains(name);
+    }
+
+    /**
+     * Whether the column is mapped to the class
+     *
+     * @param columnName
+     * @return
+     */
+    public boolean isColumnSelected(String columnName) {
+        return columnNames.isEmpty() || columnNames.contains(columnName);
+    }
+
+    /**
+     * Whether the column must be parsed
+     *
+     * @param columnName
+     * @return
+     */
+    public boolean isColumnParsed(String columnName) {
+        return isColumnSelected(columnName) || conditions.containsKey(columnName);
+    }
+}
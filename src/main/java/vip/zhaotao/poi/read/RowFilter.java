@@ -0,0 +1,18 @@
+package vip.zhaotao.poi.read;
+
+/**
+ * Row filter, rows which are not accepted are not mapped to the class.
+ *
+ * @author zhaotao
+ */
+@FunctionalInterface
+public interface RowFilter {
+
+    /**
+     * Test row
+     *
+     * @param row
+     * @return true if the row is accepted
+     */
+    boolean test(RowValues row);
+}
@@ -0,0 +1,18 @@
+package vip.zhaotao.poi.read;
+
+/**
+ * Row handler, receives each mapped row as soon as it has been parsed.
+ *
+ * @param <T>
+ * @author zhaotao
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    /**
+     * Handle row
+     *
+     * @param t
+     */
+    void handle(T t);
+}
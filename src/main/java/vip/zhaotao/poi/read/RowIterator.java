@@ -0,0 +1,33 @@
+package vip.zhaotao.poi.read;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy row iterator, rows are parsed on demand and the underlying file must be released by {@link #close()}.
+ *
+ * @param <T>
+ * @author zhaotao
+ */
+public interface RowIterator<T> extends Iterator<T>, Closeable {
+
+    /**
+     * Close without checked exception.
+     */
+    @Override
+    void close();
+
+    /**
+     * Sequential stream of the remaining rows, closing the stream closes this iterator.
+     *
+     * @return
+     */
+    default Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+}
@@ -0,0 +1,97 @@
+package vip.zhaotao.poi.read;
+
+import java.io.Closeable;
+
+/**
+ * Row source of a streaming reader, walks the rows of all sheets in order and keeps only the cells of the current row.
+ * Cell values have the same types as the usermodel read: String, Date, Boolean or numeric text.
+ *
+ * @author zhaotao
+ */
+interface RowSource extends Closeable {
+
+    /**
+     * Move to the next row which has at least one cell value, the next sheet is opened when the current one is consumed.
+     *
+     * @return false if all sheets have been consumed
+     */
+    boolean nextRow();
+
+    /**
+     * Sheet index of the current row (0-based)
+     *
+     * @return
+     */
+    int getSheetIndex();
+
+    /**
+     * Row number of the current row (0-based)
+     *
+     * @return
+     */
+    int getRowNum();
+
+    int getCellCount();
+
+    /**
+     * Column number of the cell (0-based)
+     *
+     * @param index
+     * @return
+     */
+    int getColumn(int index);
+
+    /**
+     * Cell value, numeric cells are the number text
+     *
+     * @param index
+     * @return String, Date or Boolean
+     */
+    Object getValue(int index);
+
+    /**
+     * Whether the cell is numeric and not date formatted
+     *
+     * @param index
+     * @return
+     */
+    boolean isNumeric(int index);
+
+    /**
+     * Value of a numeric cell, without the number text
+     *
+     * @param index
+     * @return
+     */
+    double getNumericValue(int index);
+
+    /**
+     * Whether the dates of the workbook count from 1904, numeric cells converted to dates depend on it
+     *
+     * @return
+     */
+    boolean isDate1904();
+
+    /**
+     * Cell reference, e.g. A1
+     *
+     * @param index
+     * @return
+     */
+    String getReference(int index);
+
+    /**
+     * Only the cells of the selected columns are parsed, until the end of the current sheet.
+     *
+     * @param selectedColumns index is the column number, null means all columns
+     */
+    void setColumnFilter(boolean[] selectedColumns);
+
+    /**
+     * Skip the remaining rows of the current sheet.
+     */
+    void skipSheet();
+
+    @Override
+    void close();
+}
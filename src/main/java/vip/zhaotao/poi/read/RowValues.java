@@ -0,0 +1,31 @@
+package vip.zhaotao.poi.read;
+
+/**
+ * Cell values of the row being parsed, before the row is mapped to the class.
+ *
+ * @author zhaotao
+ */
+public interface RowValues {
+
+    /**
+     * Sheet index (0-based)
+     *
+     * @return
+     */
+    int getSheetIndex();
+
+    /**
+     * Row number (0-based)
+     *
+     * @return
+     */
+    int getRowNum();
+
+    /**
+     * Get the cell value converted to the field type, only the selected and the filtered columns are parsed.
+     *
+     * @param columnName name of the ExcelColumn annotation
+     * @return null if the cell is empty
+     */
+    Object get(String columnName);
+}
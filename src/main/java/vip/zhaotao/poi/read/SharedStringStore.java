@@ -0,0 +1,288 @@
+package vip.zhaotao.poi.read;
+
+import lombok.Lombok;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.util.TempFile;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared strings table of an office open xml sheet package, the plain text of each item is kept.
+ * Strings stay on heap until their estimated size reaches the spill threshold, then all strings are written
+ * to a temp file as UTF-8 with an offset index. The spilled strings are read from the memory mapped file
+ * and only the recently used strings are cached on heap. Safe for concurrent reads.
+ *
+ * @author zhaotao
+ */
+class SharedStringStore implements Closeable {
+
+    /**
+     * Max size of one mapped segment of the temp file
+     */
+    private static final long SEGMENT_SIZE = 1L << 28;
+
+    /**
+     * Estimated heap size of a String besides its chars
+     */
+    private static final int STRING_OVERHEAD = 48;
+
+    /**
+     * Max initial capacity taken from the declared unique count
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private final long spillThreshold;
+
+    private final int cacheSize;
+
+    /**
+     * Strings on heap, null once spilled
+     */
+    private ArrayList<String> strings;
+
+    private long estimatedSize;
+
+    private int size;
+
+    private File file;
+
+    private OutputStream spillOutputStream;
+
+    /**
+     * Start offset of each spilled string in the temp file, the last offset is the end of the file
+     */
+    private long[] offsets;
+
+    private long[] segmentStarts;
+
+    private MappedByteBuffer[] segments;
+
+    /**
+     * Recently used spilled strings, in access order
+     */
+    private Map<Integer, String> cache;
+
+    /**
+     * Create an empty store.
+     *
+     * @param spillThreshold estimated heap size in bytes above which the strings are spilled to a temp file
+     * @param cacheSize      number of spilled strings cached on heap
+     */
+    SharedStringStore(long spillThreshold, int cacheSize) {
+        this.spillThreshold = spillThreshold;
+        this.cacheSize = cacheSize;
+        this.strings = new ArrayList<>();
+    }
+
+    /**
+     * Load the shared strings part, the input stream is closed.
+     *
+     * @param inputStream
+     * @param spillThreshold
+     * @param cacheSize
+     * @return
+     */
+    static SharedStringStore load(InputStream inputStream, long spillThreshold, int cacheSize) {
+        SharedStringStore store = new SharedStringStore(spillThreshold, cacheSize);
+        try {
+            XMLStreamReader reader = StaxHelper.newXMLInputFactory().createXMLStreamReader(inputStream);
+            try {
+                StringBuilder text = new StringBuilder();
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String localName = reader.getLocalName();
+                        if ("si".equals(localName)) {
+                            text.setLength(0);
+                        } else if ("t".equals(localName)) {
+                            // Text of the item and of its rich text and phonetic runs
+                            text.append(reader.getElementText());
+                        } else if ("sst".equals(localName)) {
+                            store.ensureCapacity(reader.getAttributeValue(null, "uniqueCount"));
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "si".equals(reader.getLocalName())) {
+                        store.add(text.toString());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            store.complete();
+            return store;
+        } catch (Throwable t) {
+            store.close();
+            throw Lombok.sneakyThrow(t);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    private void ensureCapacity(String uniqueCount) {
+        if (uniqueCount != null && uniqueCount.matches("\\d{1,9}")) {
+            strings.ensureCapacity(Math.min(Integer.parseInt(uniqueCount), MAX_INITIAL_CAPACITY));
+        }
+    }
+
+    void add(String value) throws IOException {
+        if (strings != null) {
+            strings.add(value);
+            size++;
+            estimatedSize += STRING_OVERHEAD + 2L * value.length();
+            if (estimatedSize > spillThreshold) {
+                spill();
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        spillOutputStream.write(bytes);
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[size + 1] = offsets[size] + bytes.length;
+        size++;
+    }
+
+    /**
+     * Move the strings on heap to the temp file, the next strings are written to the temp file.
+     *
+     * @throws IOException
+     */
+    private void spill() throws IOException {
+        List<String> spilled = strings;
+        strings = null;
+        size = 0;
+        file = TempFile.createTempFile("excel-shared-strings", ".tmp");
+        spillOutputStream = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+        offsets = new long[Math.max(16, spilled.size() * 2)];
+        for (String value : spilled) {
+            add(value);
+        }
+    }
+
+    /**
+     * Map the temp file once all strings are added.
+     *
+     * @throws IOException
+     */
+    void complete() throws IOException {
+        if (strings != null) {
+            return;
+        }
+        spillOutputStream.close();
+        spillOutputStream = null;
+        // Segments start at a string, so no string crosses two segments
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        for (int i = 0; i < size; i++) {
+            long segmentStart = starts.get(starts.size() - 1);
+            if (offsets[i + 1] - segmentStart > SEGMENT_SIZE && offsets[i] > segmentStart) {
+                starts.add(offsets[i]);
+            }
+        }
+        segmentStarts = new long[starts.size()];
+        segments = new MappedByteBuffer[starts.size()];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            for (int i = 0; i < segments.length; i++) {
+                segmentStarts[i] = starts.get(i);
+                long end = i + 1 < segments.length ? starts.get(i + 1) : offsets[size];
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStarts[i], end - segmentStarts[i]);
+            }
+        }
+        cache = new LinkedHashMap<Integer, String>(Math.min(cacheSize, MAX_INITIAL_CAPACITY), 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Get the string of the index.
+     *
+     * @param index
+     * @return
+     */
+    String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Shared string index is invalid, %s.", index));
+        }
+        if (strings != null) {
+            return strings.get(index);
+        }
+        String value;
+        synchronized (cache) {
+            value = cache.get(index);
+        }
+        if (value == null) {
+            value = read(index);
+            synchronized (cache) {
+                cache.put(index, value);
+            }
+        }
+        return value;
+    }
+
+    private String read(int index) {
+        long offset = offsets[index];
+        int segment = Arrays.binarySearch(segmentStarts, offset);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        // Each read has its own position, the mapped buffer is shared
+        ByteBuffer buffer = segments[segment].duplicate();
+        buffer.position((int) (offset - segmentStarts[segment]));
+        byte[] bytes = new byte[(int) (offsets[index + 1] - offset)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Whether the strings are spilled to the temp file.
+     *
+     * @return
+     */
+    boolean isSpilled() {
+        return strings == null;
+    }
+
+    /**
+     * Delete the temp file. The mapped segments are released by the garbage collector,
+     * if the file can not be deleted yet it is deleted on exit.
+     */
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(spillOutputStream);
+        spillOutputStream = null;
+        segments = null;
+        cache = null;
+        if (file != null && !file.delete()) {
+            file.deleteOnExit();
+        }
+        file = null;
+    }
+}
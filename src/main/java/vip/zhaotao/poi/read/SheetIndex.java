@@ -0,0 +1,427 @@
+package vip.zhaotao.poi.read;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Row offset index of one xlsx sheet: the header cells, and the byte offset of every n-th row start tag
+ * in the inflated sheet xml with its row number. A page of rows is parsed from the last indexed row before it.
+ *
+ * @author zhaotao
+ */
+class SheetIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String name;
+
+    /**
+     * Row number of the header, -1 if the sheet has no rows
+     */
+    private final int headerRowNum;
+
+    /**
+     * Column numbers of the header cells
+     */
+    private final int[] headerColumns;
+
+    private final String[] headerNames;
+
+    /**
+     * Start tags of the root and sheet data elements, the rows are parsed inside them
+     */
+    private final byte[] prefix;
+
+    /**
+     * Number of row elements after the header
+     */
+    private final int rowCount;
+
+    private final int lastRowNum;
+
+    private final int[] checkpointRowNums;
+
+    private final long[] checkpointOffsets;
+
+    private SheetIndex(String name, int headerRowNum, int[] headerColumns, String[] headerNames, byte[] prefix, int rowCount,
+                       int lastRowNum, int[] checkpointRowNums, long[] checkpointOffsets) {
+        this.name = name;
+        this.headerRowNum = headerRowNum;
+        this.headerColumns = headerColumns;
+        this.headerNames = headerNames;
+        this.prefix = prefix;
+        this.rowCount = rowCount;
+        this.lastRowNum = lastRowNum;
+        this.checkpointRowNums = checkpointRowNums;
+        this.checkpointOffsets = checkpointOffsets;
+    }
+
+    /**
+     * Index the sheet, the header row is parsed and the rest of the sheet xml is only scanned for the row start tags.
+     *
+     * @param workbook
+     * @param sheetIndex
+     * @param interval   number of rows between two indexed rows
+     * @return
+     * @throws IOException
+     */
+    static SheetIndex build(XlsxWorkbook workbook, int sheetIndex, int interval) throws IOException {
+        String name = workbook.getSheetNames().get(sheetIndex);
+        int headerRowNum = -1;
+        int[] headerColumns = new int[0];
+        String[] headerNames = new String[0];
+        try (XlsxSheetParser parser = workbook.openSheet(sheetIndex)) {
+            // Same header as the streaming reader, the first row which has a cell
+            if (parser.nextRow()) {
+                headerRowNum = parser.getRowNum();
+                headerColumns = new int[parser.getCellCount()];
+                headerNames = new String[parser.getCellCount()];
+                for (int i = 0; i < headerColumns.length; i++) {
+                    headerColumns[i] = parser.getColumn(i);
+                    headerNames[i] = String.valueOf(parser.getValue(i));
+                }
+            }
+        }
+        try (InputStream inputStream = workbook.openSheetStream(sheetIndex)) {
+            Scanner scanner = new Scanner(inputStream, interval, headerRowNum);
+            scanner.scan();
+            return new SheetIndex(name, headerRowNum, headerColumns, headerNames, scanner.getPrefix(), scanner.rowCount, scanner.rowNum,
+                    Arrays.copyOf(scanner.checkpointRowNums, scanner.checkpointCount),
+                    Arrays.copyOf(scanner.checkpointOffsets, scanner.checkpointCount));
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getHeaderRowNum() {
+        return headerRowNum;
+    }
+
+    int getHeaderCellCount() {
+        return headerColumns.length;
+    }
+
+    int getHeaderColumn(int index) {
+        return headerColumns[index];
+    }
+
+    String getHeaderName(int index) {
+        return headerNames[index];
+    }
+
+    byte[] getPrefix() {
+        return prefix;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int getLastRowNum() {
+        return lastRowNum;
+    }
+
+    /**
+     * Whether the sheet has no header
+     *
+     * @return
+     */
+    boolean isEmpty() {
+        return headerRowNum < 0;
+    }
+
+    /**
+     * Find the last indexed row at or before the row number.
+     *
+     * @param rowNum
+     * @return index of the checkpoint, -1 if no row is indexed
+     */
+    int findCheckpoint(int rowNum) {
+        int index = Arrays.binarySearch(checkpointRowNums, rowNum);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return checkpointRowNums.length == 0 ? -1 : Math.max(index, 0);
+    }
+
+    int getCheckpointRowNum(int checkpoint) {
+        return checkpointRowNums[checkpoint];
+    }
+
+    long getCheckpointOffset(int checkpoint) {
+        return checkpointOffsets[checkpoint];
+    }
+
+    void write(DataOutput output) throws IOException {
+        output.writeUTF(name);
+        output.writeInt(headerRowNum);
+        output.writeInt(headerColumns.length);
+        for (int i = 0; i < headerColumns.length; i++) {
+            output.writeInt(headerColumns[i]);
+            output.writeUTF(headerNames[i]);
+        }
+        output.writeInt(prefix.length);
+        output.write(prefix);
+        output.writeInt(rowCount);
+        output.writeInt(lastRowNum);
+        output.writeInt(checkpointRowNums.length);
+        for (int i = 0; i < checkpointRowNums.length; i++) {
+            output.writeInt(checkpointRowNums[i]);
+            output.writeLong(checkpointOffsets[i]);
+        }
+    }
+
+    static SheetIndex read(DataInput input) throws IOException {
+        String name = input.readUTF();
+        int headerRowNum = input.readInt();
+        int[] headerColumns = new int[input.readInt()];
+        String[] headerNames = new String[headerColumns.length];
+        for (int i = 0; i < headerColumns.length; i++) {
+            headerColumns[i] = input.readInt();
+            headerNames[i] = input.readUTF();
+        }
+        byte[] prefix = new byte[input.readInt()];
+        input.readFully(prefix);
+        int rowCount = input.readInt();
+        int lastRowNum = input.readInt();
+        int[] checkpointRowNums = new int[input.readInt()];
+        long[] checkpointOffsets = new long[checkpointRowNums.length];
+        for (int i = 0; i < checkpointRowNums.length; i++) {
+            checkpointRowNums[i] = input.readInt();
+            checkpointOffsets[i] = input.readLong();
+        }
+        return new SheetIndex(name, headerRowNum, headerColumns, headerNames, prefix, rowCount, lastRowNum, checkpointRowNums, checkpointOffsets);
+    }
+
+    /**
+     * Byte scanner of the sheet xml, finds the element start tags without parsing the cells.
+     * The row number of each row is taken from its r attribute, or follows the previous row.
+     */
+    private static class Scanner {
+
+        private static final int BUFFER_SIZE = 65536;
+
+        private final InputStream inputStream;
+
+        private final int interval;
+
+        private final int headerRowNum;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int bufferLength;
+
+        private int bufferPosition;
+
+        /**
+         * Offset of the next byte
+         */
+        private long position;
+
+        /**
+         * Bytes of the current start tag, only kept for the elements which are needed
+         */
+        private byte[] tag = new byte[256];
+
+        private int tagLength;
+
+        private byte[] rootTag;
+
+        private byte[] sheetDataTag;
+
+        private int rowNum = -1;
+
+        private int rowElementCount;
+
+        private int rowCount;
+
+        private int[] checkpointRowNums = new int[INITIAL_CAPACITY];
+
+        private long[] checkpointOffsets = new long[INITIAL_CAPACITY];
+
+        private int checkpointCount;
+
+        private Scanner(InputStream inputStream, int interval, int headerRowNum) {
+            this.inputStream = inputStream;
+            this.interval = interval;
+            this.headerRowNum = headerRowNum;
+        }
+
+        private void scan() throws IOException {
+            int b;
+            while ((b = read()) != -1) {
+                if (b != '<') {
+                    continue;
+                }
+                long tagOffset = position - 1;
+                b = read();
+                if (b == '/') {
+                    continue;
+                } else if (b == '?') {
+                    skipPast("?>");
+                    continue;
+                } else if (b == '!') {
+                    b = read();
+                    if (b == '-') {
+                        skipPast("-->");
+                    } else if (b == '[') {
+                        skipPast("]]>");
+                    } else {
+                        skipPast(">");
+                    }
+                    continue;
+                }
+                tagLength = 0;
+                appendTag('<');
+                int localNameStart = tagLength;
+                while (b != -1 && b != '>' && b != '/' && !isWhitespace(b)) {
+                    appendTag(b);
+                    if (b == ':') {
+                        localNameStart = tagLength;
+                    }
+                    b = read();
+                }
+                boolean root = rootTag == null;
+                boolean sheetData = isLocalName(localNameStart, "sheetData");
+                boolean row = isLocalName(localNameStart, "row");
+                readTagRest(b, root || sheetData || row);
+                if (root) {
+                    rootTag = Arrays.copyOf(tag, tagLength);
+                } else if (sheetData) {
+                    sheetDataTag = Arrays.copyOf(tag, tagLength);
+                } else if (row) {
+                    onRow(tagOffset);
+                }
+            }
+        }
+
+        /**
+         * Whether the element name of the current tag ends with the local name, no string is created for the name.
+         *
+         * @param localNameStart
+         * @param localName
+         * @return
+         */
+        private boolean isLocalName(int localNameStart, String localName) {
+            if (tagLength - localNameStart != localName.length()) {
+                return false;
+            }
+            for (int i = 0; i < localName.length(); i++) {
+                if (tag[localNameStart + i] != localName.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Read the rest of the start tag, the quoted attribute values may contain a greater than sign.
+         *
+         * @param b    the byte after the element name
+         * @param kept whether the bytes are kept
+         * @throws IOException
+         */
+        private void readTagRest(int b, boolean kept) throws IOException {
+            int quote = 0;
+            while (b != -1) {
+                if (kept) {
+                    appendTag(b);
+                }
+                if (quote != 0) {
+                    if (b == quote) {
+                        quote = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                } else if (b == '>') {
+                    return;
+                }
+                b = read();
+            }
+        }
+
+        private void onRow(long tagOffset) {
+            int r = getRowAttribute();
+            rowNum = r > 0 ? r - 1 : rowNum + 1;
+            if (rowElementCount++ % interval == 0) {
+                if (checkpointCount == checkpointRowNums.length) {
+                    checkpointRowNums = Arrays.copyOf(checkpointRowNums, checkpointCount * 2);
+                    checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+                }
+                checkpointRowNums[checkpointCount] = rowNum;
+                checkpointOffsets[checkpointCount] = tagOffset;
+                checkpointCount++;
+            }
+            if (rowNum > headerRowNum) {
+                rowCount++;
+            }
+        }
+
+        /**
+         * Value of the r attribute of the row tag.
+         *
+         * @return 0 if the row has no r attribute
+         */
+        private int getRowAttribute() {
+            for (int i = 1; i + 3 < tagLength; i++) {
+                if (tag[i] == 'r' && isWhitespace(tag[i - 1]) && tag[i + 1] == '=' && (tag[i + 2] == '"' || tag[i + 2] == '\'')) {
+                    int value = 0;
+                    for (int j = i + 3; j < tagLength && tag[j] >= '0' && tag[j] <= '9'; j++) {
+                        value = value * 10 + (tag[j] - '0');
+                    }
+                    return value;
+                }
+            }
+            return 0;
+        }
+
+        private byte[] getPrefix() {
+            byte[] root = rootTag == null ? new byte[0] : rootTag;
+            byte[] sheetData = sheetDataTag == null ? new byte[0] : sheetDataTag;
+            byte[] prefix = Arrays.copyOf(root, root.length + sheetData.length);
+            System.arraycopy(sheetData, 0, prefix, root.length, sheetData.length);
+            return prefix;
+        }
+
+        private void skipPast(String end) throws IOException {
+            int matched = 0;
+            int b;
+            while (matched < end.length() && (b = read()) != -1) {
+                if (b == end.charAt(matched)) {
+                    matched++;
+                } else {
+                    matched = b == end.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+
+        private void appendTag(int b) {
+            if (tagLength == tag.length) {
+                tag = Arrays.copyOf(tag, tagLength * 2);
+            }
+            tag[tagLength++] = (byte) b;
+        }
+
+        private static boolean isWhitespace(int b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+
+        private int read() throws IOException {
+            if (bufferPosition == bufferLength) {
+                bufferLength = inputStream.read(buffer);
+                bufferPosition = 0;
+                if (bufferLength <= 0) {
+                    bufferLength = 0;
+                    return -1;
+                }
+            }
+            position++;
+            return buffer[bufferPosition++] & 0xFF;
+        }
+    }
+}
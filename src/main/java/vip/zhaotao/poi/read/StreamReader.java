@@ -0,0 +1,575 @@
+package vip.zhaotao.poi.read;
+
+import com.google.common.collect.Maps;
+import lombok.Lombok;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import vip.zhaotao.poi.crypt.PackageDecryption;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.mapping.ValueDictionary;
+import vip.zhaotao.poi.metrics.ExcelMetrics;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+import vip.zhaotao.poi.metrics.Phase;
+import vip.zhaotao.poi.util.ExcelUtils.Type;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Streaming reader, rows are parsed from the file and mapped to the ExcelColumn annotated class one at a time,
+ * so the memory usage does not depend on the number of rows.
+ * Office open xml sheet files are parsed from the sheet xml, microsoft excel files from the BIFF8 records
+ * and delimited text files from the text.
+ *
+ * @param <T>
+ * @author zhaotao
+ */
+public class StreamReader<T> implements RowIterator<T> {
+
+    private final File file;
+
+    private final RowSource rowSource;
+
+    private final ReadQuery query;
+
+    private final RowMapper<T> rowMapper;
+
+    /**
+     * Get all fields of the class, the key is the name of the ExcelColumn annotation
+     */
+    private final Map<String, ColumnMapping> columnNameMap;
+
+    /**
+     * Cell values of the current row, passed to the row filter
+     */
+    private final RowValues rowValues = new CurrentRowValues();
+
+    /**
+     * Index is the column number of the current sheet
+     */
+    private ColumnMapping[] sheetColumns;
+
+    /**
+     * Dictionaries of the interned columns of this read, shared by the sheets
+     */
+    private final Map<ColumnMapping, ValueDictionary> dictionaries = Maps.newHashMap();
+
+    /**
+     * Index is the column number of the current sheet, null if the column is not interned
+     */
+    private ValueDictionary[] sheetDictionaries;
+
+    /**
+     * Index is the column number of the current sheet, whether the column is mapped to the class
+     */
+    private boolean[] selectedColumns;
+
+    /**
+     * Column number of the current sheet, the key is the name of the ExcelColumn annotation
+     */
+    private Map<String, Integer> sheetColumnNumbers;
+
+    /**
+     * Converted cell values of the current row, index is the column number
+     */
+    private Object[] values;
+
+    /**
+     * Numeric cells of the direct numeric columns of the current row, index is the column number,
+     * the values are not boxed unless a condition or the row filter reads them
+     */
+    private double[] numericValues;
+
+    /**
+     * Index is the column number, whether the cell of the current row is in {@link #numericValues}
+     */
+    private boolean[] numericCells;
+
+    /**
+     * Boolean cells of the direct boolean columns of the current row, index is the column number
+     */
+    private boolean[] booleanValues;
+
+    /**
+     * Index is the column number, whether the cell of the current row is in {@link #booleanValues}
+     */
+    private boolean[] booleanCells;
+
+    /**
+     * Number of parsed columns of the current sheet
+     */
+    private int parsedColumnCount;
+
+    private int sheetIndex = -1;
+
+    private long rowCount;
+
+    private final ExcelMetricsListener metricsListener;
+
+    /**
+     * Whether the phases are timed, only if there is a listener
+     */
+    private final boolean timed;
+
+    /**
+     * Metrics of the current sheet, reported when the sheet is complete
+     */
+    private final SheetMetrics sheetMetrics = new SheetMetrics();
+
+    private T nextRow;
+
+    private boolean closed;
+
+    /**
+     * Create the reader
+     *
+     * @param file      deleted when the reader is closed, null if the file is not owned by the reader
+     * @param rowSource
+     * @param query
+     * @param clazz
+     */
+    StreamReader(File file, RowSource rowSource, ReadQuery query, Class<T> clazz) {
+        this.file = file;
+        this.rowSource = rowSource;
+        this.query = query;
+        this.rowMapper = RowMapper.of(clazz);
+        this.columnNameMap = rowMapper.getColumnNameMap();
+        this.metricsListener = ExcelMetrics.getListener(query.getMetricsListener());
+        this.timed = metricsListener != ExcelMetricsListener.NOOP;
+    }
+
+    /**
+     * Open the reader, the input stream is spooled to a temp file and closed.
+     *
+     * @param inputStream
+     * @param startRowNum apply to all sheet (0-based)
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> StreamReader<T> open(InputStream inputStream, Integer startRowNum, Class<T> clazz) {
+        return open(inputStream, new ReadQuery().startRowNum(startRowNum), clazz);
+    }
+
+    /**
+     * Open the reader, the input stream is spooled to a temp file and closed.
+     * Sheets, columns and rows which are not selected by the query are skipped while parsing.
+     * Encrypted files are decrypted with the password of the query.
+     *
+     * @param inputStream
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> StreamReader<T> open(InputStream inputStream, ReadQuery query, Class<T> clazz) {
+        long start = System.nanoTime();
+        File file = spool(inputStream);
+        RowSource rowSource = null;
+        try {
+            FileMagic fileMagic = FileMagic.valueOf(file);
+            if (fileMagic == FileMagic.OLE2) {
+                // An encrypted office open xml package is stored in a compound file
+                File decryptedFile = PackageDecryption.decrypt(file, query.getPassword());
+                if (decryptedFile != null) {
+                    file.delete();
+                    file = decryptedFile;
+                    fileMagic = FileMagic.valueOf(file);
+                }
+            }
+            if (fileMagic == FileMagic.OOXML) {
+                XlsxWorkbook workbook = new XlsxWorkbook(file, query.getSharedStringsSpillThreshold(), query.getSharedStringsCacheSize());
+                int[] sheetIndexes = IntStream.range(0, workbook.getNumberOfSheets())
+                        .filter(i -> query.isSheetSelected(i, workbook.getSheetNames().get(i)))
+                        .toArray();
+                rowSource = new XlsxRowSource(workbook, true, sheetIndexes);
+            } else if (fileMagic == FileMagic.OLE2) {
+                rowSource = new XlsRowSource(file, query::isSheetSelected, query.getPassword());
+            } else {
+                throw unsupportedFormat(fileMagic);
+            }
+            StreamReader<T> reader = new StreamReader<>(file, rowSource, query, clazz);
+            reader.metricsListener.onPhase(Phase.OPEN, System.nanoTime() - start);
+            return reader;
+        } catch (Throwable t) {
+            IOUtils.closeQuietly(rowSource);
+            file.delete();
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Open the reader of the file type. Delimited text is parsed from the input stream without a temp file,
+     * the input stream is closed with the reader. Workbooks are opened as {@link #open(InputStream, ReadQuery, Class)}.
+     *
+     * @param inputStream
+     * @param type
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> StreamReader<T> open(InputStream inputStream, Type type, ReadQuery query, Class<T> clazz) {
+        if (!type.isDelimited()) {
+            return open(inputStream, query, clazz);
+        }
+        long start = System.nanoTime();
+        RowSource rowSource = new DelimitedRowSource(Channels.newChannel(inputStream), type.getDelimiter());
+        if (!query.isSheetSelected(0, null)) {
+            // The file is the only sheet
+            rowSource.skipSheet();
+        }
+        StreamReader<T> reader = new StreamReader<>(null, rowSource, query, clazz);
+        reader.metricsListener.onPhase(Phase.OPEN, System.nanoTime() - start);
+        return reader;
+    }
+
+    /**
+     * Copy the input stream to a temp file, the input stream is closed.
+     *
+     * @param inputStream
+     * @return
+     */
+    static File spool(InputStream inputStream) {
+        File file = null;
+        try {
+            file = TempFile.createTempFile("excel-stream-read", ".tmp");
+            try (OutputStream outputStream = new FileOutputStream(file)) {
+                IOUtils.copy(inputStream, outputStream);
+            }
+            return file;
+        } catch (Throwable t) {
+            if (file != null) {
+                file.delete();
+            }
+            throw Lombok.sneakyThrow(t);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    static RuntimeException unsupportedFormat(FileMagic fileMagic) {
+        return new RuntimeException(String.format("Unsupported file format, %s.", fileMagic));
+    }
+
+    /**
+     * Read all rows, each mapped row is passed to the handler and is not retained by the reader.
+     *
+     * @param handler
+     */
+    public void forEach(RowHandler<T> handler) {
+        try {
+            while (hasNext()) {
+                handler.handle(next());
+            }
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !closed) {
+            nextRow = readNextRow();
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T t = nextRow;
+        nextRow = null;
+        return t;
+    }
+
+    private T readNextRow() {
+        try {
+            while (rowCount < query.getLimit()) {
+                long start = timed ? System.nanoTime() : 0;
+                boolean hasRow = rowSource.nextRow();
+                if (timed) {
+                    sheetMetrics.parseNanos += System.nanoTime() - start;
+                }
+                if (!hasRow) {
+                    break;
+                }
+                if (rowSource.getSheetIndex() != sheetIndex) {
+                    reportSheet(0);
+                    sheetIndex = rowSource.getSheetIndex();
+                    initSheetColumns();
+                }
+                int rowNum = rowSource.getRowNum();
+                if (rowNum > query.getEndRowNum()) {
+                    rowSource.skipSheet();
+                    continue;
+                }
+                if (rowNum >= query.getStartRowNum()) {
+                    start = timed ? System.nanoTime() : 0;
+                    boolean selected = readValues();
+                    if (timed) {
+                        sheetMetrics.convertNanos += System.nanoTime() - start;
+                    }
+                    if (selected) {
+                        rowCount++;
+                        sheetMetrics.rows++;
+                        sheetMetrics.cells += rowSource.getCellCount();
+                        sheetMetrics.emptyCells += Math.max(0, parsedColumnCount - rowSource.getCellCount());
+                        start = timed ? System.nanoTime() : 0;
+                        T t = mapRow();
+                        if (timed) {
+                            sheetMetrics.mapNanos += System.nanoTime() - start;
+                        }
+                        return t;
+                    }
+                }
+            }
+            reportSheet(0);
+            return null;
+        } catch (Throwable t) {
+            reportSheet(1);
+            close();
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Report the metrics of the current sheet, once.
+     *
+     * @param errors
+     */
+    private void reportSheet(int errors) {
+        if (sheetIndex < 0 || sheetMetrics.reported) {
+            return;
+        }
+        sheetMetrics.reported = true;
+        if (timed) {
+            metricsListener.onPhase(Phase.PARSE, sheetMetrics.parseNanos);
+            metricsListener.onPhase(Phase.CONVERT, sheetMetrics.convertNanos);
+            metricsListener.onPhase(Phase.MAP, sheetMetrics.mapNanos);
+        }
+        metricsListener.onSheet(sheetIndex, sheetMetrics.rows, sheetMetrics.cells, sheetMetrics.emptyCells, errors);
+    }
+
+    /**
+     * The first row of the sheet is the header, columns which are neither selected nor filtered are not parsed.
+     */
+    private void initSheetColumns() {
+        int maxColumn = 0;
+        for (int i = 0; i < rowSource.getCellCount(); i++) {
+            maxColumn = Math.max(maxColumn, rowSource.getColumn(i));
+        }
+        sheetColumns = new ColumnMapping[maxColumn + 1];
+        sheetDictionaries = new ValueDictionary[maxColumn + 1];
+        selectedColumns = new boolean[maxColumn + 1];
+        boolean[] parsedColumns = new boolean[maxColumn + 1];
+        sheetColumnNumbers = Maps.newHashMap();
+        parsedColumnCount = 0;
+        sheetMetrics.reset();
+        values = new Object[maxColumn + 1];
+        numericValues = new double[maxColumn + 1];
+        numericCells = new boolean[maxColumn + 1];
+        booleanValues = new boolean[maxColumn + 1];
+        booleanCells = new boolean[maxColumn + 1];
+        boolean projection = !query.getColumnNames().isEmpty();
+        for (int i = 0; i < rowSource.getCellCount(); i++) {
+            Object cellValue = rowSource.getValue(i);
+            ColumnMapping column = columnNameMap.get(cellValue);
+            if (column == null) {
+                if (projection) {
+                    // Not selected, the cells of the column are skipped
+                    continue;
+                }
+                throw new RuntimeException(String.format("Unknown header, %s.", cellValue));
+            }
+            int colNum = rowSource.getColumn(i);
+            sheetColumns[colNum] = column;
+            if (column.isInterned()) {
+                sheetDictionaries[colNum] = dictionaries.computeIfAbsent(column, ColumnMapping::newDictionary);
+            }
+            selectedColumns[colNum] = query.isColumnSelected(column.getName());
+            parsedColumns[colNum] = query.isColumnParsed(column.getName());
+            if (parsedColumns[colNum]) {
+                parsedColumnCount++;
+            }
+            sheetColumnNumbers.put(column.getName(), colNum);
+        }
+        if (projection) {
+            rowSource.setColumnFilter(parsedColumns);
+        }
+    }
+
+    /**
+     * Convert the cells of the current row and apply the conditions of the query.
+     *
+     * @return false if the row is filtered out
+     */
+    private boolean readValues() {
+        Arrays.fill(values, null);
+        Arrays.fill(numericCells, false);
+        Arrays.fill(booleanCells, false);
+        for (int i = 0; i < rowSource.getCellCount(); i++) {
+            int colNum = rowSource.getColumn(i);
+            ColumnMapping column = colNum < sheetColumns.length ? sheetColumns[colNum] : null;
+            if (column == null) {
+                throw new RuntimeException(String.format("%s column did not find header.", CellReference.convertNumToColString(colNum)));
+            }
+            if (column.isDirectNumeric() && rowSource.isNumeric(i)) {
+                numericValues[colNum] = rowSource.getNumericValue(i);
+                numericCells[colNum] = true;
+                continue;
+            }
+            if (column.isDirectBoolean() && !rowSource.isNumeric(i)) {
+                // The boolean cell values are the cached Boolean constants
+                Object value = rowSource.getValue(i);
+                if (value instanceof Boolean) {
+                    booleanValues[colNum] = (Boolean) value;
+                    booleanCells[colNum] = true;
+                    continue;
+                }
+            }
+            values[colNum] = convert(column, sheetDictionaries[colNum], i);
+        }
+        for (Map.Entry<String, Predicate<Object>> condition : query.getConditions().entrySet()) {
+            Integer colNum = sheetColumnNumbers.get(condition.getKey());
+            if (!condition.getValue().test(colNum == null ? null : getValue(colNum))) {
+                return false;
+            }
+        }
+        return query.getRowFilter() == null || query.getRowFilter().test(rowValues);
+    }
+
+    private Object convert(ColumnMapping column, ValueDictionary dictionary, int index) {
+        boolean numeric = rowSource.isNumeric(index);
+        try {
+            return numeric ? column.convertNumeric(rowSource.getNumericValue(index), rowSource.isDate1904()) : column.convert(rowSource.getValue(index), dictionary);
+        } catch (RuntimeException e) {
+            throw new RuntimeException(String.format("%s cell data type value is invalid, expected type is %s, actual type is %s.",
+                    rowSource.getReference(index), column.getType().getSimpleName(),
+                    numeric ? Double.class.getSimpleName() : rowSource.getValue(index).getClass().getSimpleName()), e);
+        }
+    }
+
+    /**
+     * Converted value of the cell of the current row, the cells of the direct numeric and boolean columns are boxed here.
+     *
+     * @param colNum
+     * @return
+     */
+    private Object getValue(int colNum) {
+        if (booleanCells[colNum]) {
+            return booleanValues[colNum];
+        }
+        if (!numericCells[colNum]) {
+            return values[colNum];
+        }
+        try {
+            return sheetColumns[colNum].convertNumeric(numericValues[colNum], rowSource.isDate1904());
+        } catch (RuntimeException e) {
+            throw invalidNumericCell(colNum, e);
+        }
+    }
+
+    private RuntimeException invalidNumericCell(int colNum, RuntimeException e) {
+        return new RuntimeException(String.format("%s cell data type value is invalid, expected type is %s, actual type is %s.",
+                new CellReference(rowSource.getRowNum(), colNum).formatAsString(), sheetColumns[colNum].getType().getSimpleName(),
+                Double.class.getSimpleName()), e);
+    }
+
+    private T mapRow() {
+        T t = rowMapper.newInstance();
+        for (int colNum = 0; colNum < values.length; colNum++) {
+            if (!selectedColumns[colNum]) {
+                continue;
+            }
+            if (numericCells[colNum]) {
+                try {
+                    sheetColumns[colNum].setNumeric(t, numericValues[colNum]);
+                } catch (RuntimeException e) {
+                    throw invalidNumericCell(colNum, e);
+                }
+            } else if (booleanCells[colNum]) {
+                sheetColumns[colNum].setBoolean(t, booleanValues[colNum]);
+            } else if (values[colNum] != null) {
+                sheetColumns[colNum].set(t, values[colNum]);
+            }
+        }
+        return t;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        nextRow = null;
+        reportSheet(0);
+        rowSource.close();
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    private class CurrentRowValues implements RowValues {
+
+        @Override
+        public int getSheetIndex() {
+            return sheetIndex;
+        }
+
+        @Override
+        public int getRowNum() {
+            return rowSource.getRowNum();
+        }
+
+        @Override
+        public Object get(String columnName) {
+            if (!query.isColumnParsed(columnName)) {
+                throw new IllegalArgumentException(String.format("Column is not selected, %s.", columnName));
+            }
+            Integer colNum = sheetColumnNumbers.get(columnName);
+            return colNum == null ? null : getValue(colNum);
+        }
+    }
+
+    private static class SheetMetrics {
+
+        private long rows;
+
+        private long cells;
+
+        private long emptyCells;
+
+        private long parseNanos;
+
+        private long convertNanos;
+
+        private long mapNanos;
+
+        private boolean reported;
+
+        private void reset() {
+            rows = 0;
+            cells = 0;
+            emptyCells = 0;
+            parseNanos = 0;
+            convertNanos = 0;
+            mapNanos = 0;
+            reported = false;
+        }
+    }
+}
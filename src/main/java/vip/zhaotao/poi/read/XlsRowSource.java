@@ -0,0 +1,380 @@
+package vip.zhaotao.poi.read;
+
+import lombok.Lombok;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.IOUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Row source of microsoft excel (BIFF8) files, built on the HSSF event listeners without the usermodel tree.
+ * Records are pulled from the workbook stream one at a time, so rows can be consumed lazily.
+ *
+ * @author zhaotao
+ */
+class XlsRowSource implements RowSource, HSSFListener {
+
+    private static final int DEFAULT_ROW_CAPACITY = 16;
+
+    /**
+     * Cached result types of the formula records, the codes of the cell types
+     */
+    private static final int NUMERIC_RESULT = 0;
+
+    private static final int STRING_RESULT = 1;
+
+    private static final int BOOLEAN_RESULT = 4;
+
+    private static final int ERROR_RESULT = 5;
+
+    private final POIFSFileSystem fileSystem;
+
+    private final InputStream workbookStream;
+
+    private final RecordFactoryInputStream recordStream;
+
+    private final HSSFListener listener;
+
+    private final FormatTrackingHSSFListener formatListener;
+
+    /**
+     * Selected sheets, the parameters are the sheet index and the sheet name
+     */
+    private final BiPredicate<Integer, String> sheetFilter;
+
+    private final List<String> sheetNames = new ArrayList<>();
+
+    private SSTRecord sstRecord;
+
+    private boolean date1904;
+
+    private int sheetIndex = -1;
+
+    /**
+     * Whether the cells of the current sheet are skipped
+     */
+    private boolean skipSheet;
+
+    /**
+     * Index is the column number, null means all columns
+     */
+    private boolean[] columnFilter;
+
+    private int rowNum = -1;
+
+    private int cellCount;
+
+    private int[] columns = new int[DEFAULT_ROW_CAPACITY];
+
+    private Object[] values = new Object[DEFAULT_ROW_CAPACITY];
+
+    /**
+     * Value of the numeric cells, whose value is null
+     */
+    private double[] numericValues = new double[DEFAULT_ROW_CAPACITY];
+
+    private boolean rowReady;
+
+    /**
+     * The end of a row is only known when the first cell of the next row arrives, the cells which arrive in the same
+     * record are carried over to the next row, e.g. all cells of a MULRK or MULBLANK record which starts the row
+     */
+    private final List<CellValueRecordInterface> carryRecords = new ArrayList<>();
+
+    /**
+     * Values of the carried cells, null for numeric cells which are not date formatted
+     */
+    private final List<Object> carryValues = new ArrayList<>();
+
+    /**
+     * Formula cell whose cached string result is in the following string record
+     */
+    private FormulaRecord pendingFormula;
+
+    XlsRowSource(File file) {
+        this(file, (index, name) -> true);
+    }
+
+    XlsRowSource(File file, BiPredicate<Integer, String> sheetFilter) {
+        this(file, sheetFilter, null);
+    }
+
+    /**
+     * Create the row source
+     *
+     * @param file
+     * @param sheetFilter
+     * @param password    password of the encrypted file, null tries the default password of excel
+     */
+    XlsRowSource(File file, BiPredicate<Integer, String> sheetFilter, String password) {
+        this.sheetFilter = sheetFilter;
+        POIFSFileSystem poifsFileSystem = null;
+        // The record stream takes the key of the encrypted records from the password of the thread when it is created
+        String threadPassword = Biff8EncryptionKey.getCurrentUserPassword();
+        try {
+            poifsFileSystem = new POIFSFileSystem(file, true);
+            this.workbookStream = poifsFileSystem.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(poifsFileSystem.getRoot()));
+            Biff8EncryptionKey.setCurrentUserPassword(password);
+            this.recordStream = new RecordFactoryInputStream(workbookStream, false);
+        } catch (Throwable t) {
+            IOUtils.closeQuietly(poifsFileSystem);
+            throw Lombok.sneakyThrow(t);
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(threadPassword);
+        }
+        this.fileSystem = poifsFileSystem;
+        this.formatListener = new FormatTrackingHSSFListener(this);
+        this.listener = new MissingRecordAwareHSSFListener(formatListener);
+    }
+
+    @Override
+    public boolean nextRow() {
+        return nextRow(recordStream::nextRecord);
+    }
+
+    /**
+     * Pass the records through the listeners until a row is complete, the record stream expands MULRK records
+     * itself, the listeners expand the MULRK and MULBLANK records of other sources.
+     *
+     * @param records returns null at the end of the records
+     * @return
+     */
+    boolean nextRow(Supplier<Record> records) {
+        clearRow();
+        while (!rowReady) {
+            Record record = records.get();
+            if (record == null) {
+                return false;
+            }
+            listener.processRecord(record);
+        }
+        return true;
+    }
+
+    private void clearRow() {
+        rowReady = false;
+        Arrays.fill(values, 0, cellCount, null);
+        cellCount = 0;
+        for (int i = 0; i < carryRecords.size(); i++) {
+            Object carryValue = carryValues.get(i);
+            if (carryValue instanceof Double) {
+                addNumericCell(carryRecords.get(i), (Double) carryValue);
+            } else {
+                addCell(carryRecords.get(i), carryValue);
+            }
+        }
+        carryRecords.clear();
+        carryValues.clear();
+    }
+
+    @Override
+    public void processRecord(Record record) {
+        if (record instanceof LastCellOfRowDummyRecord) {
+            if (cellCount > 0) {
+                rowReady = true;
+            }
+            return;
+        }
+        switch (record.getSid()) {
+            case BOFRecord.sid:
+                if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                    sheetIndex++;
+                    rowNum = -1;
+                    columnFilter = null;
+                    skipSheet = !sheetFilter.test(sheetIndex, sheetIndex < sheetNames.size() ? sheetNames.get(sheetIndex) : null);
+                }
+                break;
+            case BoundSheetRecord.sid:
+                sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                break;
+            case SSTRecord.sid:
+                sstRecord = (SSTRecord) record;
+                break;
+            case DateWindow1904Record.sid:
+                date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                break;
+            case LabelSSTRecord.sid:
+                LabelSSTRecord labelSSTRecord = (LabelSSTRecord) record;
+                addCell(labelSSTRecord, sstRecord.getString(labelSSTRecord.getSSTIndex()).getString());
+                break;
+            case LabelRecord.sid:
+                LabelRecord labelRecord = (LabelRecord) record;
+                addCell(labelRecord, labelRecord.getValue());
+                break;
+            case NumberRecord.sid:
+                NumberRecord numberRecord = (NumberRecord) record;
+                addNumericCell(numberRecord, numberRecord.getValue());
+                break;
+            case BoolErrRecord.sid:
+                BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                if (boolErrRecord.isError()) {
+                    throw invalidCell(boolErrRecord, FormulaError.forInt(boolErrRecord.getErrorValue()).getString());
+                }
+                addCell(boolErrRecord, boolErrRecord.getBooleanValue());
+                break;
+            case FormulaRecord.sid:
+                processFormula((FormulaRecord) record);
+                break;
+            case StringRecord.sid:
+                if (pendingFormula != null) {
+                    addCell(pendingFormula, ((StringRecord) record).getString());
+                    pendingFormula = null;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void processFormula(FormulaRecord record) {
+        switch (record.getCachedResultType()) {
+            case NUMERIC_RESULT:
+                addNumericCell(record, record.getValue());
+                break;
+            case STRING_RESULT:
+                if (record.hasCachedResultString()) {
+                    pendingFormula = record;
+                }
+                break;
+            case BOOLEAN_RESULT:
+                addCell(record, record.getCachedBooleanValue());
+                break;
+            case ERROR_RESULT:
+                throw invalidCell(record, FormulaError.forInt(record.getCachedErrorValue()).getString());
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Date formatted numbers are added as Date
+     *
+     * @param record
+     * @param value
+     */
+    private void addNumericCell(CellValueRecordInterface record, double value) {
+        int formatIndex = formatListener.getFormatIndex(record);
+        if (DateUtil.isADateFormat(formatIndex, formatListener.getFormatString(formatIndex)) && DateUtil.isValidExcelDate(value)) {
+            addCell(record, DateUtil.getJavaDate(value, date1904));
+        } else if (rowReady) {
+            addCell(record, value);
+        } else if (addCell(record, null)) {
+            numericValues[cellCount - 1] = value;
+        }
+    }
+
+    private RuntimeException invalidCell(CellValueRecordInterface record, String value) {
+        return new RuntimeException(String.format("%s cell value is invalid, value is %s.",
+                new CellReference(record.getRow(), record.getColumn()).formatAsString(), value));
+    }
+
+    /**
+     * Add the cell to the current row, or carry it over to the next row.
+     *
+     * @param record
+     * @param value  null for numeric cells
+     * @return whether the cell is added to the current row
+     */
+    private boolean addCell(CellValueRecordInterface record, Object value) {
+        int column = record.getColumn();
+        if (skipSheet || (columnFilter != null && (column >= columnFilter.length || !columnFilter[column]))) {
+            return false;
+        }
+        if (rowReady) {
+            carryRecords.add(record);
+            carryValues.add(value);
+            return false;
+        }
+        if (cellCount == columns.length) {
+            columns = Arrays.copyOf(columns, cellCount * 2);
+            values = Arrays.copyOf(values, cellCount * 2);
+            numericValues = Arrays.copyOf(numericValues, cellCount * 2);
+        }
+        rowNum = record.getRow();
+        columns[cellCount] = record.getColumn();
+        values[cellCount] = value;
+        cellCount++;
+        return true;
+    }
+
+    @Override
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    @Override
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    @Override
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public int getColumn(int index) {
+        return columns[index];
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return values[index] == null ? NumberToTextConverter.toText(numericValues[index]) : values[index];
+    }
+
+    @Override
+    public boolean isNumeric(int index) {
+        return values[index] == null;
+    }
+
+    @Override
+    public double getNumericValue(int index) {
+        return numericValues[index];
+    }
+
+    @Override
+    public boolean isDate1904() {
+        return date1904;
+    }
+
+    @Override
+    public String getReference(int index) {
+        return new CellReference(rowNum, columns[index]).formatAsString();
+    }
+
+    @Override
+    public void setColumnFilter(boolean[] selectedColumns) {
+        this.columnFilter = selectedColumns;
+    }
+
+    /**
+     * The records of the sheet are still read, but no cell is collected.
+     */
+    @Override
+    public void skipSheet() {
+        skipSheet = true;
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(workbookStream);
+        IOUtils.closeQuietly(fileSystem);
+    }
+}
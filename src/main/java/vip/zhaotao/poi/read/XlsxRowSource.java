@@ -0,0 +1,125 @@
+package vip.zhaotao.poi.read;
+
+import java.util.stream.IntStream;
+
+/**
+ * Row source of office open xml sheet files, walks the given sheets of the workbook in order.
+ *
+ * @author zhaotao
+ */
+class XlsxRowSource implements RowSource {
+
+    private final XlsxWorkbook workbook;
+
+    /**
+     * Whether the workbook is closed with this source
+     */
+    private final boolean ownsWorkbook;
+
+    private final int[] sheetIndexes;
+
+    private int position = -1;
+
+    private XlsxSheetParser parser;
+
+    /**
+     * All sheets of the workbook, the workbook is closed with this source.
+     *
+     * @param workbook
+     */
+    XlsxRowSource(XlsxWorkbook workbook) {
+        this(workbook, true, IntStream.range(0, workbook.getNumberOfSheets()).toArray());
+    }
+
+    XlsxRowSource(XlsxWorkbook workbook, boolean ownsWorkbook, int... sheetIndexes) {
+        this.workbook = workbook;
+        this.ownsWorkbook = ownsWorkbook;
+        this.sheetIndexes = sheetIndexes;
+    }
+
+    @Override
+    public boolean nextRow() {
+        while (true) {
+            if (parser == null) {
+                if (position + 1 >= sheetIndexes.length) {
+                    return false;
+                }
+                parser = workbook.openSheet(sheetIndexes[++position]);
+            }
+            if (parser.nextRow()) {
+                return true;
+            }
+            parser.close();
+            parser = null;
+        }
+    }
+
+    @Override
+    public int getSheetIndex() {
+        return sheetIndexes[position];
+    }
+
+    @Override
+    public int getRowNum() {
+        return parser.getRowNum();
+    }
+
+    @Override
+    public int getCellCount() {
+        return parser.getCellCount();
+    }
+
+    @Override
+    public int getColumn(int index) {
+        return parser.getColumn(index);
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return parser.getValue(index);
+    }
+
+    @Override
+    public boolean isNumeric(int index) {
+        return parser.isNumeric(index);
+    }
+
+    @Override
+    public double getNumericValue(int index) {
+        return parser.getNumericValue(index);
+    }
+
+    @Override
+    public boolean isDate1904() {
+        return workbook.isDate1904();
+    }
+
+    @Override
+    public String getReference(int index) {
+        return parser.getReference(index);
+    }
+
+    @Override
+    public void setColumnFilter(boolean[] selectedColumns) {
+        parser.setColumnFilter(selectedColumns);
+    }
+
+    @Override
+    public void skipSheet() {
+        if (parser != null) {
+            parser.close();
+            parser = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (parser != null) {
+            parser.close();
+            parser = null;
+        }
+        if (ownsWorkbook) {
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package vip.zhaotao.poi.read;
+
+import lombok.Lombok;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Pull parser of one xlsx sheet part, keeps only the cells of the current row.
+ *
+ * @author zhaotao
+ */
+class XlsxSheetParser implements Closeable {
+
+    private static final int DEFAULT_ROW_CAPACITY = 16;
+
+    private final InputStream inputStream;
+
+    private final XMLStreamReader reader;
+
+    private final SharedStringStore sharedStrings;
+
+    private final StylesTable stylesTable;
+
+    private final boolean date1904;
+
+    /**
+     * Date format flag of each style index, null means not resolved yet
+     */
+    private Boolean[] dateStyles = new Boolean[0];
+
+    /**
+     * Index is the column number, null means all columns
+     */
+    private boolean[] columnFilter;
+
+    private int rowNum = -1;
+
+    private int cellCount;
+
+    private int[] columns = new int[DEFAULT_ROW_CAPACITY];
+
+    private String[] types = new String[DEFAULT_ROW_CAPACITY];
+
+    private int[] styles = new int[DEFAULT_ROW_CAPACITY];
+
+    private String[] rawValues = new String[DEFAULT_ROW_CAPACITY];
+
+    XlsxSheetParser(InputStream inputStream, SharedStringStore sharedStrings, StylesTable stylesTable, boolean date1904) {
+        this.inputStream = inputStream;
+        this.sharedStrings = sharedStrings;
+        this.stylesTable = stylesTable;
+        this.date1904 = date1904;
+        try {
+            this.reader = StaxHelper.newXMLInputFactory().createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            IOUtils.closeQuietly(inputStream);
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Move to the next row which has at least one cell element.
+     *
+     * @return false if the sheet data has been consumed
+     */
+    boolean nextRow() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+                    String r = reader.getAttributeValue(null, "r");
+                    rowNum = r == null ? rowNum + 1 : Integer.parseInt(r) - 1;
+                    readCells();
+                    if (cellCount > 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (XMLStreamException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    private void readCells() throws XMLStreamException {
+        cellCount = 0;
+        int lastColumn = -1;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+                return;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(reader.getLocalName())) {
+                continue;
+            }
+            String ref = reader.getAttributeValue(null, "r");
+            int column = ref == null ? lastColumn + 1 : new CellReference(ref).getCol();
+            if (columnFilter != null && (column >= columnFilter.length || !columnFilter[column])) {
+                // The value of columns which are not selected is not even read
+                skipElement();
+                lastColumn = column;
+                continue;
+            }
+            String type = reader.getAttributeValue(null, "t");
+            String style = reader.getAttributeValue(null, "s");
+            String rawValue = readCellValue();
+            lastColumn = column;
+            if (rawValue == null) {
+                continue;
+            }
+            ensureCapacity(cellCount + 1);
+            columns[cellCount] = column;
+            types[cellCount] = type;
+            styles[cellCount] = style == null ? 0 : Integer.parseInt(style);
+            rawValues[cellCount] = rawValue;
+            cellCount++;
+        }
+    }
+
+    /**
+     * Read the content of the current cell element, inline string runs are concatenated.
+     *
+     * @return null if the cell has no value
+     * @throws XMLStreamException
+     */
+    private String readCellValue() throws XMLStreamException {
+        String value = null;
+        StringBuilder inline = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "c".equals(reader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String localName = reader.getLocalName();
+            if ("v".equals(localName)) {
+                value = reader.getElementText();
+            } else if ("t".equals(localName)) {
+                if (inline == null) {
+                    inline = new StringBuilder();
+                }
+                inline.append(reader.getElementText());
+            } else if ("rPh".equals(localName)) {
+                skipElement();
+            }
+        }
+        return inline != null ? inline.toString() : value;
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= columns.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, columns.length * 2);
+        columns = Arrays.copyOf(columns, newLength);
+        types = Arrays.copyOf(types, newLength);
+        styles = Arrays.copyOf(styles, newLength);
+        rawValues = Arrays.copyOf(rawValues, newLength);
+    }
+
+    /**
+     * Set the row number before the first row of the stream, for streams which start in the middle of the sheet data.
+     * Only used by rows without a row number.
+     *
+     * @param rowNum
+     */
+    void setRowNum(int rowNum) {
+        this.rowNum = rowNum;
+    }
+
+    void setColumnFilter(boolean[] columnFilter) {
+        this.columnFilter = columnFilter;
+    }
+
+    int getRowNum() {
+        return rowNum;
+    }
+
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    int getCellCount() {
+        return cellCount;
+    }
+
+    int getColumn(int index) {
+        return columns[index];
+    }
+
+    String getReference(int index) {
+        return new CellReference(rowNum, columns[index]).formatAsString();
+    }
+
+    /**
+     * Get the cell value, same value types as the usermodel read: String, Date, Boolean or numeric text.
+     *
+     * @param index
+     * @return
+     */
+    Object getValue(int index) {
+        String type = types[index];
+        String rawValue = rawValues[index];
+        if (type == null || "n".equals(type)) {
+            double value = Double.parseDouble(rawValue);
+            if (isDateStyle(styles[index]) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getJavaDate(value, date1904);
+            }
+            return NumberToTextConverter.toText(value);
+        }
+        switch (type) {
+            case "s":
+                return sharedStrings.get(Integer.parseInt(rawValue));
+            case "inlineStr":
+            case "str":
+                return rawValue;
+            case "b":
+                return "1".equals(rawValue) || "true".equalsIgnoreCase(rawValue);
+            default:
+                throw new RuntimeException(String.format("%s cell value is invalid, value is %s.", getReference(index), rawValue));
+        }
+    }
+
+    boolean isNumeric(int index) {
+        String type = types[index];
+        return (type == null || "n".equals(type)) && !isDateStyle(styles[index]);
+    }
+
+    double getNumericValue(int index) {
+        return Double.parseDouble(rawValues[index]);
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (stylesTable == null) {
+            return false;
+        }
+        if (styleIndex >= dateStyles.length) {
+            dateStyles = Arrays.copyOf(dateStyles, Math.max(styleIndex + 1, dateStyles.length * 2));
+        }
+        Boolean dateStyle = dateStyles[styleIndex];
+        if (dateStyle == null) {
+            XSSFCellStyle cellStyle = stylesTable.getStyleAt(styleIndex);
+            dateStyle = cellStyle != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+            dateStyles[styleIndex] = dateStyle;
+        }
+        return dateStyle;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // Ignore
+        }
+        IOUtils.closeQuietly(inputStream);
+    }
+}
@@ -0,0 +1,171 @@
+package vip.zhaotao.poi.read;
+
+import lombok.Lombok;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.StaxHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opened office open xml sheet package, the shared strings and styles are parsed once and shared by all sheets.
+ * Large shared strings tables are spilled to a temp file, see {@link SharedStringStore}.
+ * Sheets can be parsed concurrently, each parser gets its own stream of the sheet part.
+ *
+ * @author zhaotao
+ */
+class XlsxWorkbook implements Closeable {
+
+    private final OPCPackage opcPackage;
+
+    private final SharedStringStore sharedStrings;
+
+    private final StylesTable stylesTable;
+
+    private final boolean date1904;
+
+    private final List<String> sheetNames = new ArrayList<>();
+
+    private final List<PackagePart> sheetParts = new ArrayList<>();
+
+    XlsxWorkbook(File file) throws Exception {
+        this(file, ReadQuery.DEFAULT_SHARED_STRINGS_SPILL_THRESHOLD, ReadQuery.DEFAULT_SHARED_STRINGS_CACHE_SIZE);
+    }
+
+    /**
+     * Open the package.
+     *
+     * @param file
+     * @param sharedStringsSpillThreshold estimated heap size in bytes above which the shared strings are spilled to a temp file
+     * @param sharedStringsCacheSize      number of spilled shared strings cached on heap
+     * @throws Exception
+     */
+    XlsxWorkbook(File file, long sharedStringsSpillThreshold, int sharedStringsCacheSize) throws Exception {
+        this.opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        SharedStringStore loadedSharedStrings = null;
+        try {
+            XSSFReader xssfReader = new XSSFReader(opcPackage);
+            loadedSharedStrings = loadSharedStrings(opcPackage, sharedStringsSpillThreshold, sharedStringsCacheSize);
+            this.sharedStrings = loadedSharedStrings;
+            this.stylesTable = xssfReader.getStylesTable();
+            this.date1904 = isDate1904(xssfReader);
+            XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheetIterator.hasNext()) {
+                IOUtils.closeQuietly(sheetIterator.next());
+                sheetNames.add(sheetIterator.getSheetName());
+                sheetParts.add(sheetIterator.getSheetPart());
+            }
+        } catch (Exception e) {
+            IOUtils.closeQuietly(loadedSharedStrings);
+            opcPackage.revert();
+            throw e;
+        }
+    }
+
+    private static SharedStringStore loadSharedStrings(OPCPackage opcPackage, long spillThreshold, int cacheSize) throws Exception {
+        List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return new SharedStringStore(spillThreshold, cacheSize);
+        }
+        return SharedStringStore.load(parts.get(0).getInputStream(), spillThreshold, cacheSize);
+    }
+
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    int getNumberOfSheets() {
+        return sheetParts.size();
+    }
+
+    List<String> getSheetNames() {
+        return sheetNames;
+    }
+
+    /**
+     * Open the parser of the sheet.
+     *
+     * @param sheetIndex
+     * @return
+     */
+    XlsxSheetParser openSheet(int sheetIndex) {
+        return new XlsxSheetParser(openSheetStream(sheetIndex), sharedStrings, stylesTable, date1904);
+    }
+
+    /**
+     * Open the parser of the sheet from a row in the middle of the sheet data, see {@link SheetIndex}.
+     *
+     * @param sheetIndex
+     * @param prefix     start tags of the elements around the rows, so the rows are parsed with their namespaces
+     * @param offset     byte offset of the row start tag in the sheet xml
+     * @param rowNum     row number before the row
+     * @return
+     */
+    XlsxSheetParser openSheet(int sheetIndex, byte[] prefix, long offset, int rowNum) {
+        InputStream inputStream = openSheetStream(sheetIndex);
+        try {
+            // The part is inflated up to the offset, but not parsed
+            IOUtils.skipFully(inputStream, offset);
+        } catch (Throwable t) {
+            IOUtils.closeQuietly(inputStream);
+            throw Lombok.sneakyThrow(t);
+        }
+        XlsxSheetParser parser = new XlsxSheetParser(new SequenceInputStream(new ByteArrayInputStream(prefix), inputStream),
+                sharedStrings, stylesTable, date1904);
+        parser.setRowNum(rowNum);
+        return parser;
+    }
+
+    /**
+     * Open the stream of the sheet xml.
+     *
+     * @param sheetIndex
+     * @return
+     */
+    InputStream openSheetStream(int sheetIndex) {
+        try {
+            // The package is not thread safe, only the stream of each part is
+            synchronized (opcPackage) {
+                return sheetParts.get(sheetIndex).getInputStream();
+            }
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    private static boolean isDate1904(XSSFReader xssfReader) throws Exception {
+        try (InputStream workbookData = xssfReader.getWorkbookData()) {
+            XMLStreamReader reader = StaxHelper.newXMLInputFactory().createXMLStreamReader(workbookData);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "workbookPr".equals(reader.getLocalName())) {
+                        String date1904 = reader.getAttributeValue(null, "date1904");
+                        return "1".equals(date1904) || "true".equalsIgnoreCase(date1904);
+                    }
+                }
+                return false;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        sharedStrings.close();
+        opcPackage.revert();
+    }
+}
@@ -0,0 +1,57 @@
+package vip.zhaotao.poi.table;
+
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+import java.util.BitSet;
+
+/**
+ * Column of boolean fields, the values are stored as bits.
+ *
+ * @author zhaotao
+ */
+public class BooleanColumn extends Column {
+
+    private final BitSet values = new BitSet();
+
+    BooleanColumn(ColumnMapping mapping) {
+        super(mapping);
+    }
+
+    /**
+     * Value of the row, false if the value is missing.
+     *
+     * @param row
+     * @return
+     */
+    public boolean getBoolean(int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public Boolean get(int row) {
+        return isNull(row) ? null : values.get(row);
+    }
+
+    @Override
+    void append(Object bean) {
+        Boolean value = (Boolean) mapping.get(bean);
+        if (value == null) {
+            appendNull();
+            return;
+        }
+        values.set(size, value);
+        size++;
+    }
+
+    @Override
+    void set(Object bean, int row) {
+        if (!isNull(row)) {
+            mapping.setBoolean(bean, values.get(row));
+        }
+    }
+
+    @Override
+    long getHeapSize() {
+        return values.size() / Byte.SIZE;
+    }
+}
@@ -0,0 +1,126 @@
+package vip.zhaotao.poi.table;
+
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+import java.util.BitSet;
+import java.util.Date;
+
+/**
+ * Column of an {@link ExcelTable}, the values of one ExcelColumn annotated field in row order.
+ * Missing values are marked in a null mask.
+ *
+ * @author zhaotao
+ */
+public abstract class Column {
+
+    final ColumnMapping mapping;
+
+    final BitSet nulls = new BitSet();
+
+    int size;
+
+    Column(ColumnMapping mapping) {
+        this.mapping = mapping;
+    }
+
+    /**
+     * Name of the ExcelColumn annotation
+     *
+     * @return
+     */
+    public String getName() {
+        return mapping.getName();
+    }
+
+    /**
+     * Field type
+     *
+     * @return
+     */
+    public Class<?> getType() {
+        return mapping.getType();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    /**
+     * Number of missing values
+     *
+     * @return
+     */
+    public int getNullCount() {
+        return nulls.cardinality();
+    }
+
+    /**
+     * Value of the row as the field type.
+     *
+     * @param row
+     * @return null if the value is missing
+     */
+    public abstract Object get(int row);
+
+    /**
+     * Append the field value of the bean.
+     *
+     * @param bean
+     */
+    abstract void append(Object bean);
+
+    /**
+     * Set the value of the row to the field of the bean, missing values are not set.
+     *
+     * @param bean
+     * @param row
+     */
+    abstract void set(Object bean, int row);
+
+    /**
+     * Release the unused capacity once all rows are appended.
+     */
+    void trim() {
+    }
+
+    /**
+     * Estimated heap size of the values in bytes.
+     *
+     * @return
+     */
+    abstract long getHeapSize();
+
+    void appendNull() {
+        nulls.set(size);
+        size++;
+    }
+
+    /**
+     * Create the column of the field type: integral numbers are stored as long, floating point numbers as double,
+     * dates as epoch milliseconds, text and enums are dictionary encoded, other types are kept as objects.
+     *
+     * @param mapping
+     * @param offHeap whether the long, double and date values are stored outside of the heap
+     * @return
+     */
+    static Column of(ColumnMapping mapping, boolean offHeap) {
+        Class<?> type = mapping.getType();
+        if (mapping.isNumeric()) {
+            if (type == float.class || type == Float.class || type == double.class || type == Double.class) {
+                return new DoubleColumn(mapping, offHeap);
+            }
+            return new LongColumn(mapping, offHeap);
+        } else if (type == Date.class) {
+            return new DateColumn(mapping, offHeap);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return new BooleanColumn(mapping);
+        } else if (type == String.class || type == Character.class || type == char.class || type.isEnum()) {
+            return new DictionaryColumn(mapping);
+        }
+        return new ObjectColumn(mapping);
+    }
+}
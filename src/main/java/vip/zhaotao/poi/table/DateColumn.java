@@ -0,0 +1,64 @@
+package vip.zhaotao.poi.table;
+
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+import java.util.Date;
+
+/**
+ * Column of Date fields, the values are stored as epoch milliseconds.
+ *
+ * @author zhaotao
+ */
+public class DateColumn extends Column {
+
+    private final LongStore values;
+
+    DateColumn(ColumnMapping mapping, boolean offHeap) {
+        super(mapping);
+        this.values = new LongStore(offHeap);
+    }
+
+    /**
+     * Epoch milliseconds of the row, 0 if the value is missing.
+     *
+     * @param row
+     * @return
+     */
+    public long getTime(int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public Date get(int row) {
+        return isNull(row) ? null : new Date(values.get(row));
+    }
+
+    @Override
+    void append(Object bean) {
+        Date value = (Date) mapping.get(bean);
+        if (value == null) {
+            values.add(0);
+            appendNull();
+            return;
+        }
+        values.add(value.getTime());
+        size++;
+    }
+
+    @Override
+    void set(Object bean, int row) {
+        if (!isNull(row)) {
+            mapping.set(bean, new Date(values.get(row)));
+        }
+    }
+
+    @Override
+    void trim() {
+        values.trim();
+    }
+
+    @Override
+    long getHeapSize() {
+        return values.getHeapSize();
+    }
+}
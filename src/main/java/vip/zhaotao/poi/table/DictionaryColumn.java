@@ -0,0 +1,104 @@
+package vip.zhaotao.poi.table;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoded column of text, character and enum fields.
+ * Each distinct value is kept once, the rows store the int code of their value.
+ *
+ * @author zhaotao
+ */
+public class DictionaryColumn extends Column {
+
+    private static final int NULL_CODE = -1;
+
+    private final List<Object> dictionary = Lists.newArrayList();
+
+    /**
+     * Code of each distinct value, released once all rows are appended
+     */
+    private Map<Object, Integer> codes = Maps.newHashMap();
+
+    private int[] rowCodes = new int[1024];
+
+    DictionaryColumn(ColumnMapping mapping) {
+        super(mapping);
+    }
+
+    /**
+     * Dictionary code of the row.
+     *
+     * @param row
+     * @return -1 if the value is missing
+     */
+    public int getCode(int row) {
+        return rowCodes[row];
+    }
+
+    /**
+     * Distinct values, the index is the code.
+     *
+     * @return
+     */
+    public List<Object> getDictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    @Override
+    public Object get(int row) {
+        int code = rowCodes[row];
+        return code == NULL_CODE ? null : dictionary.get(code);
+    }
+
+    @Override
+    void append(Object bean) {
+        if (size == rowCodes.length) {
+            rowCodes = Arrays.copyOf(rowCodes, size * 2);
+        }
+        Object value = mapping.get(bean);
+        if (value == null) {
+            rowCodes[size] = NULL_CODE;
+            appendNull();
+            return;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        rowCodes[size] = code;
+        size++;
+    }
+
+    @Override
+    void set(Object bean, int row) {
+        int code = rowCodes[row];
+        if (code != NULL_CODE) {
+            mapping.set(bean, dictionary.get(code));
+        }
+    }
+
+    @Override
+    void trim() {
+        rowCodes = Arrays.copyOf(rowCodes, size);
+        codes = null;
+    }
+
+    @Override
+    long getHeapSize() {
+        long heapSize = (long) rowCodes.length * Integer.BYTES;
+        for (Object value : dictionary) {
+            // Estimated size of a String, other values are shared constants
+            heapSize += value instanceof String ? 48 + 2L * ((String) value).length() : 0;
+        }
+        return heapSize;
+    }
+}
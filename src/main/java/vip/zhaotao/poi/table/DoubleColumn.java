@@ -0,0 +1,78 @@
+package vip.zhaotao.poi.table;
+
+import com.google.common.primitives.Primitives;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+/**
+ * Column of float and double fields, the values are stored as double.
+ *
+ * @author zhaotao
+ */
+public class DoubleColumn extends Column {
+
+    private final LongStore values;
+
+    DoubleColumn(ColumnMapping mapping, boolean offHeap) {
+        super(mapping);
+        this.values = new LongStore(offHeap);
+    }
+
+    /**
+     * Value of the row, 0 if the value is missing.
+     *
+     * @param row
+     * @return
+     */
+    public double getDouble(int row) {
+        return Double.longBitsToDouble(values.get(row));
+    }
+
+    /**
+     * Value of the row boxed as the field type.
+     *
+     * @param row
+     * @return null if the value is missing
+     */
+    @Override
+    public Number get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        double value = getDouble(row);
+        return Primitives.unwrap(mapping.getType()) == float.class ? (Number) (float) value : (Number) value;
+    }
+
+    @Override
+    void append(Object bean) {
+        if (mapping.isPrimitive()) {
+            values.add(Double.doubleToRawLongBits(mapping.getDouble(bean)));
+            size++;
+            return;
+        }
+        Number value = (Number) mapping.get(bean);
+        if (value == null) {
+            values.add(0);
+            appendNull();
+            return;
+        }
+        values.add(Double.doubleToRawLongBits(value.doubleValue()));
+        size++;
+    }
+
+    @Override
+    void set(Object bean, int row) {
+        if (!isNull(row)) {
+            mapping.setDouble(bean, getDouble(row));
+        }
+    }
+
+    @Override
+    void trim() {
+        values.trim();
+    }
+
+    @Override
+    long getHeapSize() {
+        return values.getHeapSize();
+    }
+}
@@ -0,0 +1,213 @@
+package vip.zhaotao.poi.table;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.read.StreamReader;
+
+import java.io.InputStream;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar read result, one column per ExcelColumn annotated field.
+ * Numbers and dates are stored in primitive arrays with null masks, text and enums are dictionary encoded,
+ * so the rows take a fraction of the heap of the mapped beans. Beans are only created when a row is viewed.
+ * <p>
+ * The table is built once and not modified, it can be read by several threads.
+ *
+ * @param <T>
+ * @author zhaotao
+ */
+public class ExcelTable<T> {
+
+    private final RowMapper<T> rowMapper;
+
+    private final List<Column> columns;
+
+    private final Map<String, Column> columnNameMap = Maps.newHashMap();
+
+    private int rowCount;
+
+    private ExcelTable(RowMapper<T> rowMapper, List<Column> columns) {
+        this.rowMapper = rowMapper;
+        this.columns = Collections.unmodifiableList(columns);
+        for (Column column : columns) {
+            columnNameMap.put(column.getName(), column);
+        }
+    }
+
+    /**
+     * Streaming read the rows selected by the query into a table, only the selected columns are stored.
+     *
+     * @param inputStream
+     * @param query
+     * @param clazz
+     * @param offHeap     whether the numbers and dates are stored outside of the heap
+     * @param <T>
+     * @return
+     */
+    public static <T> ExcelTable<T> read(InputStream inputStream, ReadQuery query, Class<T> clazz, boolean offHeap) {
+        List<Column> columns = Lists.newArrayList();
+        for (ColumnMapping mapping : RowMapper.of(clazz).getColumns()) {
+            if (query.isColumnSelected(mapping.getName())) {
+                columns.add(Column.of(mapping, offHeap));
+            }
+        }
+        ExcelTable<T> table = new ExcelTable<>(RowMapper.of(clazz), columns);
+        // Each row is mapped once and dropped after its values are appended
+        StreamReader.open(inputStream, query, clazz).forEach(table::append);
+        table.complete();
+        return table;
+    }
+
+    /**
+     * Copy the rows into a table.
+     *
+     * @param iterator
+     * @param clazz
+     * @param offHeap  whether the numbers and dates are stored outside of the heap
+     * @param <T>
+     * @return
+     */
+    public static <T> ExcelTable<T> of(Iterator<T> iterator, Class<T> clazz, boolean offHeap) {
+        List<Column> columns = Lists.newArrayList();
+        for (ColumnMapping mapping : RowMapper.of(clazz).getColumns()) {
+            columns.add(Column.of(mapping, offHeap));
+        }
+        ExcelTable<T> table = new ExcelTable<>(RowMapper.of(clazz), columns);
+        while (iterator.hasNext()) {
+            table.append(iterator.next());
+        }
+        table.complete();
+        return table;
+    }
+
+    private void append(T t) {
+        for (Column column : columns) {
+            column.append(t);
+        }
+        rowCount++;
+    }
+
+    private void complete() {
+        for (Column column : columns) {
+            column.trim();
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the column of the name of the ExcelColumn annotation.
+     *
+     * @param name
+     * @return null if the column is not in the table
+     */
+    public Column getColumn(String name) {
+        return columnNameMap.get(name);
+    }
+
+    public LongColumn getLongColumn(String name) {
+        return getColumn(name, LongColumn.class);
+    }
+
+    public DoubleColumn getDoubleColumn(String name) {
+        return getColumn(name, DoubleColumn.class);
+    }
+
+    public DateColumn getDateColumn(String name) {
+        return getColumn(name, DateColumn.class);
+    }
+
+    public BooleanColumn getBooleanColumn(String name) {
+        return getColumn(name, BooleanColumn.class);
+    }
+
+    public DictionaryColumn getDictionaryColumn(String name) {
+        return getColumn(name, DictionaryColumn.class);
+    }
+
+    private <C extends Column> C getColumn(String name, Class<C> columnType) {
+        Column column = columnNameMap.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException(String.format("Column is not in the table, %s.", name));
+        }
+        if (!columnType.isInstance(column)) {
+            throw new IllegalArgumentException(String.format("Column %s is a %s.", name, column.getClass().getSimpleName()));
+        }
+        return columnType.cast(column);
+    }
+
+    /**
+     * Create the bean of the row, the columns which are not in the table are not set.
+     *
+     * @param row
+     * @return
+     */
+    public T getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException(String.format("Row is out of the table, %s.", row));
+        }
+        T t = rowMapper.newInstance();
+        for (Column column : columns) {
+            column.set(t, row);
+        }
+        return t;
+    }
+
+    /**
+     * Read only list view of the rows, each get creates the bean of the row.
+     *
+     * @return
+     */
+    public List<T> asList() {
+        return new AbstractList<T>() {
+
+            @Override
+            public T get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * Lazy stream of the row beans.
+     *
+     * @return
+     */
+    public Stream<T> stream() {
+        return IntStream.range(0, rowCount).mapToObj(this::getRow);
+    }
+
+    /**
+     * Estimated heap size of the values in bytes, off heap values are not counted.
+     *
+     * @return
+     */
+    public long getHeapSize() {
+        long heapSize = 0;
+        for (Column column : columns) {
+            heapSize += column.getHeapSize() + column.nulls.size() / Byte.SIZE;
+        }
+        return heapSize;
+    }
+}
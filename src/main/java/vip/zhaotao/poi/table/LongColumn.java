@@ -0,0 +1,86 @@
+package vip.zhaotao.poi.table;
+
+import com.google.common.primitives.Primitives;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+/**
+ * Column of byte, short, int and long fields, the values are stored as long.
+ *
+ * @author zhaotao
+ */
+public class LongColumn extends Column {
+
+    private final LongStore values;
+
+    LongColumn(ColumnMapping mapping, boolean offHeap) {
+        super(mapping);
+        this.values = new LongStore(offHeap);
+    }
+
+    /**
+     * Value of the row, 0 if the value is missing.
+     *
+     * @param row
+     * @return
+     */
+    public long getLong(int row) {
+        return values.get(row);
+    }
+
+    /**
+     * Value of the row boxed as the field type.
+     *
+     * @param row
+     * @return null if the value is missing
+     */
+    @Override
+    public Number get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        long value = values.get(row);
+        Class<?> type = Primitives.unwrap(mapping.getType());
+        if (type == byte.class) {
+            return (byte) value;
+        } else if (type == short.class) {
+            return (short) value;
+        } else if (type == int.class) {
+            return (int) value;
+        }
+        return value;
+    }
+
+    @Override
+    void append(Object bean) {
+        if (mapping.isPrimitive()) {
+            values.add(mapping.getLong(bean));
+            size++;
+            return;
+        }
+        Number value = (Number) mapping.get(bean);
+        if (value == null) {
+            values.add(0);
+            appendNull();
+            return;
+        }
+        values.add(value.longValue());
+        size++;
+    }
+
+    @Override
+    void set(Object bean, int row) {
+        if (!isNull(row)) {
+            mapping.setLong(bean, values.get(row));
+        }
+    }
+
+    @Override
+    void trim() {
+        values.trim();
+    }
+
+    @Override
+    long getHeapSize() {
+        return values.getHeapSize();
+    }
+}
@@ -0,0 +1,88 @@
+package vip.zhaotao.poi.table;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Growable store of 8 byte values, backed by a long array or by a direct byte buffer outside of the heap.
+ *
+ * @author zhaotao
+ */
+class LongStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Max number of values of a direct buffer, the buffer size is an int
+     */
+    private static final int MAX_OFF_HEAP_CAPACITY = Integer.MAX_VALUE / Long.BYTES;
+
+    private final boolean offHeap;
+
+    private long[] values;
+
+    private ByteBuffer buffer;
+
+    private int size;
+
+    LongStore(boolean offHeap) {
+        this.offHeap = offHeap;
+        if (offHeap) {
+            this.buffer = allocateDirect(INITIAL_CAPACITY);
+        } else {
+            this.values = new long[INITIAL_CAPACITY];
+        }
+    }
+
+    void add(long value) {
+        if (offHeap) {
+            if (size == buffer.capacity() / Long.BYTES) {
+                if (size == MAX_OFF_HEAP_CAPACITY) {
+                    throw new IllegalStateException(String.format("Off heap column is full, %s values.", size));
+                }
+                ByteBuffer grown = allocateDirect((int) Math.min((long) size * 2, MAX_OFF_HEAP_CAPACITY));
+                buffer.clear();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            buffer.putLong(size * Long.BYTES, value);
+        } else {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+        }
+        size++;
+    }
+
+    long get(int index) {
+        return offHeap ? buffer.getLong(index * Long.BYTES) : values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Release the unused capacity of the heap array, the direct buffer is kept.
+     */
+    void trim() {
+        if (!offHeap && values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Bytes of the heap array, 0 if the values are off heap.
+     *
+     * @return
+     */
+    long getHeapSize() {
+        return offHeap ? 0 : (long) values.length * Long.BYTES;
+    }
+
+    private static ByteBuffer allocateDirect(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,55 @@
+package vip.zhaotao.poi.table;
+
+import com.google.common.collect.Lists;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+import java.util.ArrayList;
+
+/**
+ * Column of the other field types, e.g. BigDecimal or LocalDate, the values are kept as objects.
+ *
+ * @author zhaotao
+ */
+public class ObjectColumn extends Column {
+
+    private final ArrayList<Object> values = Lists.newArrayList();
+
+    ObjectColumn(ColumnMapping mapping) {
+        super(mapping);
+    }
+
+    @Override
+    public Object get(int row) {
+        return values.get(row);
+    }
+
+    @Override
+    void append(Object bean) {
+        Object value = mapping.get(bean);
+        values.add(value);
+        if (value == null) {
+            appendNull();
+            return;
+        }
+        size++;
+    }
+
+    @Override
+    void set(Object bean, int row) {
+        Object value = values.get(row);
+        if (value != null) {
+            mapping.set(bean, value);
+        }
+    }
+
+    @Override
+    void trim() {
+        values.trimToSize();
+    }
+
+    @Override
+    long getHeapSize() {
+        // References only, the size of the values depends on their type
+        return (long) values.size() * 8;
+    }
+}
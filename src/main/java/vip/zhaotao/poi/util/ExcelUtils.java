@@ -2,39 +2,42 @@ package vip.zhaotao.poi.util;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.Lombok;
-import lombok.NoArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.CharUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.ss.util.NumberToTextConverter;
 import org.apache.poi.util.IOUtils;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
-import vip.zhaotao.poi.annotation.ExcelColumn;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.mapping.ValueDictionary;
+import vip.zhaotao.poi.metrics.ExcelMetrics;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+import vip.zhaotao.poi.metrics.Phase;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.read.RowHandler;
+import vip.zhaotao.poi.read.RowIterator;
+import vip.zhaotao.poi.read.StreamReader;
+import vip.zhaotao.poi.table.ExcelTable;
+import vip.zhaotao.poi.write.PageSupplier;
+import vip.zhaotao.poi.write.ParallelSheetWriter;
+import vip.zhaotao.poi.write.RowWriter;
+import vip.zhaotao.poi.write.WriteOptions;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
- * Excel util
+ * Excel util, each call uses its own resources and the given streams are closed.
+ * Servers which run many reads and writes at the same time use a shared {@link vip.zhaotao.poi.engine.ExcelEngine}.
  *
  * @author zhaotao
  */
-@Slf4j
 public class ExcelUtils {
 
     /**
@@ -42,17 +45,12 @@ public class ExcelUtils {
      */
     private static final Integer DEFAULT_START_ROW_NUM = BigInteger.ONE.intValue();
 
-    /**
-     * Default column width
-     */
-    private static final Integer DEFAULT_COLUMN_WIDTH = BigInteger.TEN.intValue();
-
     public static <T> void write(OutputStream outputStream, List<T> dataList) {
         write(Type.OFFICE_OPEN_XML_SHEET, outputStream, dataList);
     }
 
     public static <T> void write(Type type, OutputStream outputStream, List<T> dataList) {
-        write(type, outputStream, dataList, DEFAULT_COLUMN_WIDTH);
+        write(type, outputStream, dataList, new WriteOptions().getDefaultColumnWidth());
     }
 
     /**
@@ -65,60 +63,101 @@ public class ExcelUtils {
      * @param <T>
      */
     public static <T> void write(Type type, OutputStream outputStream, List<T> dataList, Integer defaultColumnWidth) {
-        if (type == null || outputStream == null || CollectionUtils.isEmpty(dataList)) {
+        if (CollectionUtils.isEmpty(dataList)) {
             return;
         }
-        Workbook workbook = null;
+        write(type, outputStream, dataList.iterator(), new WriteOptions().setDefaultColumnWidth(defaultColumnWidth));
+    }
+
+    public static <T> void write(Type type, OutputStream outputStream, Iterator<T> iterator) {
+        write(type, outputStream, iterator, new WriteOptions());
+    }
+
+    /**
+     * Streaming write file, rows are taken from the iterator one at a time.
+     * For office open xml sheet the memory usage depends only on the row access window size, not on the number of rows.
+     * With mapping threads in the options the rows are mapped and written on other threads, see {@link vip.zhaotao.poi.write.PipelinedRowWriter}.
+     *
+     * @param type
+     * @param outputStream
+     * @param iterator
+     * @param options
+     * @param <T>
+     */
+    public static <T> void write(Type type, OutputStream outputStream, Iterator<T> iterator, WriteOptions options) {
+        if (type == null || outputStream == null || iterator == null || !iterator.hasNext()) {
+            return;
+        }
+        RowWriter rowWriter = null;
         try {
-            workbook = getWorkbook(type);
-            CreationHelper creationHelper = workbook.getCreationHelper();
-            Sheet sheet = workbook.createSheet();
-            sheet.setDefaultColumnWidth(defaultColumnWidth);
-            Class<?> clazz = dataList.get(0).getClass();
-            createHeader(sheet, clazz);
-
-            TreeMap<Integer, ExcelColumnAnnotationInfo> columnNumberMap = getColumnNumberMap(clazz);
-            Iterator<Map.Entry<Integer, ExcelColumnAnnotationInfo>> iterator = columnNumberMap.entrySet().iterator();
-            for (T t : dataList) {
-                int lastRowNum = sheet.getLastRowNum();
-                Row row = sheet.createRow(++lastRowNum);
-                while (iterator.hasNext()) {
-                    Map.Entry<Integer, ExcelColumnAnnotationInfo> next = iterator.next();
-                    Integer key = next.getKey();
-                    ExcelColumnAnnotationInfo value = next.getValue();
-                    String format = value.getFormat();
-                    Object fieldValue = FieldUtils.readField(value.getField(), t, true);
-                    if (fieldValue == null) {
-                        continue;
-                    }
-                    Cell cell = row.createCell(key);
-                    if (fieldValue instanceof Number) {
-                        cell.setCellValue(((Number) fieldValue).doubleValue());
-                    } else if (fieldValue instanceof Date) {
-                        cell.setCellValue((Date) fieldValue);
-                        value.setFormat(StringUtils.isBlank(format) ? String.format("%s %s", DateFormatUtils.ISO_8601_EXTENDED_DATE_FORMAT.getPattern(), DateFormatUtils.ISO_8601_EXTENDED_TIME_FORMAT.getPattern()) : format);
-                        sheet.setColumnWidth(key, format.length() * 256);
-                    } else if (fieldValue instanceof Boolean) {
-                        cell.setCellValue((Boolean) fieldValue);
-                    } else {
-                        cell.setCellValue(fieldValue.toString());
-                        int fieldValueLength = fieldValue.toString().getBytes(StandardCharsets.UTF_8.name()).length;
-                        if (fieldValueLength > sheet.getDefaultColumnWidth()) {
-                            sheet.setColumnWidth(key, fieldValueLength * 256);
-                        }
-                    }
-                    if (StringUtils.isNotBlank(format)) {
-                        CellStyle cellStyle = workbook.createCellStyle();
-                        cellStyle.setDataFormat(creationHelper.createDataFormat().getFormat(format));
-                        cell.setCellStyle(cellStyle);
-                    }
-                }
-            }
-            workbook.write(outputStream);
+            rowWriter = RowWriter.open(type, outputStream, options);
+            rowWriter.write(iterator);
+            rowWriter.finish();
         } catch (Throwable t) {
             throw Lombok.sneakyThrow(t);
         } finally {
-            IOUtils.closeQuietly(workbook);
+            IOUtils.closeQuietly(rowWriter);
+            IOUtils.closeQuietly(outputStream);
+        }
+    }
+
+    public static <T> void write(Type type, OutputStream outputStream, Stream<T> stream) {
+        write(type, outputStream, stream, new WriteOptions());
+    }
+
+    /**
+     * Streaming write file, the stream is consumed sequentially and closed.
+     *
+     * @param type
+     * @param outputStream
+     * @param stream
+     * @param options
+     * @param <T>
+     */
+    public static <T> void write(Type type, OutputStream outputStream, Stream<T> stream, WriteOptions options) {
+        if (stream == null) {
+            return;
+        }
+        try (Stream<T> s = stream) {
+            write(type, outputStream, s.iterator(), options);
+        }
+    }
+
+    public static <T> void write(Type type, OutputStream outputStream, PageSupplier<T> pageSupplier) {
+        write(type, outputStream, pageSupplier, new WriteOptions());
+    }
+
+    /**
+     * Streaming write file, pages are requested one after another until an empty page is returned.
+     *
+     * @param type
+     * @param outputStream
+     * @param pageSupplier
+     * @param options
+     * @param <T>
+     */
+    public static <T> void write(Type type, OutputStream outputStream, PageSupplier<T> pageSupplier, WriteOptions options) {
+        if (pageSupplier == null) {
+            return;
+        }
+        write(type, outputStream, pageSupplier.iterator(), options);
+    }
+
+    /**
+     * Write an office open xml sheet file of several sheets, the sheets are generated concurrently,
+     * one at a time for each available processor, see {@link ParallelSheetWriter}.
+     *
+     * @param outputStream
+     * @param sheets       key is the sheet name, in the order of the map
+     * @param options
+     */
+    public static void writeSheets(OutputStream outputStream, Map<String, ? extends Iterable<?>> sheets, WriteOptions options) {
+        if (outputStream == null || sheets == null) {
+            return;
+        }
+        try {
+            new ParallelSheetWriter(Runtime.getRuntime().availableProcessors()).write(outputStream, sheets, options);
+        } finally {
             IOUtils.closeQuietly(outputStream);
         }
     }
@@ -135,59 +174,46 @@ public class ExcelUtils {
         return read(inputStream, null, startRowNum, clazz);
     }
 
+    public static <T> List<T> read(InputStream inputStream, String password, Integer startRowNum, Class<T> clazz) {
+        return read(inputStream, password, startRowNum, clazz, null);
+    }
+
     /**
      * Read file content
      *
      * @param inputStream
-     * @param password
-     * @param startRowNum apply to all sheet (0-based)
+     * @param password        password of the encrypted file, the whole file is decrypted in memory,
+     *                        large encrypted files are read by {@link StreamReader} with {@link ReadQuery#password(String)}
+     * @param startRowNum     apply to all sheet (0-based)
      * @param clazz
+     * @param metricsListener metrics listener of this read in addition to the global listeners, nullable
      * @param <T>
      * @return
      */
-    public static <T> List<T> read(InputStream inputStream, String password, Integer startRowNum, Class<T> clazz) {
+    public static <T> List<T> read(InputStream inputStream, String password, Integer startRowNum, Class<T> clazz,
+                                   ExcelMetricsListener metricsListener) {
         List<T> dataList = Lists.newLinkedList();
         if (inputStream == null || clazz == null) {
             return dataList;
         }
+        ExcelMetricsListener listener = ExcelMetrics.getListener(metricsListener);
+        boolean timed = listener != ExcelMetricsListener.NOOP;
         Workbook workbook = null;
         try {
+            long start = System.nanoTime();
             workbook = WorkbookFactory.create(inputStream, password);
+            if (timed) {
+                listener.onPhase(Phase.OPEN, System.nanoTime() - start);
+            }
+            RowMapper<T> rowMapper = RowMapper.of(clazz);
             // Get all fields of the class, the key is the name of the ExcelColumn annotation
-            HashMap<String, Field> columnNameMap = getClassColumnNameMap(clazz);
+            Map<String, ColumnMapping> columnNameMap = rowMapper.getColumnNameMap();
+            // Dictionaries of the interned columns of this read
+            Map<ColumnMapping, ValueDictionary> dictionaries = Maps.newHashMap();
             // Sheet processing
             int sheetNumber = workbook.getNumberOfSheets();
             for (int i = 0; i < sheetNumber; i++) {
-                Sheet sheet = workbook.getSheetAt(i);
-                // Key is the column number
-                LinkedHashMap<Integer, Field> sheetColumnNumberFieldMap = getSheetColumnNumberFieldMap(columnNameMap, sheet);
-                // Row processing
-                int lastRowNum = sheet.getLastRowNum();
-                for (int rowNum = startRowNum; rowNum <= lastRowNum; rowNum++) {
-                    Row row = sheet.getRow(rowNum);
-                    T t = clazz.newInstance();
-                    // Column processing
-                    for (int colNum = row.getFirstCellNum(); colNum < row.getLastCellNum(); colNum++) {
-                        if (!sheetColumnNumberFieldMap.containsKey(colNum)) {
-                            throw new RuntimeException(String.format("%s column did not find header.", CellReference.convertNumToColString(colNum)));
-                        }
-                        Cell cell = row.getCell(colNum);
-                        Object cellValue = getCellValue(cell);
-                        if (cellValue == null) {
-                            log.info("{} cell value is empty.", cell.getAddress().formatAsString());
-                            continue;
-                        }
-                        Field field = sheetColumnNumberFieldMap.get(colNum);
-                        Class<?> fieldType = field.getType();
-                        cellValue = cellValueProcessing(cellValue, fieldType);
-                        if (!cellValue.getClass().equals(fieldType)) {
-                            throw new RuntimeException(String.format("%s cell data type value is invalid, expected type is %s, actual type is %s.",
-                                    cell.getAddress().formatAsString(), fieldType.getSimpleName(), cellValue.getClass().getSimpleName()));
-                        }
-                        FieldUtils.writeField(field, t, cellValue, true);
-                    }
-                    dataList.add(t);
-                }
+                readSheet(workbook.getSheetAt(i), i, startRowNum, rowMapper, columnNameMap, dictionaries, dataList, listener);
             }
         } catch (Throwable t) {
             throw Lombok.sneakyThrow(t);
@@ -198,26 +224,228 @@ public class ExcelUtils {
         return dataList;
     }
 
-    private static Workbook getWorkbook(Type type) {
-        Workbook workbook = null;
-        switch (type) {
-            case MICROSOFT_EXCEL:
-                workbook = new HSSFWorkbook();
-                break;
-            case OFFICE_OPEN_XML_SHEET:
-                workbook = new SXSSFWorkbook(1);
-                break;
+    private static <T> void readSheet(Sheet sheet, int sheetIndex, Integer startRowNum, RowMapper<T> rowMapper,
+                                      Map<String, ColumnMapping> columnNameMap, Map<ColumnMapping, ValueDictionary> dictionaries,
+                                      List<T> dataList, ExcelMetricsListener listener) {
+        long start = System.nanoTime();
+        long rows = 0;
+        long cells = 0;
+        long emptyCells = 0;
+        boolean date1904 = isDate1904(sheet.getWorkbook());
+        try {
+            // Key is the column number
+            LinkedHashMap<Integer, ColumnMapping> sheetColumnNumberFieldMap = getSheetColumnNumberFieldMap(columnNameMap, sheet);
+            // Row processing
+            int lastRowNum = sheet.getLastRowNum();
+            for (int rowNum = startRowNum; rowNum <= lastRowNum; rowNum++) {
+                Row row = sheet.getRow(rowNum);
+                if (row == null) {
+                    continue;
+                }
+                T t = rowMapper.newInstance();
+                int rowCells = 0;
+                // Column processing
+                for (int colNum = row.getFirstCellNum(); colNum < row.getLastCellNum(); colNum++) {
+                    if (!sheetColumnNumberFieldMap.containsKey(colNum)) {
+                        throw new RuntimeException(String.format("%s column did not find header.", CellReference.convertNumToColString(colNum)));
+                    }
+                    Cell cell = row.getCell(colNum);
+                    if (cell == null) {
+                        continue;
+                    }
+                    ColumnMapping column = sheetColumnNumberFieldMap.get(colNum);
+                    if (column.isDirectNumeric() && cell.getCellType() == CellType.NUMERIC && !DateUtil.isCellDateFormatted(cell)) {
+                        // Numeric and boolean cells are written through the primitive setters without a boxed value
+                        rowCells++;
+                        try {
+                            column.setNumeric(t, cell.getNumericCellValue());
+                        } catch (RuntimeException e) {
+                            throw invalidCell(cell, column, Double.class, e);
+                        }
+                        continue;
+                    }
+                    if (column.isDirectBoolean() && cell.getCellType() == CellType.BOOLEAN) {
+                        rowCells++;
+                        column.setBoolean(t, cell.getBooleanCellValue());
+                        continue;
+                    }
+                    Object cellValue = getCellValue(cell);
+                    if (cellValue == null) {
+                        continue;
+                    }
+                    rowCells++;
+                    Object fieldValue;
+                    try {
+                        fieldValue = column.convert(cellValue, column.isInterned()
+                                ? dictionaries.computeIfAbsent(column, ColumnMapping::newDictionary) : null, date1904);
+                    } catch (RuntimeException e) {
+                        throw invalidCell(cell, column, cellValue.getClass(), e);
+                    }
+                    if (fieldValue != null) {
+                        column.set(t, fieldValue);
+                    }
+                }
+                dataList.add(t);
+                rows++;
+                cells += rowCells;
+                emptyCells += Math.max(0, sheetColumnNumberFieldMap.size() - rowCells);
+            }
+        } catch (Throwable t) {
+            listener.onSheet(sheetIndex, rows, cells, emptyCells, 1);
+            throw t;
+        }
+        if (listener != ExcelMetricsListener.NOOP) {
+            // The usermodel parses the workbook when it is opened, the conversion is part of the mapping
+            listener.onPhase(Phase.MAP, System.nanoTime() - start);
+        }
+        listener.onSheet(sheetIndex, rows, cells, emptyCells, 0);
+    }
+
+    public static <T> void read(InputStream inputStream, Class<T> clazz, RowHandler<T> handler) {
+        read(inputStream, DEFAULT_START_ROW_NUM, clazz, handler);
+    }
+
+    /**
+     * Streaming read file content.
+     * Rows are passed to the handler as soon as they are parsed, the memory usage does not depend on the number of rows.
+     *
+     * @param inputStream
+     * @param startRowNum apply to all sheet (0-based)
+     * @param clazz
+     * @param handler
+     * @param <T>
+     */
+    public static <T> void read(InputStream inputStream, Integer startRowNum, Class<T> clazz, RowHandler<T> handler) {
+        if (inputStream == null || clazz == null || handler == null) {
+            return;
+        }
+        StreamReader.open(inputStream, startRowNum, clazz).forEach(handler);
+    }
+
+    public static <T> RowIterator<T> iterator(InputStream inputStream, Class<T> clazz) {
+        return iterator(inputStream, DEFAULT_START_ROW_NUM, clazz);
+    }
+
+    /**
+     * Streaming read file content as a lazy iterator.
+     * The iterator must be closed to release the temp file.
+     *
+     * @param inputStream
+     * @param startRowNum apply to all sheet (0-based)
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> RowIterator<T> iterator(InputStream inputStream, Integer startRowNum, Class<T> clazz) {
+        return StreamReader.open(inputStream, startRowNum, clazz);
+    }
+
+    public static <T> Stream<T> stream(InputStream inputStream, Class<T> clazz) {
+        return stream(inputStream, DEFAULT_START_ROW_NUM, clazz);
+    }
+
+    /**
+     * Streaming read file content as a lazy stream, the stream must be closed to release the temp file.
+     *
+     * @param inputStream
+     * @param startRowNum apply to all sheet (0-based)
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> Stream<T> stream(InputStream inputStream, Integer startRowNum, Class<T> clazz) {
+        return iterator(inputStream, startRowNum, clazz).stream();
+    }
+
+    /**
+     * Streaming read the sheets, columns and rows selected by the query,
+     * the cells which are not selected are skipped while parsing.
+     *
+     * @param inputStream
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> List<T> read(InputStream inputStream, ReadQuery query, Class<T> clazz) {
+        List<T> dataList = Lists.newArrayList();
+        if (inputStream == null || query == null || clazz == null) {
+            return dataList;
+        }
+        StreamReader.open(inputStream, query, clazz).forEach(dataList::add);
+        return dataList;
+    }
+
+    /**
+     * Streaming read the sheets, columns and rows selected by the query as a lazy stream,
+     * the stream must be closed to release the temp file.
+     *
+     * @param inputStream
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> Stream<T> stream(InputStream inputStream, ReadQuery query, Class<T> clazz) {
+        return StreamReader.open(inputStream, query, clazz).stream();
+    }
+
+    /**
+     * Streaming read the file of the type, delimited text has no file signature so the type must be given.
+     *
+     * @param inputStream
+     * @param type
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> List<T> read(InputStream inputStream, Type type, ReadQuery query, Class<T> clazz) {
+        List<T> dataList = Lists.newArrayList();
+        if (inputStream == null || type == null || query == null || clazz == null) {
+            return dataList;
         }
-        return workbook;
+        StreamReader.open(inputStream, type, query, clazz).forEach(dataList::add);
+        return dataList;
     }
 
-    private static LinkedHashMap<Integer, Field> getSheetColumnNumberFieldMap(Map<String, Field> columnNameMap, Sheet sheet) {
+    /**
+     * Streaming read the file of the type as a lazy stream, the stream must be closed to release the input stream.
+     *
+     * @param inputStream
+     * @param type
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> Stream<T> stream(InputStream inputStream, Type type, ReadQuery query, Class<T> clazz) {
+        return StreamReader.open(inputStream, type, query, clazz).stream();
+    }
+
+    /**
+     * Streaming read the rows selected by the query into a columnar table,
+     * the beans are only created when the rows are viewed.
+     *
+     * @param inputStream
+     * @param query
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> ExcelTable<T> readTable(InputStream inputStream, ReadQuery query, Class<T> clazz) {
+        return ExcelTable.read(inputStream, query, clazz, false);
+    }
+
+    private static LinkedHashMap<Integer, ColumnMapping> getSheetColumnNumberFieldMap(Map<String, ColumnMapping> columnNameMap, Sheet sheet) {
         // Key is column number
-        LinkedHashMap<Integer, Field> header = Maps.newLinkedHashMap();
+        LinkedHashMap<Integer, ColumnMapping> header = Maps.newLinkedHashMap();
         int firstRowNum = sheet.getFirstRowNum();
         Row firstRow = sheet.getRow(firstRowNum);
         for (int colNum = firstRow.getFirstCellNum(); colNum < firstRow.getLastCellNum(); colNum++) {
-            Object cellValue = getCellValue(firstRow.getCell(colNum));
+            Cell cell = firstRow.getCell(colNum);
+            Object cellValue = cell.getCellType() == CellType.NUMERIC && !DateUtil.isCellDateFormatted(cell)
+                    ? NumberToTextConverter.toText(cell.getNumericCellValue()) : getCellValue(cell);
             if (!columnNameMap.containsKey(cellValue)) {
                 throw new RuntimeException(String.format("Unknown header, %s.", cellValue));
             }
@@ -226,34 +454,27 @@ public class ExcelUtils {
         return header;
     }
 
-    private static Object cellValueProcessing(Object cellValue, Class<?> fieldType) {
-        Object result;
-        String cellValueString = cellValue.toString();
-        if (fieldType.equals(Byte.class)) {
-            result = NumberUtils.toByte(cellValueString);
-        } else if (fieldType.equals(Short.class)) {
-            result = NumberUtils.toShort(cellValueString);
-        } else if (fieldType.equals(Integer.class)) {
-            result = NumberUtils.toInt(cellValueString);
-        } else if (fieldType.equals(Long.class)) {
-            result = NumberUtils.toLong(cellValueString);
-        } else if (fieldType.equals(Float.class)) {
-            result = NumberUtils.toFloat(cellValueString);
-        } else if (fieldType.equals(Double.class)) {
-            result = NumberUtils.toDouble(cellValueString);
-        } else if (fieldType.equals(BigDecimal.class)) {
-            result = NumberUtils.toScaledBigDecimal(cellValueString);
-        } else if (fieldType.equals(Character.class)) {
-            result = CharUtils.toChar(cellValueString);
-        } else {
-            result = cellValue;
+    /**
+     * Whether the dates of the workbook count from 1904, SXSSF workbooks are only written
+     *
+     * @param workbook
+     * @return
+     */
+    private static boolean isDate1904(Workbook workbook) {
+        if (workbook instanceof XSSFWorkbook) {
+            return ((XSSFWorkbook) workbook).isDate1904();
         }
-        return result;
+        return workbook instanceof HSSFWorkbook && ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+    }
+
+    private static RuntimeException invalidCell(Cell cell, ColumnMapping column, Class<?> actualType, RuntimeException e) {
+        return new RuntimeException(String.format("%s cell data type value is invalid, expected type is %s, actual type is %s.",
+                cell.getAddress().formatAsString(), column.getType().getSimpleName(), actualType.getSimpleName()), e);
     }
 
     private static Object getCellValue(Cell cell) {
         Object value;
-        switch (cell.getCellTypeEnum()) {
+        switch (cell.getCellType()) {
             case STRING:
                 value = cell.getStringCellValue();
                 break;
@@ -261,12 +482,15 @@ public class ExcelUtils {
                 if (DateUtil.isCellDateFormatted(cell)) {
                     value = cell.getDateCellValue();
                 } else {
-                    value = NumberToTextConverter.toText(cell.getNumericCellValue());
+                    value = cell.getNumericCellValue();
                 }
                 break;
             case BOOLEAN:
                 value = cell.getBooleanCellValue();
                 break;
+            case BLANK:
+                value = null;
+                break;
             default:
                 throw new RuntimeException(String.format("%s cell value is invalid, value is %s.",
                         cell.getAddress().formatAsString(), cell.getStringCellValue()));
@@ -274,132 +498,55 @@ public class ExcelUtils {
         return value;
     }
 
-    /**
-     * Get all fields of the class, the key is the name of the ExcelColumn annotation.
-     *
-     * @param clazz
-     * @param <T>
-     * @return
-     */
-    private static <T> HashMap<String, Field> getClassColumnNameMap(Class<T> clazz) {
-        // Key is ExcelColumn annotation name
-        HashMap<String, Field> columnNameMap = Maps.newHashMap();
-        ArrayList<ExcelColumnAnnotationInfo> list = getClassExcelColumnAnnotationInfo(clazz);
-        if (CollectionUtils.isEmpty(list)) {
-            return columnNameMap;
-        }
-        for (ExcelColumnAnnotationInfo annotationInfo : list) {
-            String value = annotationInfo.getName();
-            if (columnNameMap.containsKey(value)) {
-                throw new RuntimeException(String.format("%s class @%s annotation has the same name, name is the %s.",
-                        clazz.getSimpleName(), ExcelColumn.class.getSimpleName(), value));
-            }
-            columnNameMap.put(value, annotationInfo.getField());
-        }
-        return columnNameMap;
-    }
-
-    /**
-     * Get all fields of the class, the key is the number of the ExcelColumn annotation.
-     *
-     * @param clazz
-     * @param <T>
-     * @return
-     */
-    private static <T> TreeMap<Integer, ExcelColumnAnnotationInfo> getColumnNumberMap(Class<T> clazz) {
-        // Key is ExcelColumn annotation number
-        TreeMap<Integer, ExcelColumnAnnotationInfo> columnNumberMap = Maps.newTreeMap();
-        ArrayList<ExcelColumnAnnotationInfo> list = getClassExcelColumnAnnotationInfo(clazz);
-        if (CollectionUtils.isEmpty(list)) {
-            return columnNumberMap;
-        }
-        for (ExcelColumnAnnotationInfo annotationInfo : list) {
-            Integer number = annotationInfo.getNumber();
-            if (columnNumberMap.containsKey(number)) {
-                throw new RuntimeException(String.format("%s class @%s annotation has the same number, number is the %s.",
-                        clazz.getSimpleName(), ExcelColumn.class.getSimpleName(), number));
-            }
-            columnNumberMap.put(number, annotationInfo);
-        }
-        return columnNumberMap;
-    }
-
-    private static <T> ArrayList<ExcelColumnAnnotationInfo> getClassExcelColumnAnnotationInfo(Class<T> clazz) {
-        ArrayList<ExcelColumnAnnotationInfo> list = Lists.newArrayList();
-        List<Field> fieldList = FieldUtils.getAllFieldsList(clazz);
-        if (CollectionUtils.isEmpty(fieldList)) {
-            return list;
-        }
-        Class<ExcelColumn> excelColumnClass = ExcelColumn.class;
-        for (Field field : fieldList) {
-            ExcelColumn annotation = field.getAnnotation(excelColumnClass);
-            if (annotation == null) {
-                continue;
-            }
-            list.add(new ExcelColumnAnnotationInfo(annotation.name(), annotation.number(), annotation.format(), field));
-        }
-        return list;
-    }
-
-    /**
-     * Create header.
-     *
-     * @param sheet
-     * @param clazz
-     * @param <T>
-     */
-    private static <T> void createHeader(Sheet sheet, Class<T> clazz) {
-        // Key is ExcelColumn annotation number
-        TreeMap<Integer, ExcelColumnAnnotationInfo> columnNumberMap = getColumnNumberMap(clazz);
-        Row row = sheet.createRow(sheet.getLastRowNum());
-        Iterator<Map.Entry<Integer, ExcelColumnAnnotationInfo>> iterator = columnNumberMap.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Integer, ExcelColumnAnnotationInfo> next = iterator.next();
-            Cell cell = row.createCell(next.getKey());
-            cell.setCellValue(next.getValue().getName());
-        }
-    }
-
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    static
-    class ExcelColumnAnnotationInfo {
+    public enum Type {
 
+        MICROSOFT_EXCEL(".xls"),
+        OFFICE_OPEN_XML_SHEET(".xlsx"),
         /**
-         * Column name
+         * Office open xml sheet written directly from the ExcelColumn annotations without the POI usermodel,
+         * for flat exports with few styles
          */
-        private String name;
-
+        OFFICE_OPEN_XML_SHEET_DIRECT(".xlsx"),
         /**
-         * Column number
+         * Comma separated values (RFC 4180), UTF-8 text without sheets
          */
-        private Integer number;
-
+        CSV(".csv", ','),
         /**
-         * Column data format
+         * Tab separated values, quoted as CSV
          */
-        private String format;
+        TSV(".tsv", '\t');
+
+        private String extensionName;
 
         /**
-         * Class field
+         * Field delimiter of the delimited text types, 0 for the workbook types
          */
-        private Field field;
-    }
-
-    public enum Type {
-
-        MICROSOFT_EXCEL(".xls"),
-        OFFICE_OPEN_XML_SHEET(".xlsx");
-
-        private String extensionName;
+        private char delimiter;
 
         Type(String extensionName) {
+            this(extensionName, (char) 0);
+        }
+
+        Type(String extensionName, char delimiter) {
             this.extensionName = extensionName;
+            this.delimiter = delimiter;
         }
 
         public String getExtensionName() {
             return extensionName;
         }
+
+        public char getDelimiter() {
+            return delimiter;
+        }
+
+        /**
+         * Whether the type is delimited text instead of a workbook.
+         *
+         * @return
+         */
+        public boolean isDelimited() {
+            return delimiter != 0;
+        }
     }
 }
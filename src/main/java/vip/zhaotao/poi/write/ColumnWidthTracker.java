@@ -0,0 +1,155 @@
+package vip.zhaotao.poi.write;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import vip.zhaotao.poi.annotation.WidthMode;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Running max display width of each column of the current sheet, the widths are applied once the sheet is complete.
+ * Measuring a cell does not allocate, wide characters (e.g. CJK) count as two characters.
+ *
+ * @author zhaotao
+ */
+class ColumnWidthTracker {
+
+    /**
+     * Max column width in characters
+     */
+    private static final int MAX_WIDTH = 255;
+
+    private final List<ColumnMapping> columns;
+
+    private final int sampleRows;
+
+    /**
+     * Display width of the column format, used by date cells
+     */
+    private final int[] formatWidths;
+
+    private final int[] widths;
+
+    private int rowCount;
+
+    ColumnWidthTracker(List<ColumnMapping> columns, int sampleRows) {
+        this.columns = columns;
+        this.sampleRows = sampleRows;
+        this.formatWidths = new int[columns.size()];
+        this.widths = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            formatWidths[i] = displayWidth(columns.get(i).getFormat());
+        }
+    }
+
+    /**
+     * Start a new row of the current sheet
+     */
+    void nextRow() {
+        rowCount++;
+    }
+
+    /**
+     * Measure a text cell
+     *
+     * @param index column index
+     * @param text
+     */
+    void track(int index, CharSequence text) {
+        if (isMeasured(index)) {
+            widths[index] = Math.max(widths[index], displayWidth(text));
+        }
+    }
+
+    /**
+     * Measure a cell displayed with the column format, e.g. a date
+     *
+     * @param index column index
+     */
+    void trackFormat(int index) {
+        if (isMeasured(index)) {
+            widths[index] = Math.max(widths[index], formatWidths[index]);
+        }
+    }
+
+    private boolean isMeasured(int index) {
+        switch (columns.get(index).getWidthMode()) {
+            case EXACT:
+                return true;
+            case SAMPLED:
+                return rowCount <= sampleRows;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Set the width of the columns wider than the default column width, then start over for the next sheet.
+     *
+     * @param sheet
+     */
+    void apply(Sheet sheet) {
+        for (int i = 0; i < columns.size(); i++) {
+            int width = getWidth(i, sheet.getDefaultColumnWidth());
+            if (width > 0) {
+                sheet.setColumnWidth(columns.get(i).getNumber(), width * 256);
+            }
+        }
+        reset();
+    }
+
+    /**
+     * Width of the column in characters
+     *
+     * @param index              column index
+     * @param defaultColumnWidth
+     * @return 0 if the column keeps the default column width
+     */
+    int getWidth(int index, int defaultColumnWidth) {
+        ColumnMapping column = columns.get(index);
+        int width = column.getWidthMode() == WidthMode.FIXED ? column.getWidth() : widths[index];
+        if (width > defaultColumnWidth || (column.getWidthMode() == WidthMode.FIXED && width > 0)) {
+            return Math.min(width, MAX_WIDTH);
+        }
+        return 0;
+    }
+
+    /**
+     * Start over for the next sheet
+     */
+    void reset() {
+        Arrays.fill(widths, 0);
+        rowCount = 0;
+    }
+
+    /**
+     * Estimated display width in characters
+     *
+     * @param text
+     * @return
+     */
+    static int displayWidth(CharSequence text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += isWide(text.charAt(i)) ? 2 : 1;
+        }
+        return width;
+    }
+
+    /**
+     * East asian wide and fullwidth characters: hangul jamo, CJK, hangul syllables, compatibility ideographs and forms, fullwidth forms
+     *
+     * @param c
+     * @return
+     */
+    private static boolean isWide(char c) {
+        return c >= '\u1100' && (c <= '\u115F'
+                || (c >= '\u2E80' && c <= '\uA4CF')
+                || (c >= '\uAC00' && c <= '\uD7A3')
+                || (c >= '\uF900' && c <= '\uFAFF')
+                || (c >= '\uFE30' && c <= '\uFE4F')
+                || (c >= '\uFF00' && c <= '\uFF60')
+                || (c >= '\uFFE0' && c <= '\uFFE6'));
+    }
+}
@@ -0,0 +1,354 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Lombok;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.metrics.ExcelMetrics;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+import vip.zhaotao.poi.metrics.Phase;
+import vip.zhaotao.poi.util.ExcelUtils.Type;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Delimited text writer (CSV, TSV), the header and the rows are written from the ExcelColumn annotations.
+ * Fields are quoted as RFC 4180 and the lines end with CRLF, the text is encoded to UTF-8 through one char buffer
+ * and one byte buffer and written to the channel of the output stream.
+ * <p>
+ * Dates are formatted with the column format as the date pattern, numbers are written with their full precision
+ * and the other formats are ignored. There is no sheet, so the max rows per sheet do not apply.
+ *
+ * @author zhaotao
+ */
+public class DelimitedWriter implements RowWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char QUOTE = '"';
+
+    private final WritableByteChannel channel;
+
+    private final char delimiter;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    private final CharBuffer charBuffer = CharBuffer.allocate(BUFFER_SIZE);
+
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE * 3);
+
+    /**
+     * Digits of the numbers being written
+     */
+    private final char[] digits = new char[20];
+
+    private final ExcelMetricsListener metricsListener;
+
+    /**
+     * Whether the phases are timed, only if there is a listener
+     */
+    private final boolean timed;
+
+    private List<ColumnMapping> columns;
+
+    /**
+     * Column index of each field in column number order, fields without column are empty
+     */
+    private int[] fieldColumns;
+
+    /**
+     * Date format of each date column, null for the other columns
+     */
+    private FastDateFormat[] dateFormats;
+
+    private long rowCount;
+
+    private long cellCount;
+
+    private long mapNanos;
+
+    private long bytesWritten;
+
+    private boolean finished;
+
+    public DelimitedWriter(Type type, OutputStream outputStream, WriteOptions options) {
+        if (!type.isDelimited()) {
+            throw new IllegalArgumentException(String.format("Unsupported type of the delimited writer, %s.", type));
+        }
+        this.delimiter = type.getDelimiter();
+        this.channel = Channels.newChannel(outputStream);
+        this.metricsListener = ExcelMetrics.getListener(options.getMetricsListener());
+        this.timed = metricsListener != ExcelMetricsListener.NOOP;
+    }
+
+    @Override
+    public void writeRow(Object t) {
+        writeRow(t.getClass(), t, null);
+    }
+
+    @Override
+    public void writeValues(Class<?> clazz, Object[] values) {
+        writeRow(clazz, null, values);
+    }
+
+    /**
+     * Write the line of the bean, or of the cell values if they are given.
+     *
+     * @param clazz
+     * @param t
+     * @param values
+     */
+    private void writeRow(Class<?> clazz, Object t, Object[] values) {
+        long start = timed ? System.nanoTime() : 0;
+        try {
+            if (columns == null) {
+                initColumns(clazz);
+                writeHeader();
+            }
+            for (int field = 0; field < fieldColumns.length; field++) {
+                if (field > 0) {
+                    append(delimiter);
+                }
+                int index = fieldColumns[field];
+                if (index >= 0 && writeField(columns.get(index), index, t, values)) {
+                    cellCount++;
+                }
+            }
+            append('\r');
+            append('\n');
+            rowCount++;
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+        if (timed) {
+            mapNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void initColumns(Class<?> clazz) {
+        columns = RowMapper.of(clazz).getColumns();
+        int maxNumber = -1;
+        for (ColumnMapping column : columns) {
+            maxNumber = Math.max(maxNumber, column.getNumber());
+        }
+        // Same column positions as the workbook, skipped column numbers are empty fields
+        fieldColumns = new int[maxNumber + 1];
+        Arrays.fill(fieldColumns, -1);
+        dateFormats = new FastDateFormat[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMapping column = columns.get(i);
+            fieldColumns[column.getNumber()] = i;
+            if (Date.class.isAssignableFrom(column.getType()) && StringUtils.isNotBlank(column.getFormat())) {
+                dateFormats[i] = FastDateFormat.getInstance(column.getFormat());
+            }
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        for (int field = 0; field < fieldColumns.length; field++) {
+            if (field > 0) {
+                append(delimiter);
+            }
+            if (fieldColumns[field] >= 0) {
+                appendText(columns.get(fieldColumns[field]).getName());
+            }
+        }
+        append('\r');
+        append('\n');
+    }
+
+    /**
+     * Write the field value of the column.
+     *
+     * @return false if the field is empty
+     * @throws IOException
+     */
+    private boolean writeField(ColumnMapping column, int index, Object t, Object[] values) throws IOException {
+        if (values == null && column.isPrimitive() && column.isNumeric() && column.getType() != long.class && column.getType() != float.class) {
+            // Primitive number fields are read without boxing, long and float fields keep their own precision
+            appendNumber(column.getDouble(t));
+            return true;
+        }
+        Object fieldValue = values == null ? column.get(t) : values[index];
+        if (fieldValue == null) {
+            return false;
+        }
+        if (fieldValue instanceof Double) {
+            appendNumber((Double) fieldValue);
+        } else if (fieldValue instanceof Float) {
+            float value = (Float) fieldValue;
+            if (value == (long) value && Math.abs(value) < 1e15) {
+                appendLong((long) value);
+            } else {
+                appendRaw(Float.toString(value));
+            }
+        } else if (fieldValue instanceof Long || fieldValue instanceof Integer || fieldValue instanceof Short || fieldValue instanceof Byte) {
+            appendLong(((Number) fieldValue).longValue());
+        } else if (fieldValue instanceof BigDecimal) {
+            appendRaw(((BigDecimal) fieldValue).toPlainString());
+        } else if (fieldValue instanceof Date) {
+            Date date = (Date) fieldValue;
+            appendText(dateFormats[index] == null ? date.toString() : dateFormats[index].format(date));
+        } else if (fieldValue instanceof Boolean) {
+            appendRaw((Boolean) fieldValue ? "TRUE" : "FALSE");
+        } else {
+            appendText(fieldValue.toString());
+        }
+        return true;
+    }
+
+    private void appendNumber(double value) throws IOException {
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            appendLong((long) value);
+        } else {
+            appendRaw(Double.toString(value));
+        }
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            appendRaw(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = position; i < digits.length; i++) {
+            append(digits[i]);
+        }
+    }
+
+    /**
+     * Append the text, quoted if it contains the delimiter, a quote or a line break.
+     *
+     * @param text
+     * @throws IOException
+     */
+    private void appendText(String text) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == delimiter || c == QUOTE || c == '\r' || c == '\n') {
+                quoted = true;
+                break;
+            }
+        }
+        if (!quoted) {
+            appendRaw(text);
+            return;
+        }
+        append(QUOTE);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == QUOTE) {
+                append(QUOTE);
+            }
+            append(c);
+        }
+        append(QUOTE);
+    }
+
+    private void appendRaw(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (!charBuffer.hasRemaining()) {
+            encode(false);
+        }
+        charBuffer.put(c);
+    }
+
+    /**
+     * Encode the buffered chars, a trailing high surrogate is kept for the next chars.
+     *
+     * @param endOfInput
+     * @throws IOException
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        charBuffer.flip();
+        while (true) {
+            CoderResult result = encoder.encode(charBuffer, byteBuffer, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        charBuffer.compact();
+        if (endOfInput) {
+            while (encoder.flush(byteBuffer).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        byteBuffer.flip();
+        while (byteBuffer.hasRemaining()) {
+            bytesWritten += channel.write(byteBuffer);
+        }
+        byteBuffer.clear();
+    }
+
+    @Override
+    public int getSheetCount() {
+        return columns == null ? 0 : 1;
+    }
+
+    /**
+     * Flush the buffered text to the output stream, the output stream is not closed.
+     */
+    @Override
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long start = System.nanoTime();
+        try {
+            encode(true);
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+        if (timed) {
+            metricsListener.onPhase(Phase.MAP, mapNanos);
+            metricsListener.onPhase(Phase.SERIALIZE, System.nanoTime() - start);
+        }
+        if (columns != null) {
+            metricsListener.onSheet(0, rowCount, cellCount, 0, 0);
+        }
+        metricsListener.onBytesWritten(bytesWritten);
+    }
+
+    /**
+     * Nothing to release, the channel of the output stream is not closed.
+     */
+    @Override
+    public void close() {
+    }
+}
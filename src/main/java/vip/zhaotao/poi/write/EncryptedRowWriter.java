@@ -0,0 +1,56 @@
+package vip.zhaotao.poi.write;
+
+import vip.zhaotao.poi.crypt.EncryptedPackageOutputStream;
+
+import java.io.OutputStream;
+
+/**
+ * Direct office open xml sheet writer whose package is encrypted with the password of the options while it is written,
+ * see {@link EncryptedPackageOutputStream}.
+ *
+ * @author zhaotao
+ */
+class EncryptedRowWriter implements RowWriter {
+
+    private final EncryptedPackageOutputStream encryptedOutputStream;
+
+    private final SpreadsheetMLWriter delegate;
+
+    EncryptedRowWriter(OutputStream outputStream, WriteOptions options) {
+        this.encryptedOutputStream = new EncryptedPackageOutputStream(outputStream, options.getPassword());
+        this.delegate = new SpreadsheetMLWriter(encryptedOutputStream, options);
+    }
+
+    @Override
+    public void writeRow(Object t) {
+        delegate.writeRow(t);
+    }
+
+    @Override
+    public void writeValues(Class<?> clazz, Object[] values) {
+        delegate.writeValues(clazz, values);
+    }
+
+    @Override
+    public int getSheetCount() {
+        return delegate.getSheetCount();
+    }
+
+    @Override
+    public void finish() {
+        delegate.finish();
+        encryptedOutputStream.finish();
+    }
+
+    /**
+     * Release the writer and delete the temp files, the output stream is not closed.
+     */
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            encryptedOutputStream.close();
+        }
+    }
+}
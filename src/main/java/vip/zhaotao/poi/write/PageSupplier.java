@@ -0,0 +1,63 @@
+package vip.zhaotao.poi.write;
+
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Page supplier, pages are requested one after another until an empty page is returned.
+ *
+ * @param <T>
+ * @author zhaotao
+ */
+@FunctionalInterface
+public interface PageSupplier<T> {
+
+    /**
+     * Get page
+     *
+     * @param pageNum 0-based
+     * @return null or empty if there is no more data
+     */
+    List<T> getPage(int pageNum);
+
+    /**
+     * Iterator over the rows of all pages, only the current page is referenced.
+     *
+     * @return
+     */
+    default Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int pageNum;
+
+            private Iterator<T> page = Collections.emptyIterator();
+
+            private boolean end;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !end) {
+                    List<T> list = getPage(pageNum++);
+                    if (CollectionUtils.isEmpty(list)) {
+                        end = true;
+                    } else {
+                        page = list.iterator();
+                    }
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+}
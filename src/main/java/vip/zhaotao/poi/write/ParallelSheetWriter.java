@@ -0,0 +1,173 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Lombok;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import vip.zhaotao.poi.crypt.EncryptedPackageOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Parallel sheet writer of office open xml sheet files, the sheets are generated concurrently on the executor
+ * and assembled into one package, so a file of many sheets takes about as long as its largest sheet.
+ * <p>
+ * Each sheet is written by a {@link SpreadsheetMLWriter} into a compressed temp file, the sheet xml is then copied
+ * into the package without being decompressed. The writers share the formats, so the package has one style sheet,
+ * and strings are written inline. A sheet which is over the max rows per sheet rolls over to the next sheets
+ * with a number suffix, e.g. Orders (2).
+ * <p>
+ * The number of sheets generated at the same time is bounded, the calling thread waits for a permit before
+ * the next sheet is taken, so the data sources are not read ahead of the executor.
+ *
+ * @author zhaotao
+ */
+public class ParallelSheetWriter {
+
+    private final Executor executor;
+
+    private final Semaphore sheetPermits;
+
+    /**
+     * Use the common fork join pool.
+     *
+     * @param maxConcurrentSheets
+     */
+    public ParallelSheetWriter(int maxConcurrentSheets) {
+        this(ForkJoinPool.commonPool(), maxConcurrentSheets);
+    }
+
+    /**
+     * Create the writer
+     *
+     * @param executor            e.g. a {@link ForkJoinPool} or a fixed thread pool, tasks never wait on each other
+     * @param maxConcurrentSheets max number of sheets generated at the same time
+     */
+    public ParallelSheetWriter(Executor executor, int maxConcurrentSheets) {
+        if (maxConcurrentSheets <= 0) {
+            throw new IllegalArgumentException(String.format("Max concurrent sheets must be positive, value is %s.", maxConcurrentSheets));
+        }
+        this.executor = executor;
+        this.sheetPermits = new Semaphore(maxConcurrentSheets);
+    }
+
+    /**
+     * Write the sheets in the order of the map, the key is the sheet name.
+     *
+     * @param outputStream not closed by the writer
+     * @param sheets       the rows of each sheet are iterated on an executor thread
+     * @param options
+     */
+    public void write(OutputStream outputStream, Map<String, ? extends Iterable<?>> sheets, WriteOptions options) {
+        write(outputStream, sheets.entrySet().stream(), options);
+    }
+
+    /**
+     * Write the sheets in the order of the stream, the key is the sheet name. The stream is consumed as permits
+     * are available and closed.
+     *
+     * @param outputStream not closed by the writer
+     * @param sheets       the rows of each sheet are iterated on an executor thread
+     * @param options
+     */
+    public void write(OutputStream outputStream, Stream<? extends Map.Entry<String, ? extends Iterable<?>>> sheets, WriteOptions options) {
+        // Formats of all sheets, the style indexes are the same in every sheet
+        List<String> formats = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<CompletableFuture<File>> futures = new ArrayList<>();
+        try (Stream<? extends Map.Entry<String, ? extends Iterable<?>>> s = sheets) {
+            Iterator<? extends Map.Entry<String, ? extends Iterable<?>>> iterator = s.iterator();
+            while (iterator.hasNext()) {
+                if (futures.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+                Map.Entry<String, ? extends Iterable<?>> sheet = iterator.next();
+                WorkbookUtil.validateSheetName(sheet.getKey());
+                names.add(sheet.getKey());
+                sheetPermits.acquire();
+                CompletableFuture<File> future;
+                try {
+                    future = CompletableFuture.supplyAsync(() -> writeSheet(sheet.getValue(), options, formats), executor);
+                } catch (Throwable t) {
+                    sheetPermits.release();
+                    throw t;
+                }
+                future.whenComplete((file, t) -> sheetPermits.release());
+                futures.add(future);
+            }
+            // Only the assembled package is encrypted, the sheet temp files are plain as the temp files of the other writers
+            EncryptedPackageOutputStream encryptedOutputStream = options.getPassword() == null ? null
+                    : new EncryptedPackageOutputStream(outputStream, options.getPassword());
+            try (SpreadsheetMLWriter writer = new SpreadsheetMLWriter(encryptedOutputStream == null ? outputStream : encryptedOutputStream,
+                    options, formats)) {
+                for (int i = 0; i < futures.size(); i++) {
+                    File file = join(futures.get(i));
+                    try {
+                        writer.addSheets(file, names.get(i));
+                    } finally {
+                        file.delete();
+                    }
+                }
+                writer.finish();
+                if (encryptedOutputStream != null) {
+                    encryptedOutputStream.finish();
+                }
+            } finally {
+                IOUtils.closeQuietly(encryptedOutputStream);
+            }
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        } finally {
+            // Temp files of the sheets which are not assembled, including the sheets still being generated
+            for (CompletableFuture<File> future : futures) {
+                future.whenComplete((file, t) -> {
+                    if (file != null) {
+                        file.delete();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Write the rows into the compressed sheets of a temp file.
+     *
+     * @param rows
+     * @param options
+     * @param formats
+     * @return
+     */
+    private static File writeSheet(Iterable<?> rows, WriteOptions options, List<String> formats) {
+        File file = null;
+        try {
+            file = TempFile.createTempFile("excel-sheet", ".tmp");
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
+                 SpreadsheetMLWriter writer = new SpreadsheetMLWriter(outputStream, options, formats)) {
+                for (Object row : rows) {
+                    writer.writeRow(row);
+                }
+                writer.finishSheets();
+            }
+            return file;
+        } catch (Throwable t) {
+            if (file != null) {
+                file.delete();
+            }
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw Lombok.sneakyThrow(e.getCause() == null ? e : e.getCause());
+        }
+    }
+}
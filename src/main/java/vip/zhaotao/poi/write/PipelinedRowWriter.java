@@ -0,0 +1,234 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Lombok;
+import vip.zhaotao.poi.mapping.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipelined row writer, the beans are mapped to cell values on the mapping threads and the cells are written
+ * and the file is serialized on one writer thread, so the calling thread only takes the rows from the data source.
+ * <p>
+ * Rows are collected into batches, each batch is mapped by one mapping task and queued for the writer thread
+ * in row order. The queue is bounded, when it is full {@link #writeRow(Object)} waits, so the data source is not read
+ * ahead of the writer and the memory usage depends only on the batch size and the queue capacity.
+ * <p>
+ * The writer is used by one calling thread, like the other row writers.
+ *
+ * @author zhaotao
+ */
+public class PipelinedRowWriter implements RowWriter {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * Queued after the last batch, the writer thread completes the file
+     */
+    private static final Future<Object[][]> FINISH = CompletableFuture.completedFuture(null);
+
+    /**
+     * Queued when the writer is closed before it is finished, the writer thread stops
+     */
+    private static final Future<Object[][]> ABORT = CompletableFuture.completedFuture(null);
+
+    private final RowWriter delegate;
+
+    private final int batchSize;
+
+    private final ExecutorService mappingExecutor;
+
+    /**
+     * Mapped batches in row order
+     */
+    private final BlockingQueue<Future<Object[][]>> batches;
+
+    private final Thread writerThread;
+
+    /**
+     * Error of the writer thread or of a mapping task
+     */
+    private volatile Throwable failure;
+
+    /**
+     * Class of the first row
+     */
+    private Class<?> clazz;
+
+    private List<Object> batch;
+
+    private boolean finished;
+
+    /**
+     * Create the writer, the mapping threads and the writer thread are started.
+     *
+     * @param delegate writer of the file, only used by the writer thread
+     * @param options
+     */
+    public PipelinedRowWriter(RowWriter delegate, WriteOptions options) {
+        if (options.getMappingThreads() <= 0) {
+            throw new IllegalArgumentException(String.format("Mapping threads must be positive, value is %s.", options.getMappingThreads()));
+        }
+        if (options.getPipelineBatchSize() <= 0) {
+            throw new IllegalArgumentException(String.format("Pipeline batch size must be positive, value is %s.", options.getPipelineBatchSize()));
+        }
+        if (options.getPipelineCapacity() <= 0) {
+            throw new IllegalArgumentException(String.format("Pipeline capacity must be positive, value is %s.", options.getPipelineCapacity()));
+        }
+        this.delegate = delegate;
+        this.batchSize = options.getPipelineBatchSize();
+        this.batch = new ArrayList<>(batchSize);
+        this.batches = new ArrayBlockingQueue<>(options.getPipelineCapacity());
+        int number = THREAD_NUMBER.incrementAndGet();
+        AtomicInteger mappingThreadNumber = new AtomicInteger();
+        this.mappingExecutor = Executors.newFixedThreadPool(options.getMappingThreads(),
+                runnable -> newDaemonThread(runnable, "excel-mapping-" + number + "-" + mappingThreadNumber.incrementAndGet()));
+        this.writerThread = newDaemonThread(this::runWriter, "excel-writer-" + number);
+        this.writerThread.start();
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public void writeRow(Object t) {
+        if (clazz == null) {
+            clazz = t.getClass();
+        }
+        batch.add(t);
+        if (batch.size() >= batchSize) {
+            submitBatch();
+        }
+    }
+
+    /**
+     * Write one row of cell values which are already read from the bean, the pending rows are queued first.
+     *
+     * @param clazz
+     * @param values
+     */
+    @Override
+    public void writeValues(Class<?> clazz, Object[] values) {
+        if (this.clazz == null) {
+            this.clazz = clazz;
+        }
+        if (!batch.isEmpty()) {
+            submitBatch();
+        }
+        put(CompletableFuture.completedFuture(new Object[][]{values}));
+    }
+
+    private void submitBatch() {
+        List<Object> rows = batch;
+        batch = new ArrayList<>(batchSize);
+        RowMapper<?> rowMapper = RowMapper.of(clazz);
+        put(mappingExecutor.submit(() -> {
+            Object[][] values = new Object[rows.size()][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rowMapper.getCellValues(rows.get(i));
+            }
+            return values;
+        }));
+    }
+
+    /**
+     * Queue the batch for the writer thread, wait while the queue is full.
+     *
+     * @param future
+     */
+    private void put(Future<Object[][]> future) {
+        checkFailure();
+        try {
+            batches.put(future);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        }
+        // The writer thread clears the queue when it fails, so a full queue does not block forever
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw Lombok.sneakyThrow(failure);
+        }
+    }
+
+    private void runWriter() {
+        try {
+            while (true) {
+                Future<Object[][]> future = batches.take();
+                if (future == ABORT) {
+                    return;
+                }
+                if (future == FINISH) {
+                    delegate.finish();
+                    return;
+                }
+                for (Object[] values : future.get()) {
+                    delegate.writeValues(clazz, values);
+                }
+            }
+        } catch (ExecutionException e) {
+            fail(e.getCause() == null ? e : e.getCause());
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    private void fail(Throwable t) {
+        failure = t;
+        batches.clear();
+    }
+
+    @Override
+    public int getSheetCount() {
+        return delegate.getSheetCount();
+    }
+
+    /**
+     * Queue the pending rows and wait until the writer thread has written all rows and completed the file.
+     */
+    @Override
+    public void finish() {
+        if (!batch.isEmpty()) {
+            submitBatch();
+        }
+        put(FINISH);
+        join();
+        checkFailure();
+        finished = true;
+    }
+
+    private void join() {
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Stop the writer thread if the writer is not finished, then stop the mapping threads and release the delegate.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!finished && writerThread.isAlive()) {
+                // Only the calling thread adds to the queue, so there is room once it is cleared
+                batches.clear();
+                batches.offer(ABORT);
+                join();
+            }
+        } finally {
+            mappingExecutor.shutdownNow();
+            delegate.close();
+        }
+    }
+}
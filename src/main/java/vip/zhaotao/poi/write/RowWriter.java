@@ -0,0 +1,97 @@
+package vip.zhaotao.poi.write;
+
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.util.ExcelUtils.Type;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Row writer of one file, rows are appended one at a time.
+ * Rows are written on the calling thread, or in the pipelined mode mapped on the mapping threads
+ * and written on one writer thread, see {@link WriteOptions#getMappingThreads()}.
+ *
+ * @author zhaotao
+ */
+public interface RowWriter extends Closeable {
+
+    /**
+     * Open the writer of the file type.
+     *
+     * @param type
+     * @param outputStream not closed by the writer
+     * @param options
+     * @return
+     */
+    static RowWriter open(Type type, OutputStream outputStream, WriteOptions options) {
+        if (options.getMappingThreads() > 0) {
+            return new PipelinedRowWriter(openDirect(type, outputStream, options), options);
+        }
+        return openDirect(type, outputStream, options);
+    }
+
+    /**
+     * Open the writer of the file type which writes on the calling thread, the pipelined mode is ignored.
+     *
+     * @param type
+     * @param outputStream not closed by the writer
+     * @param options
+     * @return
+     */
+    static RowWriter openDirect(Type type, OutputStream outputStream, WriteOptions options) {
+        if (type == Type.OFFICE_OPEN_XML_SHEET_DIRECT) {
+            if (options.getPassword() != null) {
+                return new EncryptedRowWriter(outputStream, options);
+            }
+            return new SpreadsheetMLWriter(outputStream, options);
+        }
+        if (type.isDelimited()) {
+            if (options.getPassword() != null) {
+                throw new IllegalArgumentException(String.format("Delimited text files can not be encrypted, %s.", type));
+            }
+            return new DelimitedWriter(type, outputStream, options);
+        }
+        return new WorkbookWriter(type, outputStream, options);
+    }
+
+    /**
+     * Write all rows of the iterator.
+     *
+     * @param iterator
+     * @param <T>
+     */
+    default <T> void write(Iterator<T> iterator) {
+        while (iterator.hasNext()) {
+            writeRow(iterator.next());
+        }
+    }
+
+    /**
+     * Write one row, the columns are resolved from the class of the first row.
+     *
+     * @param t
+     */
+    void writeRow(Object t);
+
+    /**
+     * Write one row of cell values which are already read from the bean, see {@link RowMapper#getCellValues(Object)}.
+     *
+     * @param clazz  class of the bean, the columns are resolved from the class of the first row
+     * @param values
+     */
+    void writeValues(Class<?> clazz, Object[] values);
+
+    int getSheetCount();
+
+    /**
+     * Complete the file, the output stream is not closed.
+     */
+    void finish();
+
+    /**
+     * Release the resources of the writer, the output stream is not closed.
+     */
+    @Override
+    void close();
+}
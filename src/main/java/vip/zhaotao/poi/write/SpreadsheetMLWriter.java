@@ -0,0 +1,750 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Lombok;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IOUtils;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.metrics.ExcelMetrics;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+import vip.zhaotao.poi.metrics.Phase;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Office open xml sheet writer without the POI usermodel, the sheet xml is generated from the ExcelColumn annotations
+ * and streamed into the zip package, so no row or cell object is created.
+ * Strings are written inline, or to a shared strings table built on the fly.
+ * <p>
+ * The column widths are written before the rows, so they are measured on the first rows of each sheet
+ * (see {@link WriteOptions#getWidthSampleRows()}), the exact width mode is sampled as well.
+ * <p>
+ * The sheets of several writers which share the formats can be assembled into one package, see {@link ParallelSheetWriter}.
+ *
+ * @author zhaotao
+ */
+public class SpreadsheetMLWriter implements RowWriter {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String MAIN_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private static final String RELATIONSHIP_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final String PACKAGE_RELATIONSHIP_NAMESPACE = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private static final String CONTENT_TYPE_PREFIX = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+
+    /**
+     * Number formats which are not built in start from this id
+     */
+    private static final int FIRST_CUSTOM_FORMAT_ID = 164;
+
+    /**
+     * Max length of a sheet name
+     */
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Days from 1899-12-30 to 1970-01-01
+     */
+    private static final int EPOCH_EXCEL_DATE = 25569;
+
+    /**
+     * First excel date after the nonexistent 1900-02-29
+     */
+    private static final int FIRST_EXCEL_DATE_AFTER_LEAP_BUG = 61;
+
+    private final CountingOutputStream countingOutputStream;
+
+    private final ZipArchiveOutputStream zipOutputStream;
+
+    private final Writer writer;
+
+    private final WriteOptions options;
+
+    /**
+     * Max number of data rows of one sheet
+     */
+    private final int maxRowsPerSheet;
+
+    private final TimeZone timeZone = TimeZone.getDefault();
+
+    /**
+     * Digits of the numbers being written
+     */
+    private final char[] digits = new char[20];
+
+    /**
+     * Index of the shared strings, null if strings are written inline
+     */
+    private final Map<String, Integer> sharedStrings;
+
+    private long sharedStringCount;
+
+    /**
+     * Column data formats of the styles, the style index is the list index + 1. May be shared by several writers.
+     */
+    private final List<String> formats;
+
+    private final List<String> sheetNames = new ArrayList<>();
+
+    private final ExcelMetricsListener metricsListener;
+
+    /**
+     * Whether the phases are timed, only if there is a listener
+     */
+    private final boolean timed;
+
+    private List<ColumnMapping> columns;
+
+    /**
+     * Column letters of each column, e.g. AB
+     */
+    private char[][] columnLetters;
+
+    /**
+     * Style index of each column, 0 is the default style
+     */
+    private int[] columnStyles;
+
+    private ColumnWidthTracker widthTracker;
+
+    /**
+     * Cell values of the first rows of the sheet, kept until the column widths are measured
+     */
+    private final List<Object[]> sampleRows = new ArrayList<>();
+
+    private int sheetCount;
+
+    /**
+     * Whether the current sheet has rows
+     */
+    private boolean sheetStarted;
+
+    /**
+     * Whether the zip entry of the current sheet is open
+     */
+    private boolean sheetOpen;
+
+    private int rowNum;
+
+    private long sheetCells;
+
+    private long sheetMapNanos;
+
+    private boolean finished;
+
+    public SpreadsheetMLWriter(OutputStream outputStream, WriteOptions options) {
+        this(outputStream, options, null);
+    }
+
+    /**
+     * Create the writer with the formats shared by other writers, so their sheets use the same style indexes
+     * and can be assembled into one package. The shared strings table can not be shared, so strings are written inline.
+     *
+     * @param outputStream
+     * @param options
+     * @param formats      shared formats, null if the formats are only used by this writer
+     */
+    SpreadsheetMLWriter(OutputStream outputStream, WriteOptions options, List<String> formats) {
+        this.options = options;
+        this.formats = formats == null ? new ArrayList<>() : formats;
+        this.countingOutputStream = new CountingOutputStream(outputStream);
+        this.zipOutputStream = new ZipArchiveOutputStream(countingOutputStream);
+        this.zipOutputStream.setLevel(options.getCompressionLevel());
+        this.writer = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8));
+        int typeMaxRows = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+        Integer maxRows = options.getMaxRowsPerSheet();
+        this.maxRowsPerSheet = maxRows == null || maxRows <= 0 || maxRows > typeMaxRows ? typeMaxRows : maxRows;
+        this.sharedStrings = formats == null && options.isUseSharedStrings() ? new LinkedHashMap<>() : null;
+        this.metricsListener = ExcelMetrics.getListener(options.getMetricsListener());
+        this.timed = metricsListener != ExcelMetricsListener.NOOP;
+    }
+
+    @Override
+    public void writeRow(Object t) {
+        writeRow(t.getClass(), t, null);
+    }
+
+    @Override
+    public void writeValues(Class<?> clazz, Object[] values) {
+        writeRow(clazz, null, values);
+    }
+
+    /**
+     * Write the row of the bean, or of the cell values if they are given.
+     *
+     * @param clazz
+     * @param t
+     * @param values
+     */
+    private void writeRow(Class<?> clazz, Object t, Object[] values) {
+        long start = timed ? System.nanoTime() : 0;
+        try {
+            if (columns == null) {
+                initColumns(clazz);
+            }
+            if (!sheetStarted || rowNum >= maxRowsPerSheet) {
+                closeSheet();
+                sheetStarted = true;
+            }
+            rowNum++;
+            if (sheetOpen) {
+                writeRowXml(t, values, rowNum);
+            } else {
+                Object[] sampleValues = values == null ? RowMapper.of(clazz).getCellValues(t) : values;
+                measure(sampleValues);
+                sampleRows.add(sampleValues);
+                if (sampleRows.size() >= Math.max(1, options.getWidthSampleRows())) {
+                    openSheet();
+                }
+            }
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+        if (timed) {
+            sheetMapNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void initColumns(Class<?> clazz) {
+        columns = RowMapper.of(clazz).getColumns();
+        columnLetters = new char[columns.size()][];
+        columnStyles = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMapping column = columns.get(i);
+            columnLetters[i] = CellReference.convertNumToColString(column.getNumber()).toCharArray();
+            String format = column.getFormat();
+            if (StringUtils.isNotBlank(format)) {
+                // Columns of the same format share one style
+                int index;
+                synchronized (formats) {
+                    index = formats.indexOf(format);
+                    if (index < 0) {
+                        formats.add(format);
+                        index = formats.size() - 1;
+                    }
+                }
+                columnStyles[i] = index + 1;
+            }
+        }
+        widthTracker = new ColumnWidthTracker(columns, options.getWidthSampleRows());
+    }
+
+    private void measure(Object[] values) {
+        widthTracker.nextRow();
+        for (int i = 0; i < columns.size(); i++) {
+            Object fieldValue = values[i];
+            if (fieldValue instanceof Date) {
+                widthTracker.trackFormat(i);
+            } else if (fieldValue != null && !(fieldValue instanceof Number) && !(fieldValue instanceof Boolean)) {
+                widthTracker.track(i, fieldValue.toString());
+            }
+        }
+    }
+
+    /**
+     * Start the zip entry of the sheet with the column widths and the header, then write the sampled rows.
+     *
+     * @throws IOException
+     */
+    private void openSheet() throws IOException {
+        sheetCount++;
+        sheetOpen = true;
+        // Same sheet names as Workbook.createSheet()
+        sheetNames.add("Sheet" + (sheetCount - 1));
+        writer.flush();
+        zipOutputStream.putArchiveEntry(new ZipArchiveEntry("xl/worksheets/sheet" + sheetCount + ".xml"));
+        writer.write(XML_DECLARATION);
+        writer.write("<worksheet xmlns=\"" + MAIN_NAMESPACE + "\" xmlns:r=\"" + RELATIONSHIP_NAMESPACE + "\">");
+        writer.write("<sheetFormatPr baseColWidth=\"");
+        writeLong(options.getDefaultColumnWidth());
+        writer.write("\" defaultRowHeight=\"15\"/>");
+        if (columns != null) {
+            writeColumnWidths();
+        }
+        writer.write("<sheetData>");
+        if (columns != null) {
+            writer.write("<row r=\"1\">");
+            for (int i = 0; i < columns.size(); i++) {
+                writeStringCell(i, 1, columns.get(i).getName());
+            }
+            writer.write("</row>");
+        }
+        for (int i = 0; i < sampleRows.size(); i++) {
+            writeRowXml(null, sampleRows.get(i), i + 1);
+        }
+        sampleRows.clear();
+    }
+
+    private void writeColumnWidths() throws IOException {
+        boolean started = false;
+        for (int i = 0; i < columns.size(); i++) {
+            int width = widthTracker.getWidth(i, options.getDefaultColumnWidth());
+            if (width <= 0) {
+                continue;
+            }
+            if (!started) {
+                writer.write("<cols>");
+                started = true;
+            }
+            int number = columns.get(i).getNumber() + 1;
+            writer.write("<col min=\"");
+            writeLong(number);
+            writer.write("\" max=\"");
+            writeLong(number);
+            writer.write("\" width=\"");
+            writeLong(width);
+            writer.write("\" customWidth=\"1\"/>");
+        }
+        if (started) {
+            writer.write("</cols>");
+        }
+        widthTracker.reset();
+    }
+
+    /**
+     * Write the row of the bean, or of the cell values if they are given, the header is row 1.
+     *
+     * @param t
+     * @param values
+     * @param dataRowNum 1-based number of the data row
+     * @throws IOException
+     */
+    private void writeRowXml(Object t, Object[] values, int dataRowNum) throws IOException {
+        int excelRowNum = dataRowNum + 1;
+        writer.write("<row r=\"");
+        writeLong(excelRowNum);
+        writer.write("\">");
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMapping column = columns.get(i);
+            if (values == null && column.isPrimitive() && column.isNumeric()) {
+                // Primitive number fields are read without boxing
+                writeNumericCell(i, excelRowNum, column.getDouble(t));
+                sheetCells++;
+                continue;
+            }
+            Object fieldValue = values == null ? column.get(t) : values[i];
+            if (fieldValue == null) {
+                continue;
+            }
+            if (fieldValue instanceof Number) {
+                writeNumericCell(i, excelRowNum, ((Number) fieldValue).doubleValue());
+            } else if (fieldValue instanceof Date) {
+                writeNumericCell(i, excelRowNum, getExcelDate((Date) fieldValue));
+            } else if (fieldValue instanceof Boolean) {
+                writeCellStart(i, excelRowNum, "b");
+                writer.write((Boolean) fieldValue ? "<v>1</v></c>" : "<v>0</v></c>");
+            } else {
+                writeStringCell(i, excelRowNum, fieldValue.toString());
+            }
+            sheetCells++;
+        }
+        writer.write("</row>");
+    }
+
+    /**
+     * Write a numeric cell, NaN and infinite values are error cells as the usermodel writes them.
+     *
+     * @param index
+     * @param excelRowNum
+     * @param value
+     * @throws IOException
+     */
+    private void writeNumericCell(int index, int excelRowNum, double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeCellStart(index, excelRowNum, "e");
+            writer.write("<v>");
+            writer.write(Double.isNaN(value) ? FormulaError.NUM.getString() : FormulaError.DIV0.getString());
+            writer.write("</v></c>");
+            return;
+        }
+        writeCellStart(index, excelRowNum, null);
+        writer.write("<v>");
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            writeLong((long) value);
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write("</v></c>");
+    }
+
+    private void writeStringCell(int index, int excelRowNum, String value) throws IOException {
+        if (sharedStrings != null) {
+            Integer sharedIndex = sharedStrings.get(value);
+            if (sharedIndex == null) {
+                sharedIndex = sharedStrings.size();
+                sharedStrings.put(value, sharedIndex);
+            }
+            sharedStringCount++;
+            writeCellStart(index, excelRowNum, "s");
+            writer.write("<v>");
+            writeLong(sharedIndex);
+            writer.write("</v></c>");
+        } else {
+            writeCellStart(index, excelRowNum, "inlineStr");
+            writer.write("<is>");
+            writeText(value);
+            writer.write("</is></c>");
+        }
+    }
+
+    private void writeCellStart(int index, int excelRowNum, String type) throws IOException {
+        writer.write("<c r=\"");
+        writer.write(columnLetters[index]);
+        writeLong(excelRowNum);
+        writer.write('"');
+        if (columnStyles[index] != 0) {
+            writer.write(" s=\"");
+            writeLong(columnStyles[index]);
+            writer.write('"');
+        }
+        if (type != null) {
+            writer.write(" t=\"");
+            writer.write(type);
+            writer.write('"');
+        }
+        writer.write('>');
+    }
+
+    /**
+     * Write a text element, leading or trailing spaces are preserved.
+     *
+     * @param value
+     * @throws IOException
+     */
+    private void writeText(String value) throws IOException {
+        boolean preserve = !value.isEmpty() && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+        writer.write(preserve ? "<t xml:space=\"preserve\">" : "<t>");
+        writeEscaped(value, false);
+        writer.write("</t>");
+    }
+
+    /**
+     * Escape the markup characters, characters which are not allowed in xml are dropped.
+     *
+     * @param value
+     * @param attribute whether the value is in a double quoted attribute, whose quotes are escaped too
+     * @throws IOException
+     */
+    private void writeEscaped(String value, boolean attribute) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '"' && attribute) {
+                replacement = "&quot;";
+            } else if (c < ' ' && c != '\t' && c != '\n' && c != '\r') {
+                replacement = "";
+            } else if (c == '\uFFFE' || c == '\uFFFF') {
+                replacement = "";
+            } else {
+                continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value < 0) {
+            writer.write('-');
+            if (value == Long.MIN_VALUE) {
+                writer.write(Long.toString(value).substring(1));
+                return;
+            }
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        writer.write(digits, position, digits.length - position);
+    }
+
+    /**
+     * Excel date of the default time zone, same as the usermodel without a calendar.
+     *
+     * @param date
+     * @return -1 if the date is before 1900, same as the usermodel
+     */
+    private double getExcelDate(Date date) {
+        long millis = date.getTime();
+        double excelDate = (double) (millis + timeZone.getOffset(millis)) / MILLIS_PER_DAY + EPOCH_EXCEL_DATE;
+        // Excel counts the nonexistent 1900-02-29
+        if (excelDate < FIRST_EXCEL_DATE_AFTER_LEAP_BUG) {
+            excelDate--;
+        }
+        return excelDate < 1 ? -1 : excelDate;
+    }
+
+    private void closeSheet() throws IOException {
+        if (!sheetStarted) {
+            return;
+        }
+        if (!sheetOpen) {
+            openSheet();
+        }
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zipOutputStream.closeArchiveEntry();
+        if (timed) {
+            metricsListener.onPhase(Phase.MAP, sheetMapNanos);
+        }
+        metricsListener.onSheet(sheetCount - 1, rowNum, sheetCells, 0, 0);
+        sheetStarted = false;
+        sheetOpen = false;
+        rowNum = 0;
+        sheetCells = 0;
+        sheetMapNanos = 0;
+    }
+
+    @Override
+    public int getSheetCount() {
+        return sheetCount + (sheetStarted && !sheetOpen ? 1 : 0);
+    }
+
+    @Override
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long start = System.nanoTime();
+        try {
+            closeSheet();
+            if (sheetCount == 0) {
+                // A workbook has at least one sheet
+                sheetStarted = true;
+                closeSheet();
+            }
+            writeEntry("[Content_Types].xml", this::writeContentTypes);
+            writeEntry("_rels/.rels", this::writePackageRelationships);
+            writeEntry("xl/workbook.xml", this::writeWorkbook);
+            writeEntry("xl/_rels/workbook.xml.rels", this::writeWorkbookRelationships);
+            writeEntry("xl/styles.xml", this::writeStyles);
+            if (sharedStrings != null) {
+                writeEntry("xl/sharedStrings.xml", this::writeSharedStrings);
+            }
+            zipOutputStream.finish();
+            countingOutputStream.flush();
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+        if (timed) {
+            metricsListener.onPhase(Phase.SERIALIZE, System.nanoTime() - start);
+        }
+        metricsListener.onBytesWritten(countingOutputStream.getCount());
+    }
+
+    /**
+     * Complete the sheets without the other parts of the package,
+     * the sheets are added to the package of another writer by {@link #addSheets(File, String)}.
+     */
+    void finishSheets() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            closeSheet();
+            if (sheetCount == 0) {
+                sheetStarted = true;
+                closeSheet();
+            }
+            zipOutputStream.finish();
+            countingOutputStream.flush();
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Copy the compressed sheets of the file written by {@link #finishSheets()} as the next sheets of this package,
+     * the sheets are not decompressed. The first sheet is given the name, the rolled over sheets get a number suffix.
+     * Must not be mixed with the rows written by this writer.
+     *
+     * @param file
+     * @param name
+     * @return number of the sheets
+     */
+    int addSheets(File file, String name) {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            List<ZipArchiveEntry> entries = Collections.list(zipFile.getEntriesInPhysicalOrder());
+            for (int i = 0; i < entries.size(); i++) {
+                String sheetName = getSheetName(name, i);
+                for (String existingName : sheetNames) {
+                    if (existingName.equalsIgnoreCase(sheetName)) {
+                        throw new IllegalArgumentException(String.format("Sheet name is duplicated, %s.", sheetName));
+                    }
+                }
+                ZipArchiveEntry entry = entries.get(i);
+                sheetCount++;
+                sheetNames.add(sheetName);
+                ZipArchiveEntry sheetEntry = new ZipArchiveEntry("xl/worksheets/sheet" + sheetCount + ".xml");
+                sheetEntry.setMethod(entry.getMethod());
+                sheetEntry.setCrc(entry.getCrc());
+                sheetEntry.setSize(entry.getSize());
+                sheetEntry.setCompressedSize(entry.getCompressedSize());
+                sheetEntry.setTime(entry.getTime());
+                try (InputStream inputStream = zipFile.getRawInputStream(entry)) {
+                    zipOutputStream.addRawArchiveEntry(sheetEntry, inputStream);
+                }
+            }
+            return entries.size();
+        } catch (IOException e) {
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Name of the rolled over sheet, e.g. Orders (2)
+     *
+     * @param name
+     * @param index
+     * @return
+     */
+    private static String getSheetName(String name, int index) {
+        if (index == 0) {
+            return name;
+        }
+        String suffix = " (" + (index + 1) + ")";
+        return StringUtils.left(name, MAX_SHEET_NAME_LENGTH - suffix.length()) + suffix;
+    }
+
+    private void writeEntry(String name, XmlPart part) throws IOException {
+        zipOutputStream.putArchiveEntry(new ZipArchiveEntry(name));
+        writer.write(XML_DECLARATION);
+        part.write();
+        writer.flush();
+        zipOutputStream.closeArchiveEntry();
+    }
+
+    private void writeContentTypes() throws IOException {
+        writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">");
+        writer.write("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>");
+        writer.write("<Default Extension=\"xml\" ContentType=\"application/xml\"/>");
+        writer.write("<Override PartName=\"/xl/workbook.xml\" ContentType=\"" + CONTENT_TYPE_PREFIX + "sheet.main+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" ContentType=\"" + CONTENT_TYPE_PREFIX + "worksheet+xml\"/>");
+        }
+        writer.write("<Override PartName=\"/xl/styles.xml\" ContentType=\"" + CONTENT_TYPE_PREFIX + "styles+xml\"/>");
+        if (sharedStrings != null) {
+            writer.write("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"" + CONTENT_TYPE_PREFIX + "sharedStrings+xml\"/>");
+        }
+        writer.write("</Types>");
+    }
+
+    private void writePackageRelationships() throws IOException {
+        writer.write("<Relationships xmlns=\"" + PACKAGE_RELATIONSHIP_NAMESPACE + "\">");
+        writer.write("<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIP_NAMESPACE + "/officeDocument\" Target=\"xl/workbook.xml\"/>");
+        writer.write("</Relationships>");
+    }
+
+    private void writeWorkbook() throws IOException {
+        writer.write("<workbook xmlns=\"" + MAIN_NAMESPACE + "\" xmlns:r=\"" + RELATIONSHIP_NAMESPACE + "\"><sheets>");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<sheet name=\"");
+            writeAttribute(sheetNames.get(i - 1));
+            writer.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+        }
+        writer.write("</sheets></workbook>");
+    }
+
+    private void writeWorkbookRelationships() throws IOException {
+        writer.write("<Relationships xmlns=\"" + PACKAGE_RELATIONSHIP_NAMESPACE + "\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            writer.write("<Relationship Id=\"rId" + i + "\" Type=\"" + RELATIONSHIP_NAMESPACE + "/worksheet\" Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        writer.write("<Relationship Id=\"rId" + (sheetCount + 1) + "\" Type=\"" + RELATIONSHIP_NAMESPACE + "/styles\" Target=\"styles.xml\"/>");
+        if (sharedStrings != null) {
+            writer.write("<Relationship Id=\"rId" + (sheetCount + 2) + "\" Type=\"" + RELATIONSHIP_NAMESPACE + "/sharedStrings\" Target=\"sharedStrings.xml\"/>");
+        }
+        writer.write("</Relationships>");
+    }
+
+    private void writeStyles() throws IOException {
+        int[] formatIds = new int[formats.size()];
+        List<String> customFormats = new ArrayList<>();
+        for (int i = 0; i < formats.size(); i++) {
+            int builtinFormat = BuiltinFormats.getBuiltinFormat(formats.get(i));
+            if (builtinFormat >= 0) {
+                formatIds[i] = builtinFormat;
+            } else {
+                formatIds[i] = FIRST_CUSTOM_FORMAT_ID + customFormats.size();
+                customFormats.add(formats.get(i));
+            }
+        }
+        writer.write("<styleSheet xmlns=\"" + MAIN_NAMESPACE + "\">");
+        if (!customFormats.isEmpty()) {
+            writer.write("<numFmts count=\"" + customFormats.size() + "\">");
+            for (int i = 0; i < customFormats.size(); i++) {
+                writer.write("<numFmt numFmtId=\"" + (FIRST_CUSTOM_FORMAT_ID + i) + "\" formatCode=\"");
+                writeAttribute(customFormats.get(i));
+                writer.write("\"/>");
+            }
+            writer.write("</numFmts>");
+        }
+        writer.write("<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font></fonts>");
+        writer.write("<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>");
+        writer.write("<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>");
+        writer.write("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>");
+        writer.write("<cellXfs count=\"" + (formats.size() + 1) + "\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>");
+        for (int formatId : formatIds) {
+            writer.write("<xf numFmtId=\"" + formatId + "\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>");
+        }
+        writer.write("</cellXfs>");
+        writer.write("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>");
+        writer.write("</styleSheet>");
+    }
+
+    private void writeSharedStrings() throws IOException {
+        writer.write("<sst xmlns=\"" + MAIN_NAMESPACE + "\" count=\"" + sharedStringCount + "\" uniqueCount=\"" + sharedStrings.size() + "\">");
+        for (String value : sharedStrings.keySet()) {
+            writer.write("<si>");
+            writeText(value);
+            writer.write("</si>");
+        }
+        writer.write("</sst>");
+    }
+
+    private void writeAttribute(String value) throws IOException {
+        writeEscaped(value, true);
+    }
+
+    /**
+     * Release the zip stream, the output stream is not closed.
+     */
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(zipOutputStream);
+    }
+
+    @FunctionalInterface
+    private interface XmlPart {
+
+        void write() throws IOException;
+    }
+}
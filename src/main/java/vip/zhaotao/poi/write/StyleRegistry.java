@@ -0,0 +1,87 @@
+package vip.zhaotao.poi.write;
+
+import com.google.common.collect.Maps;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.Map;
+
+/**
+ * Cell style registry of one workbook, each distinct combination of data format, font and alignment
+ * is created only once and shared by all cells using it.
+ *
+ * @author zhaotao
+ */
+public class StyleRegistry {
+
+    private final Workbook workbook;
+
+    private final DataFormat dataFormat;
+
+    private final Map<StyleKey, CellStyle> styles = Maps.newHashMap();
+
+    public StyleRegistry(Workbook workbook) {
+        this.workbook = workbook;
+        this.dataFormat = workbook.getCreationHelper().createDataFormat();
+    }
+
+    /**
+     * Get the style of the data format.
+     *
+     * @param format
+     * @return null if the format is blank, the default style is used
+     */
+    public CellStyle getStyle(String format) {
+        if (StringUtils.isBlank(format)) {
+            return null;
+        }
+        return getStyle(format, null, null);
+    }
+
+    /**
+     * Get the style of the data format, font and alignment.
+     *
+     * @param format    blank means general
+     * @param font      null means the default font
+     * @param alignment null means general
+     * @return
+     */
+    public CellStyle getStyle(String format, Font font, HorizontalAlignment alignment) {
+        StyleKey key = new StyleKey(StringUtils.defaultString(format), font == null ? -1 : font.getIndexAsInt(), alignment);
+        CellStyle cellStyle = styles.get(key);
+        if (cellStyle == null) {
+            cellStyle = workbook.createCellStyle();
+            if (StringUtils.isNotBlank(format)) {
+                cellStyle.setDataFormat(dataFormat.getFormat(format));
+            }
+            if (font != null) {
+                cellStyle.setFont(font);
+            }
+            if (alignment != null) {
+                cellStyle.setAlignment(alignment);
+            }
+            styles.put(key, cellStyle);
+        }
+        return cellStyle;
+    }
+
+    /**
+     * Number of styles created by this registry.
+     *
+     * @return
+     */
+    public int getCreatedStyleCount() {
+        return styles.size();
+    }
+
+    @Value
+    private static class StyleKey {
+
+        private String format;
+
+        private int fontIndex;
+
+        private HorizontalAlignment alignment;
+    }
+}
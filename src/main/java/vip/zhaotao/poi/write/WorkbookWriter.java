@@ -0,0 +1,301 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Lombok;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import vip.zhaotao.poi.crypt.EncryptedPackageOutputStream;
+import vip.zhaotao.poi.mapping.ColumnMapping;
+import vip.zhaotao.poi.mapping.RowMapper;
+import vip.zhaotao.poi.metrics.ExcelMetrics;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+import vip.zhaotao.poi.metrics.Phase;
+import vip.zhaotao.poi.util.ExcelUtils.Type;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Workbook writer, rows are appended one at a time and roll over to a new sheet with the header repeated
+ * when the sheet is full. For office open xml sheet only the row access window is kept in memory.
+ *
+ * @author zhaotao
+ */
+public class WorkbookWriter implements RowWriter {
+
+    private final Workbook workbook;
+
+    private final WriteOptions options;
+
+    /**
+     * Output stream of {@link #finish()}, null if the output stream is given to {@link #finish(OutputStream)}
+     */
+    private final OutputStream outputStream;
+
+    private final StyleRegistry styleRegistry;
+
+    /**
+     * Max number of data rows of one sheet
+     */
+    private final int maxRowsPerSheet;
+
+    private List<ColumnMapping> columns;
+
+    private CellStyle[] columnStyles;
+
+    private ColumnWidthTracker widthTracker;
+
+    private final ExcelMetricsListener metricsListener;
+
+    /**
+     * Whether the phases are timed, only if there is a listener
+     */
+    private final boolean timed;
+
+    /**
+     * Whether the current sheet is not complete yet
+     */
+    private boolean sheetOpen;
+
+    private long sheetCells;
+
+    private long sheetMapNanos;
+
+    private Sheet sheet;
+
+    private int rowNum;
+
+    public WorkbookWriter(Type type, WriteOptions options) {
+        this(type, null, options);
+    }
+
+    public WorkbookWriter(Type type, OutputStream outputStream, WriteOptions options) {
+        this.options = options;
+        this.outputStream = outputStream;
+        this.metricsListener = ExcelMetrics.getListener(options.getMetricsListener());
+        this.timed = metricsListener != ExcelMetricsListener.NOOP;
+        this.workbook = createWorkbook(type, options);
+        this.styleRegistry = new StyleRegistry(workbook);
+        // The header takes one row of each sheet
+        int typeMaxRows = getSpreadsheetVersion(type).getMaxRows() - 1;
+        Integer maxRows = options.getMaxRowsPerSheet();
+        this.maxRowsPerSheet = maxRows == null || maxRows <= 0 || maxRows > typeMaxRows ? typeMaxRows : maxRows;
+    }
+
+    private static Workbook createWorkbook(Type type, WriteOptions options) {
+        Workbook workbook = null;
+        switch (type) {
+            case MICROSOFT_EXCEL:
+                workbook = new HSSFWorkbook();
+                break;
+            case OFFICE_OPEN_XML_SHEET:
+                SXSSFWorkbook sxssfWorkbook = new SXSSFWorkbook(options.getRowAccessWindowSize());
+                sxssfWorkbook.setCompressTempFiles(options.isCompressTempFiles());
+                workbook = sxssfWorkbook;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported type of the workbook writer, %s.", type));
+        }
+        return workbook;
+    }
+
+    private static SpreadsheetVersion getSpreadsheetVersion(Type type) {
+        return type == Type.MICROSOFT_EXCEL ? SpreadsheetVersion.EXCEL97 : SpreadsheetVersion.EXCEL2007;
+    }
+
+    @Override
+    public void writeRow(Object t) {
+        writeRow(t.getClass(), t, null);
+    }
+
+    @Override
+    public void writeValues(Class<?> clazz, Object[] values) {
+        writeRow(clazz, null, values);
+    }
+
+    /**
+     * Write the row of the bean, or of the cell values if they are given.
+     *
+     * @param clazz
+     * @param t
+     * @param values
+     */
+    private void writeRow(Class<?> clazz, Object t, Object[] values) {
+        long start = timed ? System.nanoTime() : 0;
+        if (columns == null) {
+            initColumns(clazz);
+        }
+        if (sheet == null || rowNum >= maxRowsPerSheet) {
+            createSheet();
+        }
+        Row row = sheet.createRow(++rowNum);
+        widthTracker.nextRow();
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMapping column = columns.get(i);
+            int key = column.getNumber();
+            Cell cell;
+            if (values == null && column.isPrimitive() && column.isNumeric()) {
+                // Primitive number fields are read without boxing
+                cell = row.createCell(key);
+                cell.setCellValue(column.getDouble(t));
+            } else {
+                Object fieldValue = values == null ? column.get(t) : values[i];
+                if (fieldValue == null) {
+                    continue;
+                }
+                cell = row.createCell(key);
+                if (fieldValue instanceof Number) {
+                    cell.setCellValue(((Number) fieldValue).doubleValue());
+                } else if (fieldValue instanceof Date) {
+                    cell.setCellValue((Date) fieldValue);
+                    widthTracker.trackFormat(i);
+                } else if (fieldValue instanceof Boolean) {
+                    cell.setCellValue((Boolean) fieldValue);
+                } else {
+                    String text = fieldValue.toString();
+                    cell.setCellValue(text);
+                    widthTracker.track(i, text);
+                }
+            }
+            if (columnStyles[i] != null) {
+                cell.setCellStyle(columnStyles[i]);
+            }
+            sheetCells++;
+        }
+        if (timed) {
+            sheetMapNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void initColumns(Class<?> clazz) {
+        columns = RowMapper.of(clazz).getColumns();
+        // Resolve the style of each column before the rows, cells of the same format share one style
+        columnStyles = new CellStyle[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            columnStyles[i] = styleRegistry.getStyle(columns.get(i).getFormat());
+        }
+        widthTracker = new ColumnWidthTracker(columns, options.getWidthSampleRows());
+    }
+
+    private void createSheet() {
+        closeSheet();
+        sheet = workbook.createSheet();
+        sheet.setDefaultColumnWidth(options.getDefaultColumnWidth());
+        createHeader();
+        rowNum = 0;
+        sheetOpen = true;
+    }
+
+    /**
+     * Apply the column widths of the current sheet
+     */
+    private void closeSheet() {
+        if (!sheetOpen) {
+            return;
+        }
+        sheetOpen = false;
+        widthTracker.apply(sheet);
+        if (timed) {
+            metricsListener.onPhase(Phase.MAP, sheetMapNanos);
+        }
+        metricsListener.onSheet(workbook.getSheetIndex(sheet), rowNum, sheetCells, 0, 0);
+        sheetCells = 0;
+        sheetMapNanos = 0;
+    }
+
+    private void createHeader() {
+        Row row = sheet.createRow(0);
+        for (ColumnMapping column : columns) {
+            Cell cell = row.createCell(column.getNumber());
+            cell.setCellValue(column.getName());
+        }
+    }
+
+    /**
+     * Whether no row has been written.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return sheet == null;
+    }
+
+    @Override
+    public int getSheetCount() {
+        return workbook.getNumberOfSheets();
+    }
+
+    public StyleRegistry getStyleRegistry() {
+        return styleRegistry;
+    }
+
+    /**
+     * Write the workbook to the output stream, the output stream is not closed.
+     *
+     * @param outputStream
+     */
+    public void finish(OutputStream outputStream) {
+        closeSheet();
+        long start = System.nanoTime();
+        CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        try {
+            if (options.getPassword() == null) {
+                workbook.write(countingOutputStream);
+            } else if (workbook instanceof HSSFWorkbook) {
+                writeEncryptedRecords(countingOutputStream);
+            } else {
+                try (EncryptedPackageOutputStream encryptedOutputStream = new EncryptedPackageOutputStream(countingOutputStream, options.getPassword())) {
+                    // The workbook closes the stream of the package, which must stay open until it is encrypted
+                    workbook.write(new CountingOutputStream(encryptedOutputStream));
+                    encryptedOutputStream.finish();
+                }
+            }
+            if (timed) {
+                metricsListener.onPhase(Phase.SERIALIZE, System.nanoTime() - start);
+            }
+            metricsListener.onBytesWritten(countingOutputStream.getCount());
+        } catch (Throwable t) {
+            throw Lombok.sneakyThrow(t);
+        }
+    }
+
+    /**
+     * Write the workbook with the records encrypted, the key is taken from the password of the thread.
+     *
+     * @param outputStream
+     * @throws IOException
+     */
+    private void writeEncryptedRecords(OutputStream outputStream) throws IOException {
+        String threadPassword = Biff8EncryptionKey.getCurrentUserPassword();
+        Biff8EncryptionKey.setCurrentUserPassword(options.getPassword());
+        try {
+            workbook.write(outputStream);
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(threadPassword);
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (outputStream == null) {
+            throw new IllegalStateException("No output stream, use finish(OutputStream).");
+        }
+        finish(outputStream);
+    }
+
+    /**
+     * Release the workbook, the temp files of the office open xml sheet writer are deleted.
+     */
+    @Override
+    public void close() {
+        if (workbook instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+        IOUtils.closeQuietly(workbook);
+    }
+}
@@ -0,0 +1,86 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+
+import java.math.BigInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Write options
+ *
+ * @author zhaotao
+ */
+@Data
+@Accessors(chain = true)
+public class WriteOptions {
+
+    /**
+     * Default column width
+     */
+    private Integer defaultColumnWidth = BigInteger.TEN.intValue();
+
+    /**
+     * Number of rows kept in memory by the office open xml sheet writer, older rows are flushed to the temp file
+     */
+    private int rowAccessWindowSize = 100;
+
+    /**
+     * Whether the temp files of the office open xml sheet writer are gzip compressed
+     */
+    private boolean compressTempFiles = true;
+
+    /**
+     * Max number of data rows of one sheet, the header is not counted.
+     * When reached, the next rows are written to a new sheet with the header repeated.
+     * Null or a value over the limit of the file type means the limit of the file type.
+     */
+    private Integer maxRowsPerSheet;
+
+    /**
+     * Number of data rows of each sheet measured by the sampled column width mode
+     */
+    private int widthSampleRows = 100;
+
+    /**
+     * Zip compression level of the direct office open xml sheet writer, 0-9
+     */
+    private int compressionLevel = Deflater.BEST_SPEED;
+
+    /**
+     * Whether the direct office open xml sheet writer writes the strings to a shared strings table,
+     * otherwise the strings are written inline. The shared strings table is kept in memory.
+     */
+    private boolean useSharedStrings;
+
+    /**
+     * Number of threads mapping the beans to cell values in the pipelined mode, 0 writes on the calling thread.
+     * In the pipelined mode the cells are written and the file is serialized on one writer thread,
+     * while the calling thread only takes the rows from the data source.
+     */
+    private int mappingThreads;
+
+    /**
+     * Number of rows of one batch of the pipelined mode
+     */
+    private int pipelineBatchSize = 512;
+
+    /**
+     * Max number of batches queued for the writer thread in the pipelined mode,
+     * the calling thread stops taking rows from the data source while the queue is full
+     */
+    private int pipelineCapacity = 8;
+
+    /**
+     * Password of the encrypted file, null writes a plain file. Office open xml sheet files are encrypted
+     * with the agile encryption in chunks through a temp file, microsoft excel files with the RC4 encryption
+     * of the records. Delimited text files can not be encrypted.
+     */
+    private String password;
+
+    /**
+     * Metrics listener of this write, in addition to the global listeners
+     */
+    private ExcelMetricsListener metricsListener;
+}
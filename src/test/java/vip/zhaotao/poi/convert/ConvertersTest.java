@@ -0,0 +1,161 @@
+package vip.zhaotao.poi.convert;
+
+import lombok.Data;
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbook;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ConvertersTest {
+
+    @Test
+    public void numeric() {
+        Assert.assertEquals(Integer.valueOf(12), Converters.get(int.class).fromNumeric(12d));
+        Assert.assertEquals(Byte.valueOf((byte) -128), Converters.get(Byte.class).fromNumeric(-128d));
+        Assert.assertEquals(Long.valueOf(1234567890123L), Converters.get(Long.class).fromNumeric(1234567890123d));
+        Assert.assertEquals(Float.valueOf(0.5f), Converters.get(float.class).fromNumeric(0.5d));
+        Assert.assertEquals(Integer.valueOf(1000), Converters.get(Integer.class).fromString(" 1E3 "));
+        Assert.assertNull(Converters.get(Integer.class).fromString(" "));
+        Assert.assertEquals("12.5", Converters.get(String.class).fromNumeric(12.5d));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void invalidNumber() {
+        Converters.get(Integer.class).fromString("abc");
+    }
+
+    @Test
+    public void narrowing() {
+        // Fractional values
+        this.assertInvalid(() -> Converters.get(Integer.class).fromNumeric(1.5d));
+        this.assertInvalid(() -> Converters.get(Integer.class).fromString("1.5"));
+        this.assertInvalid(() -> Converters.get(Long.class).fromNumeric(Double.NaN));
+        // Values out of the range, which the cast would wrap
+        this.assertInvalid(() -> Converters.get(Byte.class).fromNumeric(300d));
+        this.assertInvalid(() -> Converters.get(Byte.class).fromString("300"));
+        this.assertInvalid(() -> Converters.get(Byte.class).fromNumeric(128d));
+        this.assertInvalid(() -> Converters.get(Short.class).fromString("40000"));
+        this.assertInvalid(() -> Converters.get(Integer.class).fromNumeric(1e10d));
+        this.assertInvalid(() -> Converters.get(Integer.class).fromString("4294967297"));
+        this.assertInvalid(() -> Converters.get(Long.class).fromNumeric(9.3e18d));
+        Assert.assertEquals(Long.valueOf(Long.MIN_VALUE), Converters.get(Long.class).fromNumeric((double) Long.MIN_VALUE));
+        Assert.assertEquals(Integer.valueOf(Integer.MAX_VALUE), Converters.get(Integer.class).fromString("2147483647.0"));
+    }
+
+    private void assertInvalid(Runnable conversion) {
+        try {
+            conversion.run();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected, not a NumberFormatException of the parse
+            Assert.assertEquals(IllegalArgumentException.class, e.getClass());
+        }
+    }
+
+    @Test
+    public void temporalAndEnum() {
+        Assert.assertEquals(LocalDate.of(2019, 1, 2), Converters.get(LocalDate.class).fromString("2019-01-02"));
+        Assert.assertEquals(LocalDateTime.of(2019, 1, 2, 3, 4, 5), Converters.get(LocalDateTime.class).fromString("2019-01-02 03:04:05"));
+        Assert.assertEquals(Instant.ofEpochSecond(1), Converters.get(Instant.class).fromDate(new Date(1000)));
+        Assert.assertEquals(TimeUnit.SECONDS, Converters.get(TimeUnit.class).fromString("SECONDS"));
+        Assert.assertSame(Converters.get(TimeUnit.class), Converters.get(TimeUnit.class));
+    }
+
+    @Test
+    public void readWithConverters() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            byte[] bytes = this.getTestFile(xssf);
+            List<ConvertedRow> list = ExcelUtils.read(new ByteArrayInputStream(bytes), ConvertedRow.class);
+            List<ConvertedRow> streamList = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery(), ConvertedRow.class);
+            Assert.assertEquals(list, streamList);
+            ConvertedRow row = list.get(0);
+            Assert.assertEquals(7, row.getCount());
+            Assert.assertEquals(LocalDate.of(2019, 1, 2), row.getDay());
+            Assert.assertEquals(TimeUnit.MINUTES, row.getUnit());
+            Assert.assertEquals(Boolean.TRUE, row.getFlag());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void numericDate1904() {
+        Assert.assertEquals(LocalDate.of(2019, 1, 1), Converters.get(LocalDate.class).fromNumeric(43466d));
+        Assert.assertEquals(LocalDate.of(2023, 1, 2), Converters.get(LocalDate.class).fromNumeric(43466d, true));
+        // Plain numeric cell of a workbook whose dates count from 1904
+        byte[] bytes;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            CTWorkbook ctWorkbook = workbook.getCTWorkbook();
+            (ctWorkbook.isSetWorkbookPr() ? ctWorkbook.getWorkbookPr() : ctWorkbook.addNewWorkbookPr()).setDate1904(true);
+            Row header = workbook.createSheet().createRow(0);
+            header.createCell(0).setCellValue("Count");
+            header.createCell(1).setCellValue("Day");
+            Row row = workbook.getSheetAt(0).createRow(1);
+            row.createCell(0).setCellValue(7);
+            row.createCell(1).setCellValue(43466);
+            workbook.write(outputStream);
+            bytes = outputStream.toByteArray();
+        }
+        List<ConvertedRow> list = ExcelUtils.read(new ByteArrayInputStream(bytes), ConvertedRow.class);
+        List<ConvertedRow> streamList = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery(), ConvertedRow.class);
+        Assert.assertEquals(LocalDate.of(2023, 1, 2), list.get(0).getDay());
+        Assert.assertEquals(list, streamList);
+    }
+
+    @SneakyThrows
+    private byte[] getTestFile(boolean xssf) {
+        try (Workbook workbook = WorkbookFactory.create(xssf); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            Row header = workbook.createSheet().createRow(0);
+            header.createCell(0).setCellValue("Count");
+            header.createCell(1).setCellValue("Day");
+            header.createCell(2).setCellValue("Unit");
+            header.createCell(3).setCellValue("Flag");
+            Row row = workbook.getSheetAt(0).createRow(1);
+            row.createCell(0).setCellValue(7);
+            row.createCell(1).setCellValue("2019-01-02");
+            row.createCell(2).setCellValue("MINUTES");
+            row.createCell(3).setCellValue("Y");
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    @Data
+    public static class ConvertedRow {
+
+        @ExcelColumn(name = "Count")
+        private int count;
+
+        @ExcelColumn(name = "Day", number = 1)
+        private LocalDate day;
+
+        @ExcelColumn(name = "Unit", number = 2)
+        private TimeUnit unit;
+
+        @ExcelColumn(name = "Flag", number = 3, converter = YesNoConverter.class)
+        private Boolean flag;
+    }
+
+    public static class YesNoConverter implements CellConverter<Boolean> {
+
+        @Override
+        public Boolean fromString(String value) {
+            return "Y".equals(value);
+        }
+    }
+}
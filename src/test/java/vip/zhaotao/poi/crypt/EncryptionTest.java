@@ -0,0 +1,80 @@
+package vip.zhaotao.poi.crypt;
+
+import com.google.common.collect.Maps;
+import lombok.SneakyThrows;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.excel.TestExcels;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+public class EncryptionTest {
+
+    private static final String PASSWORD = "p@ssw0rd";
+
+    @Test
+    @SneakyThrows
+    public void writeAndRead() {
+        List<TestExcel> dataList = TestExcels.rows(300);
+        for (ExcelUtils.Type type : new ExcelUtils.Type[]{ExcelUtils.Type.MICROSOFT_EXCEL, ExcelUtils.Type.OFFICE_OPEN_XML_SHEET,
+                ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT}) {
+            for (int mappingThreads : new int[]{0, 2}) {
+                byte[] bytes = this.write(type, dataList, new WriteOptions().setPassword(PASSWORD).setMappingThreads(mappingThreads));
+                List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery().password(PASSWORD), TestExcel.class);
+                Assert.assertEquals(type.name(), dataList, list);
+                // Readable by the usermodel, as by excel
+                try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(bytes), PASSWORD)) {
+                    Assert.assertEquals("row299", workbook.getSheetAt(0).getRow(300).getCell(1).getStringCellValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void wrongPassword() {
+        for (ExcelUtils.Type type : new ExcelUtils.Type[]{ExcelUtils.Type.MICROSOFT_EXCEL, ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT}) {
+            byte[] bytes = this.write(type, TestExcels.rows(10), new WriteOptions().setPassword(PASSWORD));
+            for (String password : new String[]{null, "wrong"}) {
+                try {
+                    ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery().password(password), TestExcel.class);
+                    Assert.fail();
+                } catch (EncryptedDocumentException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writeSheets() {
+        Map<String, List<?>> sheets = Maps.newLinkedHashMap();
+        sheets.put("First", TestExcels.rows(50));
+        sheets.put("Second", TestExcels.rows(20));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.writeSheets(outputStream, sheets, new WriteOptions().setPassword(PASSWORD));
+        List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(outputStream.toByteArray()),
+                new ReadQuery().sheets("Second").password(PASSWORD), TestExcel.class);
+        Assert.assertEquals(TestExcels.rows(20), list);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void delimited() {
+        this.write(ExcelUtils.Type.CSV, TestExcels.rows(10), new WriteOptions().setPassword(PASSWORD));
+    }
+
+    private byte[] write(ExcelUtils.Type type, List<TestExcel> dataList, WriteOptions options) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(type, outputStream, dataList.iterator(), options);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,143 @@
+package vip.zhaotao.poi.engine;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.excel.TestExcels;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ExcelEngineTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    @SneakyThrows
+    public void writeAndRead() {
+        File tempDirectory = temporaryFolder.newFolder();
+        ExcelEngine engine = new ExcelEngine(new EngineConfig().setTempDirectory(tempDirectory).setBufferSize(1024));
+        List<TestExcel> dataList = TestExcels.rows(500);
+        for (ExcelUtils.Type type : ExcelUtils.Type.values()) {
+            CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+            engine.write(type, outputStream, dataList.iterator(), new WriteOptions().setRowAccessWindowSize(10));
+            Assert.assertFalse(outputStream.closed);
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+            Assert.assertEquals(type.name(), dataList, engine.read(inputStream, type, new ReadQuery(), TestExcel.class));
+            // Temp files of the workbooks are deleted when the operations end
+            Assert.assertArrayEquals(new String[0], tempDirectory.list());
+        }
+
+        Map<String, List<?>> sheets = Maps.newLinkedHashMap();
+        sheets.put("First", dataList);
+        sheets.put("Second", TestExcels.rows(10));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        engine.writeSheets(outputStream, sheets, new WriteOptions());
+        List<TestExcel> list = engine.read(new ByteArrayInputStream(outputStream.toByteArray()), new ReadQuery().sheets("Second"), TestExcel.class);
+        Assert.assertEquals(TestExcels.rows(10), list);
+        Assert.assertArrayEquals(new String[0], tempDirectory.list());
+        Assert.assertEquals(0, engine.getRunningOperations());
+    }
+
+    @Test
+    @SneakyThrows
+    public void admission() {
+        ExcelEngine engine = new ExcelEngine(new EngineConfig().setTempDirectory(temporaryFolder.newFolder())
+                .setMaxConcurrentOperations(1).setMaxQueuedOperations(1).setQueueTimeoutMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Iterator<TestExcel> rows = TestExcels.rows(10).iterator();
+        // Blocks when the row is taken, after the operation has been admitted
+        Iterator<TestExcel> blocking = new Iterator<TestExcel>() {
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            @SneakyThrows
+            public TestExcel next() {
+                started.countDown();
+                release.await();
+                return rows.next();
+            }
+        };
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() ->
+                engine.write(ExcelUtils.Type.CSV, new ByteArrayOutputStream(), blocking, new WriteOptions()));
+        started.await();
+        Assert.assertEquals(1, engine.getRunningOperations());
+        // The queued operation gives up after the queue timeout
+        try {
+            engine.write(ExcelUtils.Type.CSV, new ByteArrayOutputStream(), TestExcels.rows(1).iterator(), new WriteOptions());
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        release.countDown();
+        running.join();
+        Assert.assertEquals(0, engine.getRunningOperations());
+        engine.write(ExcelUtils.Type.CSV, new ByteArrayOutputStream(), TestExcels.rows(1).iterator(), new WriteOptions());
+        engine.close();
+        try {
+            engine.write(ExcelUtils.Type.CSV, new ByteArrayOutputStream(), TestExcels.rows(1).iterator(), new WriteOptions());
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = UncheckedTimeoutException.class)
+    @SneakyThrows
+    public void operationTimeout() {
+        ExcelEngine engine = new ExcelEngine(new EngineConfig().setTempDirectory(temporaryFolder.newFolder()).setOperationTimeoutMillis(50));
+        Iterator<TestExcel> slow = TestExcels.rows(1000).stream().peek(t -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).iterator();
+        engine.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, new ByteArrayOutputStream(), slow, new WriteOptions());
+    }
+
+    @Test
+    @SneakyThrows
+    public void diskQuota() {
+        File tempDirectory = temporaryFolder.newFolder();
+        ExcelEngine engine = new ExcelEngine(new EngineConfig().setTempDirectory(tempDirectory).setDiskQuota(64 * 1024));
+        try {
+            engine.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, new ByteArrayOutputStream(), TestExcels.rows(5000).iterator(),
+                    new WriteOptions().setRowAccessWindowSize(10).setCompressTempFiles(false));
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Disk quota"));
+        }
+        Assert.assertArrayEquals(new String[0], tempDirectory.list());
+        Assert.assertEquals(0, engine.getDiskUsage());
+    }
+
+    private static class CloseTrackingOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package vip.zhaotao.poi.excel;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Test data of {@link TestExcel}
+ *
+ * @author zhaotao
+ */
+public final class TestExcels {
+
+    private TestExcels() {
+    }
+
+    /**
+     * Rows which survive a write and read of every file type, the row number is in the string, short, integer,
+     * long and double values.
+     *
+     * @param count
+     * @return
+     */
+    public static List<TestExcel> rows(int count) {
+        Date date = new Date(1546398245000L);
+        return IntStream.range(0, count).mapToObj(i -> new TestExcel('A', "row" + i, (byte) 1, (short) i, i, 3000000000000L + i,
+                0.5f, i + 0.5d, date, i % 2 == 0, new BigDecimal("3.14"))).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,194 @@
+package vip.zhaotao.poi.mapping;
+
+import lombok.Data;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class RowMapperTest {
+
+    @Test
+    public void cached() {
+        Assert.assertSame(RowMapper.of(TestExcel.class), RowMapper.of(TestExcel.class));
+        RowMapper.warmUp(TestExcel.class, PrimitiveExcel.class);
+        Assert.assertSame(RowMapper.of(PrimitiveExcel.class), RowMapper.of(PrimitiveExcel.class));
+    }
+
+    @Test
+    public void columns() {
+        List<ColumnMapping> columns = RowMapper.of(TestExcel.class).getColumns();
+        Assert.assertEquals(11, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Assert.assertEquals(i, columns.get(i).getNumber());
+        }
+        Assert.assertEquals(ColumnMapping.DEFAULT_DATE_FORMAT, RowMapper.of(PrimitiveExcel.class).getColumnNameMap().get("Date").getFormat());
+    }
+
+    @Test
+    public void primitiveAccess() {
+        RowMapper<PrimitiveExcel> rowMapper = RowMapper.of(PrimitiveExcel.class);
+        PrimitiveExcel primitiveExcel = rowMapper.newInstance();
+        ColumnMapping intColumn = rowMapper.getColumnNameMap().get("int");
+        intColumn.setDouble(primitiveExcel, 12.9d);
+        Assert.assertEquals(12, primitiveExcel.getIntValue());
+        Assert.assertEquals(12d, intColumn.getDouble(primitiveExcel), 0d);
+
+        ColumnMapping longColumn = rowMapper.getColumnNameMap().get("Long");
+        longColumn.setLong(primitiveExcel, 42L);
+        Assert.assertEquals(Long.valueOf(42L), primitiveExcel.getLongValue());
+
+        rowMapper.getColumnNameMap().get("boolean").setBoolean(primitiveExcel, true);
+        Assert.assertTrue(primitiveExcel.isBooleanValue());
+        Assert.assertFalse(rowMapper.getColumnNameMap().get("Date").isNumeric());
+    }
+
+    @Test
+    public void setNumeric() {
+        RowMapper<PrimitiveExcel> rowMapper = RowMapper.of(PrimitiveExcel.class);
+        PrimitiveExcel primitiveExcel = rowMapper.newInstance();
+        ColumnMapping intColumn = rowMapper.getColumnNameMap().get("int");
+        ColumnMapping longColumn = rowMapper.getColumnNameMap().get("Long");
+        Assert.assertTrue(intColumn.isDirectNumeric());
+        Assert.assertFalse(rowMapper.getColumnNameMap().get("boolean").isDirectNumeric());
+        Assert.assertTrue(rowMapper.getColumnNameMap().get("boolean").isDirectBoolean());
+        intColumn.setNumeric(primitiveExcel, -7d);
+        longColumn.setNumeric(primitiveExcel, 3000000000000d);
+        Assert.assertEquals(-7, primitiveExcel.getIntValue());
+        Assert.assertEquals(Long.valueOf(3000000000000L), primitiveExcel.getLongValue());
+        // Narrowed like the converters, fractional values and values out of the range are rejected
+        for (double value : new double[]{12.5d, 1e10d, Double.NaN}) {
+            try {
+                intColumn.setNumeric(primitiveExcel, value);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals(-7, primitiveExcel.getIntValue());
+            }
+        }
+    }
+
+    @Test
+    public void nonPublicClass() {
+        RowMapper<HiddenExcel> rowMapper = RowMapper.of(HiddenExcel.class);
+        HiddenExcel hiddenExcel = rowMapper.newInstance();
+        rowMapper.getColumns().get(0).set(hiddenExcel, "value");
+        Assert.assertEquals("value", hiddenExcel.value);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void duplicateName() {
+        RowMapper<DuplicateExcel> rowMapper = RowMapper.of(DuplicateExcel.class);
+        Assert.assertEquals(2, rowMapper.getColumns().size());
+        rowMapper.getColumnNameMap();
+    }
+
+    @Test
+    public void intern() {
+        StringBuilder text = new StringBuilder("Status,Currency,Code\n");
+        for (int i = 0; i < 100; i++) {
+            text.append(i % 2 == 0 ? "OPEN" : "CLOSED").append(',').append(i % 3 == 0 ? "EUR" : "USD").append(',').append("C").append(i).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        List<InternExcel> list = ExcelUtils.read(new ByteArrayInputStream(bytes), ExcelUtils.Type.CSV, new ReadQuery(), InternExcel.class);
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(Status.CLOSED, list.get(99).getStatus());
+        Assert.assertEquals("EUR", list.get(99).getCurrency());
+        // Each row is parsed into a new text, the interned values are the same instances
+        Assert.assertSame(list.get(0).getCurrency(), list.get(3).getCurrency());
+        Assert.assertSame(list.get(1).getCurrency(), list.get(98).getCurrency());
+        Assert.assertNotSame(list.get(0).getCode(), list.get(0).getCurrency());
+        // Each read has its own dictionary, the values of the previous read are not kept by the cached mapping
+        List<InternExcel> nextList = ExcelUtils.read(new ByteArrayInputStream(bytes), ExcelUtils.Type.CSV, new ReadQuery(), InternExcel.class);
+        Assert.assertEquals(list.get(0).getCurrency(), nextList.get(0).getCurrency());
+        Assert.assertNotSame(list.get(0).getCurrency(), nextList.get(0).getCurrency());
+
+        Map<String, ColumnMapping> columnNameMap = RowMapper.of(InternExcel.class).getColumnNameMap();
+        Assert.assertTrue(columnNameMap.get("Currency").isInterned());
+        Assert.assertFalse(columnNameMap.get("Code").isInterned());
+        Assert.assertNull(columnNameMap.get("Code").newDictionary());
+        // The dictionary is bounded, a column of many distinct values stops growing
+        ColumnMapping limited = RowMapper.of(LimitedInternExcel.class).getColumns().get(0);
+        ValueDictionary dictionary = limited.newDictionary();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("value" + i, limited.convert("value" + i, dictionary));
+        }
+        Assert.assertEquals(10, dictionary.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void internNumber() {
+        RowMapper.of(InvalidInternExcel.class);
+    }
+
+    @Data
+    public static class PrimitiveExcel {
+
+        @ExcelColumn(name = "int", number = 0)
+        private int intValue;
+
+        @ExcelColumn(name = "Long", number = 1)
+        private Long longValue;
+
+        @ExcelColumn(name = "boolean", number = 2)
+        private boolean booleanValue;
+
+        @ExcelColumn(name = "Date", number = 3)
+        private java.util.Date dateValue;
+    }
+
+    static class HiddenExcel {
+
+        @ExcelColumn(name = "Value")
+        private String value;
+
+        private HiddenExcel() {
+        }
+    }
+
+    public static class DuplicateExcel {
+
+        @ExcelColumn(name = "Value", number = 0)
+        private String first;
+
+        @ExcelColumn(name = "Value", number = 1)
+        private String second;
+    }
+
+    public enum Status {
+        OPEN, CLOSED
+    }
+
+    @Data
+    public static class InternExcel {
+
+        @ExcelColumn(name = "Status", number = 0, intern = true)
+        private Status status;
+
+        @ExcelColumn(name = "Currency", number = 1, intern = true)
+        private String currency;
+
+        @ExcelColumn(name = "Code", number = 2)
+        private String code;
+    }
+
+    @Data
+    public static class LimitedInternExcel {
+
+        @ExcelColumn(name = "Value", intern = true, internLimit = 10)
+        private String value;
+    }
+
+    @Data
+    public static class InvalidInternExcel {
+
+        @ExcelColumn(name = "Value", intern = true)
+        private Integer value;
+    }
+}
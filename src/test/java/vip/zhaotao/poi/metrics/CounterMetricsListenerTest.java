@@ -0,0 +1,111 @@
+package vip.zhaotao.poi.metrics;
+
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.stream.IntStream;
+
+public class CounterMetricsListenerTest {
+
+    @Test
+    public void write() {
+        CounterMetricsListener listener = new CounterMetricsListener();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, outputStream, IntStream.range(0, 150).mapToObj(i ->
+                        new TestExcel('A', "row" + i, (byte) 1, (short) 1, i, (long) i, 1f, 1d, new Date(), Boolean.TRUE, BigDecimal.ONE)),
+                new WriteOptions().setMaxRowsPerSheet(100).setMetricsListener(listener));
+        Assert.assertEquals(150, listener.getRows());
+        Assert.assertEquals(150 * 11, listener.getCells());
+        Assert.assertEquals(outputStream.size(), listener.getBytesWritten());
+        Assert.assertTrue(listener.getPhaseNanos(Phase.MAP) > 0);
+        Assert.assertTrue(listener.getPhaseNanos(Phase.SERIALIZE) > 0);
+    }
+
+    @Test
+    public void readSparseSheet() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            byte[] bytes = this.getSparseFile(xssf);
+            CounterMetricsListener listener = new CounterMetricsListener();
+            Assert.assertEquals(10, ExcelUtils.read(new ByteArrayInputStream(bytes), null, 1, TestExcel.class, listener).size());
+            Assert.assertEquals(10, listener.getRows());
+            Assert.assertEquals(15, listener.getCells());
+            Assert.assertEquals(5, listener.getEmptyCells(0));
+            Assert.assertTrue(listener.getPhaseNanos(Phase.OPEN) > 0);
+
+            CounterMetricsListener globalListener = new CounterMetricsListener();
+            ExcelMetrics.register(globalListener);
+            try {
+                listener = new CounterMetricsListener();
+                Assert.assertEquals(10, ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery().metricsListener(listener), TestExcel.class).size());
+            } finally {
+                ExcelMetrics.unregister(globalListener);
+            }
+            for (CounterMetricsListener counters : new CounterMetricsListener[]{listener, globalListener}) {
+                Assert.assertEquals(10, counters.getRows());
+                Assert.assertEquals(15, counters.getCells());
+                Assert.assertEquals(5, counters.getEmptyCells(0));
+                Assert.assertEquals(0, counters.getErrors());
+                Assert.assertTrue(counters.getRowsPerSecond() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void readError() {
+        CounterMetricsListener listener = new CounterMetricsListener();
+        try {
+            ExcelUtils.read(new ByteArrayInputStream(this.getInvalidFile()), new ReadQuery().metricsListener(listener), TestExcel.class);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals(1, listener.getErrors(0));
+        }
+    }
+
+    /**
+     * Ten rows of two columns, the second column of every other row is empty
+     *
+     * @return
+     */
+    @SneakyThrows
+    private byte[] getSparseFile(boolean xssf) {
+        try (Workbook workbook = WorkbookFactory.create(xssf); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("String");
+            header.createCell(1).setCellValue("Integer");
+            for (int rowNum = 1; rowNum <= 10; rowNum++) {
+                Row row = sheet.createRow(rowNum);
+                row.createCell(0).setCellValue("row" + rowNum);
+                if (rowNum % 2 == 0) {
+                    row.createCell(1).setCellValue(rowNum);
+                }
+            }
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    @SneakyThrows
+    private byte[] getInvalidFile() {
+        try (Workbook workbook = WorkbookFactory.create(true); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("Integer");
+            sheet.createRow(1).createCell(0).setCellValue("abc");
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+}
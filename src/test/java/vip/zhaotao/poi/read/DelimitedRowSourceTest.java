@@ -0,0 +1,66 @@
+package vip.zhaotao.poi.read;
+
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DelimitedRowSourceTest {
+
+    @Test
+    public void tokenize() {
+        String text = "\uFEFFa,\"b,\"\"quoted\"\"\r\nline\",c\r\n\r\n1,,3\n\"\",x\r4";
+        DelimitedRowSource rowSource = new DelimitedRowSource(Channels.newChannel(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), ',');
+        Assert.assertTrue(rowSource.nextRow());
+        Assert.assertEquals(0, rowSource.getRowNum());
+        Assert.assertEquals(3, rowSource.getCellCount());
+        Assert.assertEquals("a", rowSource.getValue(0));
+        Assert.assertEquals("b,\"quoted\"\r\nline", rowSource.getValue(1));
+        Assert.assertTrue(rowSource.nextRow());
+        // The empty record is skipped, the empty field is a missing cell
+        Assert.assertEquals(2, rowSource.getRowNum());
+        Assert.assertEquals(2, rowSource.getCellCount());
+        Assert.assertEquals(2, rowSource.getColumn(1));
+        Assert.assertEquals("C3", rowSource.getReference(1));
+        Assert.assertTrue(rowSource.nextRow());
+        Assert.assertEquals(1, rowSource.getCellCount());
+        Assert.assertEquals(1, rowSource.getColumn(0));
+        Assert.assertTrue(rowSource.nextRow());
+        Assert.assertEquals("4", rowSource.getValue(0));
+        Assert.assertFalse(rowSource.nextRow());
+        rowSource.close();
+    }
+
+    @Test
+    public void writeAndRead() {
+        Date date = new Date(1546398245000L);
+        List<TestExcel> dataList = IntStream.range(0, 20000).mapToObj(i -> new TestExcel('A', i % 2 == 0 ? "row, \"" + i + "\"" : "中文" + i,
+                (byte) 1, (short) -2, i, Long.MAX_VALUE - i, 0.1f, i + 0.25d, date, i % 3 == 0, new BigDecimal("3.14")))
+                .collect(Collectors.toList());
+        for (ExcelUtils.Type type : new ExcelUtils.Type[]{ExcelUtils.Type.CSV, ExcelUtils.Type.TSV}) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(type, outputStream, dataList);
+            byte[] bytes = outputStream.toByteArray();
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(bytes), type, new ReadQuery(), TestExcel.class);
+            Assert.assertEquals(dataList, list);
+
+            List<TestExcel> projected = ExcelUtils.read(new ByteArrayInputStream(bytes), type,
+                    new ReadQuery().columns("String", "Long").where("Integer", value -> (Integer) value >= 19990), TestExcel.class);
+            Assert.assertEquals(10, projected.size());
+            Assert.assertEquals("中文" + 19999, projected.get(9).getStringValue());
+            Assert.assertEquals(Long.valueOf(Long.MAX_VALUE - 19999), projected.get(9).getLongValue());
+            Assert.assertNull(projected.get(9).getIntegerValue());
+        }
+    }
+}
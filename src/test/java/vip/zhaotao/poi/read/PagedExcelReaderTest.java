@@ -0,0 +1,71 @@
+package vip.zhaotao.poi.read;
+
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.excel.TestExcels;
+import vip.zhaotao.poi.util.ExcelUtils;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+public class PagedExcelReaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void readPages() {
+        List<TestExcel> dataList = TestExcels.rows(2500);
+        for (ExcelUtils.Type type : new ExcelUtils.Type[]{ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT}) {
+            File file = this.writeFile(type, dataList, new WriteOptions().setMaxRowsPerSheet(2000));
+            try (PagedExcelReader reader = PagedExcelReader.open(file, new File(file.getPath() + ".idx"), 128)) {
+                Assert.assertEquals(2, reader.getNumberOfSheets());
+                Assert.assertEquals(2000, reader.getRowCount(0));
+                Assert.assertEquals(500, reader.getRowCount(1));
+                Assert.assertEquals(500, reader.getLastRowNum(1));
+                // The data rows start from row 1
+                Assert.assertEquals(dataList.subList(0, 20), reader.read(0, 0, 20, TestExcel.class));
+                Assert.assertEquals(dataList.subList(1299, 1349), reader.read(0, 1300, 50, TestExcel.class));
+                Assert.assertEquals(dataList.subList(1990, 2000), reader.read(0, 1991, 50, TestExcel.class));
+                Assert.assertEquals(dataList.subList(2256, 2306), reader.read(1, 257, 50, TestExcel.class));
+                Assert.assertTrue(reader.read(1, 600, 50, TestExcel.class).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void reuseIndexFile() {
+        List<TestExcel> dataList = TestExcels.rows(1000);
+        File file = this.writeFile(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, dataList, new WriteOptions());
+        File indexFile = new File(file.getPath() + PagedExcelReader.INDEX_FILE_SUFFIX);
+        try (PagedExcelReader reader = PagedExcelReader.open(file)) {
+            Assert.assertEquals(dataList.subList(500, 510), reader.read(0, 501, 10, TestExcel.class));
+        }
+        Assert.assertTrue(indexFile.isFile());
+        long lastModified = indexFile.lastModified();
+        long length = indexFile.length();
+        try (PagedExcelReader reader = PagedExcelReader.open(file)) {
+            Assert.assertEquals(dataList.subList(999, 1000), reader.read(0, 1000, 10, TestExcel.class));
+        }
+        Assert.assertEquals(lastModified, indexFile.lastModified());
+        // Another interval indexes the workbook again
+        try (PagedExcelReader reader = PagedExcelReader.open(file, indexFile, 10)) {
+            Assert.assertEquals(dataList.subList(123, 133), reader.read(0, 124, 10, TestExcel.class));
+        }
+        Assert.assertTrue(indexFile.length() > length);
+    }
+
+    @SneakyThrows
+    private File writeFile(ExcelUtils.Type type, List<TestExcel> dataList, WriteOptions options) {
+        File file = temporaryFolder.newFile();
+        ExcelUtils.write(type, new FileOutputStream(file), dataList.iterator(), options);
+        return file;
+    }
+}
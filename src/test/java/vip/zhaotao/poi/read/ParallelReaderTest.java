@@ -0,0 +1,77 @@
+package vip.zhaotao.poi.read;
+
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+import vip.zhaotao.poi.write.WriteOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class ParallelReaderTest {
+
+    private static final int ROW_COUNT = 500;
+
+    @Test
+    @SneakyThrows
+    public void readOrdered() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelReader parallelReader = new ParallelReader(executor, 2);
+            List<InputStream> inputStreams = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                inputStreams.add(new ByteArrayInputStream(this.getTestFile(i % 2 == 0 ? ExcelUtils.Type.OFFICE_OPEN_XML_SHEET : ExcelUtils.Type.MICROSOFT_EXCEL)));
+            }
+            List<TestExcel> list = parallelReader.read(inputStreams, 1, TestExcel.class);
+            Assert.assertEquals(6 * ROW_COUNT, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                // Sheets and files in order
+                Assert.assertEquals("row" + i % ROW_COUNT, list.get(i).getStringValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void readUnordered() {
+        ParallelReader parallelReader = new ParallelReader(1);
+        List<InputStream> inputStreams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inputStreams.add(new ByteArrayInputStream(this.getTestFile(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET)));
+        }
+        AtomicInteger count = new AtomicInteger();
+        parallelReader.read(inputStreams, 1, TestExcel.class, testExcel -> count.incrementAndGet());
+        Assert.assertEquals(3 * ROW_COUNT, count.get());
+    }
+
+    @Test(expected = Exception.class)
+    public void readInvalidFile() {
+        new ParallelReader(1).read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), 1, TestExcel.class);
+    }
+
+    /**
+     * Five sheets of 100 rows
+     *
+     * @param type
+     * @return
+     */
+    private byte[] getTestFile(ExcelUtils.Type type) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(type, outputStream, IntStream.range(0, ROW_COUNT).mapToObj(i ->
+                        new TestExcel('A', "row" + i, (byte) 1, (short) 1, i, (long) i, 1f, 1d, new Date(), Boolean.TRUE, BigDecimal.ONE)),
+                new WriteOptions().setMaxRowsPerSheet(100));
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package vip.zhaotao.poi.read;
+
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+public class ReadQueryTest {
+
+    private static final int ROW_COUNT = 100;
+
+    @Test
+    public void readColumns() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            // The unknown column is not selected, so it is ignored
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(xssf)),
+                    new ReadQuery().columns("String"), TestExcel.class);
+            Assert.assertEquals(ROW_COUNT * 2, list.size());
+            Assert.assertEquals("row0", list.get(0).getStringValue());
+            Assert.assertNull(list.get(0).getIntegerValue());
+            Assert.assertNull(list.get(0).getBooleanValue());
+        }
+    }
+
+    @Test
+    public void readWhere() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(xssf)),
+                    new ReadQuery().columns("String")
+                            .where("Integer", value -> (Integer) value >= 90)
+                            .where("Boolean", Boolean.TRUE::equals),
+                    TestExcel.class);
+            Assert.assertEquals(10, list.size());
+            Assert.assertEquals("row90", list.get(0).getStringValue());
+            // The conditional column is parsed but not mapped
+            Assert.assertNull(list.get(0).getIntegerValue());
+        }
+    }
+
+    @Test
+    public void readRowsAndLimit() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(xssf)),
+                    new ReadQuery().columns("String", "Integer").rows(11, 20), TestExcel.class);
+            Assert.assertEquals(20, list.size());
+            Assert.assertEquals(Integer.valueOf(10), list.get(0).getIntegerValue());
+            Assert.assertEquals(Integer.valueOf(10), list.get(10).getIntegerValue());
+
+            list = ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(xssf)),
+                    new ReadQuery().columns("String").limit(ROW_COUNT + 5), TestExcel.class);
+            Assert.assertEquals(ROW_COUNT + 5, list.size());
+            Assert.assertEquals("row4", list.get(ROW_COUNT + 4).getStringValue());
+        }
+    }
+
+    @Test
+    public void readSheetsAndFilter() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            int[] sheetIndex = new int[]{-1};
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(xssf)),
+                    new ReadQuery().sheets("second").columns("String", "Integer")
+                            .filter(row -> {
+                                sheetIndex[0] = row.getSheetIndex();
+                                return (Integer) row.get("Integer") < 5;
+                            }),
+                    TestExcel.class);
+            Assert.assertEquals(1, sheetIndex[0]);
+            Assert.assertEquals(5, list.size());
+            Assert.assertEquals("row4", list.get(4).getStringValue());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readFilterNotSelectedColumn() {
+        ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(true)),
+                new ReadQuery().columns("String").filter(row -> row.get("Integer") != null), TestExcel.class);
+    }
+
+    /**
+     * Two sheets named first and second with a header and {@link #ROW_COUNT} rows each,
+     * the last column has an unknown header.
+     *
+     * @return
+     */
+    @SneakyThrows
+    private byte[] getTestFile(boolean xssf) {
+        try (Workbook workbook = WorkbookFactory.create(xssf); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            for (String sheetName : new String[]{"first", "second"}) {
+                Sheet sheet = workbook.createSheet(sheetName);
+                Row header = sheet.createRow(0);
+                String[] names = {"String", "Integer", "Boolean", "Unknown"};
+                for (int i = 0; i < names.length; i++) {
+                    header.createCell(i).setCellValue(names[i]);
+                }
+                for (int rowNum = 1; rowNum <= ROW_COUNT; rowNum++) {
+                    Row row = sheet.createRow(rowNum);
+                    int value = rowNum - 1;
+                    row.createCell(0).setCellValue("row" + value);
+                    row.createCell(1).setCellValue(value);
+                    row.createCell(2).setCellValue(value % 2 == 0);
+                    row.createCell(3).setCellValue("unknown");
+                }
+            }
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+}
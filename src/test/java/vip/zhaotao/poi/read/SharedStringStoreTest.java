@@ -0,0 +1,65 @@
+package vip.zhaotao.poi.read;
+
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+public class SharedStringStoreTest {
+
+    @Test
+    @SneakyThrows
+    public void spill() {
+        SharedStringStore store = new SharedStringStore(100, 2);
+        for (int i = 0; i < 1000; i++) {
+            store.add(i % 10 == 0 ? "" : "中文" + i);
+        }
+        store.complete();
+        try {
+            Assert.assertTrue(store.isSpilled());
+            Assert.assertEquals(1000, store.size());
+            Assert.assertEquals("", store.get(0));
+            Assert.assertEquals("中文999", store.get(999));
+            Assert.assertEquals("中文1", store.get(1));
+            Assert.assertEquals("中文999", store.get(999));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void readSpilledSharedStrings() {
+        byte[] bytes = this.getTestFile();
+        List<TestExcel> expected = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery(), TestExcel.class);
+        List<TestExcel> actual = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery().sharedStrings(0, 10), TestExcel.class);
+        Assert.assertEquals(500, actual.size());
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals("row&<499>", actual.get(499).getStringValue());
+    }
+
+    @SneakyThrows
+    private byte[] getTestFile() {
+        // The usermodel writes the strings to the shared strings table
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Character");
+            header.createCell(1).setCellValue("String");
+            for (int i = 1; i <= 500; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(String.valueOf((char) ('A' + i % 26)));
+                row.createCell(1).setCellValue("row&<" + (i - 1) + ">");
+            }
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package vip.zhaotao.poi.read;
+
+import lombok.SneakyThrows;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordInputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class StreamReaderTest {
+
+    private static final int ROW_COUNT = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void readWithHandler() {
+        for (boolean xssf : new boolean[]{true, false}) {
+            int[] count = new int[1];
+            ExcelUtils.read(new ByteArrayInputStream(this.getTestFile(xssf)), TestExcel.class, testExcel -> {
+                int value = count[0] % ROW_COUNT;
+                Assert.assertEquals("row" + value, testExcel.getStringValue());
+                Assert.assertEquals(Integer.valueOf(value), testExcel.getIntegerValue());
+                Assert.assertEquals(Double.valueOf(value + 0.5d), testExcel.getDoubleValue());
+                Assert.assertEquals(value % 2 == 0, testExcel.getBooleanValue());
+                Assert.assertNotNull(testExcel.getDateValue());
+                count[0]++;
+            });
+            Assert.assertEquals(ROW_COUNT * 2, count[0]);
+        }
+    }
+
+    @Test
+    public void readXlsSameAsUsermodel() {
+        byte[] bytes = this.getTestFile(false);
+        List<TestExcel> expected = ExcelUtils.read(new ByteArrayInputStream(bytes), TestExcel.class);
+        try (Stream<TestExcel> stream = ExcelUtils.stream(new ByteArrayInputStream(bytes), TestExcel.class)) {
+            Assert.assertEquals(expected, stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readWithStream() {
+        try (Stream<TestExcel> stream = ExcelUtils.stream(new ByteArrayInputStream(this.getTestFile(true)), TestExcel.class)) {
+            List<TestExcel> list = stream.limit(3).collect(Collectors.toList());
+            Assert.assertEquals(3, list.size());
+            TestExcel testExcel = list.get(2);
+            Assert.assertEquals(Character.valueOf('A'), testExcel.getCharacterValue());
+            Assert.assertEquals(Long.valueOf(2L), testExcel.getLongValue());
+            Assert.assertEquals(Double.valueOf(2.5d), testExcel.getDoubleValue());
+            Assert.assertEquals(Boolean.TRUE, testExcel.getBooleanValue());
+            Assert.assertNotNull(testExcel.getDateValue());
+        }
+    }
+
+    @Test
+    public void readWithIterator() {
+        RowIterator<TestExcel> iterator = ExcelUtils.iterator(new ByteArrayInputStream(this.getTestFile(true)), ROW_COUNT, TestExcel.class);
+        try {
+            Assert.assertTrue(iterator.hasNext());
+            // Last row of each sheet
+            Assert.assertEquals("row999", iterator.next().getStringValue());
+            Assert.assertEquals("row999", iterator.next().getStringValue());
+            Assert.assertFalse(iterator.hasNext());
+        } finally {
+            iterator.close();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void readXlsMulRk() {
+        File file = temporaryFolder.newFile("empty.xls");
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); FileOutputStream outputStream = new FileOutputStream(file)) {
+            workbook.createSheet();
+            workbook.write(outputStream);
+        }
+        try (XlsRowSource source = new XlsRowSource(file)) {
+            // Workbook records of the file, the sheet has no rows
+            Assert.assertFalse(source.nextRow());
+            // Excel writes the consecutive numbers of a row as a MULRK record, which starts each row here
+            Iterator<Record> records = Arrays.<Record>asList(BOFRecord.createSheetBOF(),
+                    this.newMulRkRecord(0, 1, 2, 3), this.newNumberRecord(0, 3, 4),
+                    this.newMulRkRecord(1, 5, 6, 7), this.newNumberRecord(1, 3, 8), EOFRecord.instance).iterator();
+            List<List<String>> rows = new ArrayList<>();
+            while (source.nextRow(() -> records.hasNext() ? records.next() : null)) {
+                List<String> cells = new ArrayList<>();
+                for (int i = 0; i < source.getCellCount(); i++) {
+                    cells.add(source.getColumn(i) + "=" + source.getValue(i));
+                }
+                rows.add(cells);
+            }
+            Assert.assertEquals(Arrays.asList(Arrays.asList("0=1", "1=2", "2=3", "3=4"), Arrays.asList("0=5", "1=6", "2=7", "3=8")), rows);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void readUnknownHeader() {
+        ExcelUtils.read(new ByteArrayInputStream(this.getUnknownHeaderFile()), TestExcel.class, testExcel -> {
+        });
+    }
+
+    /**
+     * Two sheets with a header and {@link #ROW_COUNT} rows each.
+     *
+     * @return
+     */
+    @SneakyThrows
+    private byte[] getTestFile(boolean xssf) {
+        try (Workbook workbook = WorkbookFactory.create(xssf); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-MM-dd HH:mm:ss"));
+            for (int s = 0; s < 2; s++) {
+                Sheet sheet = workbook.createSheet();
+                Row header = sheet.createRow(0);
+                String[] names = {"Character", "String", "Integer", "Long", "Double", "Date", "Boolean"};
+                for (int i = 0; i < names.length; i++) {
+                    header.createCell(i).setCellValue(names[i]);
+                }
+                for (int rowNum = 1; rowNum <= ROW_COUNT; rowNum++) {
+                    Row row = sheet.createRow(rowNum);
+                    int value = rowNum - 1;
+                    row.createCell(0).setCellValue("A");
+                    row.createCell(1).setCellValue("row" + value);
+                    row.createCell(2).setCellValue(value);
+                    row.createCell(3).setCellValue(value);
+                    row.createCell(4).setCellValue(value + 0.5d);
+                    Cell dateCell = row.createCell(5);
+                    dateCell.setCellValue(new Date());
+                    dateCell.setCellStyle(dateStyle);
+                    row.createCell(6).setCellValue(value % 2 == 0);
+                }
+            }
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * MULRK record of the integers in the consecutive columns of the row, starting at the first column
+     *
+     * @param row
+     * @param values
+     * @return
+     */
+    private MulRKRecord newMulRkRecord(int row, int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(10 + values.length * 6).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort(MulRKRecord.sid).putShort((short) (6 + values.length * 6)).putShort((short) row).putShort((short) 0);
+        for (int value : values) {
+            // Default cell format and the integer flag of the RK value
+            buffer.putShort((short) 15).putInt(value << 2 | 0x02);
+        }
+        buffer.putShort((short) (values.length - 1));
+        RecordInputStream inputStream = new RecordInputStream(new ByteArrayInputStream(buffer.array()));
+        inputStream.nextRecord();
+        return new MulRKRecord(inputStream);
+    }
+
+    private NumberRecord newNumberRecord(int row, int column, double value) {
+        NumberRecord record = new NumberRecord();
+        record.setRow(row);
+        record.setColumn((short) column);
+        record.setXFIndex((short) 15);
+        record.setValue(value);
+        return record;
+    }
+
+    @SneakyThrows
+    private byte[] getUnknownHeaderFile() {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            workbook.createSheet().createRow(0).createCell(0).setCellValue("Unknown");
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+}
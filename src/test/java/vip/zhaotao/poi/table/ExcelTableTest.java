@@ -0,0 +1,79 @@
+package vip.zhaotao.poi.table;
+
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ExcelTableTest {
+
+    private static final int ROW_COUNT = 3000;
+
+    @Test
+    public void readTable() {
+        byte[] bytes = this.getTestFile();
+        List<TestExcel> expected = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery(), TestExcel.class);
+        for (boolean offHeap : new boolean[]{false, true}) {
+            ExcelTable<TestExcel> table = ExcelTable.read(new ByteArrayInputStream(bytes), new ReadQuery(), TestExcel.class, offHeap);
+            Assert.assertEquals(ROW_COUNT, table.getRowCount());
+            Assert.assertEquals(expected, table.asList());
+            Assert.assertEquals(expected.get(7), table.stream().skip(7).findFirst().orElse(null));
+
+            LongColumn integerColumn = table.getLongColumn("Integer");
+            Assert.assertEquals(1999, integerColumn.getLong(1999));
+            Assert.assertEquals(Integer.valueOf(1999), integerColumn.get(1999));
+            Assert.assertEquals(ROW_COUNT / 10, integerColumn.getNullCount());
+            Assert.assertTrue(integerColumn.isNull(10));
+            Assert.assertEquals(3000000000003L, table.getLongColumn("Long").getLong(3));
+            Assert.assertEquals(3.5d, table.getDoubleColumn("Double").getDouble(3), 0d);
+            Assert.assertEquals(1546398245000L, table.getDateColumn("Date").getTime(0));
+            Assert.assertTrue(table.getBooleanColumn("Boolean").getBoolean(2));
+
+            DictionaryColumn stringColumn = table.getDictionaryColumn("String");
+            Assert.assertEquals(3, stringColumn.getDictionary().size());
+            Assert.assertEquals("group1", stringColumn.get(4));
+            Assert.assertEquals(stringColumn.getCode(1), stringColumn.getCode(4));
+        }
+    }
+
+    @Test
+    public void readSelectedColumns() {
+        ExcelTable<TestExcel> table = ExcelUtils.readTable(new ByteArrayInputStream(this.getTestFile()),
+                new ReadQuery().columns("String", "Double").where("Integer", value -> value != null && (Integer) value < 100), TestExcel.class);
+        Assert.assertEquals(90, table.getRowCount());
+        Assert.assertEquals(2, table.getColumns().size());
+        Assert.assertNull(table.getColumn("Integer"));
+        // Row 0 has no Integer value
+        TestExcel row = table.getRow(0);
+        Assert.assertEquals("group1", row.getStringValue());
+        Assert.assertNull(row.getIntegerValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongColumnType() {
+        ExcelTable<TestExcel> table = ExcelTable.of(this.getTestData().iterator(), TestExcel.class, false);
+        table.getDoubleColumn("Integer");
+    }
+
+    private byte[] getTestFile() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, outputStream, this.getTestData());
+        return outputStream.toByteArray();
+    }
+
+    private List<TestExcel> getTestData() {
+        Date date = new Date(1546398245000L);
+        return IntStream.range(0, ROW_COUNT).mapToObj(i -> new TestExcel('A', "group" + (i % 3), (byte) 1, (short) i,
+                i % 10 == 0 ? null : i, 3000000000000L + i, 0.5f, i + 0.5d, date, i % 2 == 0, new BigDecimal("3.14")))
+                .collect(Collectors.toList());
+    }
+}
@@ -5,9 +5,13 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.RandomUtils;
+import org.junit.Assert;
 import org.junit.Test;
 import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.read.ReadQuery;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.math.BigDecimal;
@@ -35,6 +39,29 @@ public class ExcelUtilsTest {
         log.info(userExcelList.toString());
     }
 
+    @Test
+    public void writeAndRead() {
+        for (ExcelUtils.Type type : ExcelUtils.Type.values()) {
+            List<TestExcel> dataList = Lists.newArrayList();
+            for (int i = 0; i < 100; i++) {
+                dataList.addAll(this.getTestData());
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(type, outputStream, dataList);
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+            List<TestExcel> readList = type.isDelimited() ? ExcelUtils.read(inputStream, type, new ReadQuery(), TestExcel.class)
+                    : ExcelUtils.read(inputStream, TestExcel.class);
+            Assert.assertEquals(dataList.size(), readList.size());
+            TestExcel expected = dataList.get(99);
+            TestExcel actual = readList.get(99);
+            Assert.assertEquals(expected.getStringValue(), actual.getStringValue());
+            Assert.assertEquals(expected.getIntegerValue(), actual.getIntegerValue());
+            Assert.assertEquals(expected.getLongValue(), actual.getLongValue());
+            Assert.assertEquals(expected.getBooleanValue(), actual.getBooleanValue());
+            Assert.assertEquals(expected.getDoubleValue(), actual.getDoubleValue(), 0.0001d);
+        }
+    }
+
     public String getFilePath() {
         StringBuilder filePath = new StringBuilder();
         filePath.append(System.getProperty("user.home").replace("\\", "/"));
@@ -0,0 +1,83 @@
+package vip.zhaotao.poi.write;
+
+import com.google.common.collect.Maps;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.excel.TestExcels;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ParallelSheetWriterTest {
+
+    @Test
+    @SneakyThrows
+    public void writeSheets() {
+        Map<String, List<?>> sheets = Maps.newLinkedHashMap();
+        sheets.put("Orders", TestExcels.rows(700));
+        sheets.put("Empty", Collections.emptyList());
+        sheets.put("Totals", IntStream.range(0, 10).mapToObj(i -> new Total("group" + i, i * 1.5d)).collect(Collectors.toList()));
+        sheets.put("A & B", TestExcels.rows(5));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new ParallelSheetWriter(2).write(outputStream, sheets, new WriteOptions().setMaxRowsPerSheet(300));
+        byte[] bytes = outputStream.toByteArray();
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(bytes))) {
+            Assert.assertEquals(6, workbook.getNumberOfSheets());
+            Assert.assertEquals(Arrays.asList("Orders", "Orders (2)", "Orders (3)", "Empty", "Totals", "A & B"),
+                    IntStream.range(0, 6).mapToObj(workbook::getSheetName).collect(Collectors.toList()));
+            Assert.assertEquals(100, workbook.getSheet("Orders (3)").getLastRowNum());
+            Sheet totals = workbook.getSheet("Totals");
+            Assert.assertEquals("group9", totals.getRow(10).getCell(0).getStringCellValue());
+            Assert.assertEquals(13.5d, totals.getRow(10).getCell(1).getNumericCellValue(), 0d);
+            // The formats of both classes are in one style sheet
+            Assert.assertEquals("0.000", totals.getRow(1).getCell(1).getCellStyle().getDataFormatString());
+            Assert.assertEquals("yyyy-MM-dd HH:mm:ss", workbook.getSheet("A & B").getRow(1).getCell(8).getCellStyle().getDataFormatString());
+        }
+        List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery().sheets(0, 1, 2), TestExcel.class);
+        Assert.assertEquals(TestExcels.rows(700), list);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateSheetName() {
+        Map<String, List<?>> sheets = Maps.newLinkedHashMap();
+        sheets.put("Orders", TestExcels.rows(5));
+        sheets.put("ORDERS", TestExcels.rows(5));
+        new ParallelSheetWriter(2).write(new ByteArrayOutputStream(), sheets, new WriteOptions());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sheetFailure() {
+        Map<String, Iterable<?>> sheets = Maps.newLinkedHashMap();
+        sheets.put("Orders", TestExcels.rows(5));
+        sheets.put("Failed", () -> {
+            throw new IllegalStateException("Data source is closed.");
+        });
+        ExcelUtils.writeSheets(new ByteArrayOutputStream(), sheets, new WriteOptions());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Total {
+
+        @ExcelColumn(name = "Group")
+        private String group;
+
+        @ExcelColumn(name = "Amount", number = 1, format = "0.000")
+        private Double amount;
+    }
+}
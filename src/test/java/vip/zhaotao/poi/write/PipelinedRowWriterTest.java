@@ -0,0 +1,78 @@
+package vip.zhaotao.poi.write;
+
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.excel.TestExcels;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PipelinedRowWriterTest {
+
+    @Test
+    public void writeAndRead() {
+        List<TestExcel> dataList = TestExcels.rows(1000);
+        for (ExcelUtils.Type type : ExcelUtils.Type.values()) {
+            WriteOptions options = new WriteOptions().setMaxRowsPerSheet(300).setMappingThreads(3)
+                    .setPipelineBatchSize(7).setPipelineCapacity(2);
+            ByteArrayOutputStream pipelined = new ByteArrayOutputStream();
+            ExcelUtils.write(type, pipelined, dataList.iterator(), options);
+            ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+            ExcelUtils.write(type, sequential, dataList.iterator(), options.setMappingThreads(0));
+            Assert.assertEquals(this.read(type, sequential.toByteArray()), this.read(type, pipelined.toByteArray()));
+            Assert.assertEquals(dataList.size(), this.read(type, pipelined.toByteArray()).size());
+        }
+    }
+
+    @Test
+    public void backpressure() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RowWriter blockedWriter = new DelimitedWriter(ExcelUtils.Type.CSV, new ByteArrayOutputStream(), new WriteOptions()) {
+            @Override
+            public void writeValues(Class<?> clazz, Object[] values) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.writeValues(clazz, values);
+            }
+        };
+        AtomicInteger taken = new AtomicInteger();
+        Thread source = new Thread(() -> {
+            try (PipelinedRowWriter writer = new PipelinedRowWriter(blockedWriter, new WriteOptions().setMappingThreads(2)
+                    .setPipelineBatchSize(10).setPipelineCapacity(2))) {
+                writer.write(TestExcels.rows(1000).stream().peek(t -> taken.incrementAndGet()).iterator());
+                writer.finish();
+            }
+        });
+        source.start();
+        TimeUnit.MILLISECONDS.sleep(500);
+        // One batch taken by the writer thread, the full queue and the batch being collected
+        Assert.assertTrue(taken.get() <= 10 * 4);
+        release.countDown();
+        source.join(TimeUnit.SECONDS.toMillis(30));
+        Assert.assertEquals(1000, taken.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sourceFailure() {
+        WriteOptions options = new WriteOptions().setMappingThreads(2).setPipelineBatchSize(10);
+        ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, new ByteArrayOutputStream(), TestExcels.rows(1000).stream().peek(t -> {
+            if (t.getIntegerValue() == 500) {
+                throw new IllegalStateException("Data source is closed.");
+            }
+        }), options);
+    }
+
+    private List<TestExcel> read(ExcelUtils.Type type, byte[] bytes) {
+        return ExcelUtils.read(new ByteArrayInputStream(bytes), type, new ReadQuery(), TestExcel.class);
+    }
+}
@@ -0,0 +1,186 @@
+package vip.zhaotao.poi.write;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+import vip.zhaotao.poi.annotation.WidthMode;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.metrics.ExcelMetricsListener;
+import vip.zhaotao.poi.read.ReadQuery;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class SpreadsheetMLWriterTest {
+
+    @Test
+    @SneakyThrows
+    public void writeAndRead() {
+        Date date = new Date(1546398245000L);
+        for (boolean useSharedStrings : new boolean[]{false, true}) {
+            WriteOptions options = new WriteOptions().setMaxRowsPerSheet(40).setUseSharedStrings(useSharedStrings);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT, outputStream, IntStream.range(0, 100).mapToObj(i ->
+                    new TestExcel('A', " row<" + i + ">&", (byte) 1, (short) -2, i, 12345678901L, 0.5f, 1.25d, date, i % 2 == 0,
+                            new BigDecimal("3.14"))), options);
+            byte[] bytes = outputStream.toByteArray();
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(bytes))) {
+                Assert.assertEquals(3, workbook.getNumberOfSheets());
+                Assert.assertEquals(40, workbook.getSheetAt(0).getLastRowNum());
+                Assert.assertEquals(20, workbook.getSheetAt(2).getLastRowNum());
+                Cell dateCell = workbook.getSheetAt(0).getRow(1).getCell(8);
+                Assert.assertEquals(date, dateCell.getDateCellValue());
+                Assert.assertEquals("yyyy-MM-dd HH:mm:ss", dateCell.getCellStyle().getDataFormatString());
+            }
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(bytes), TestExcel.class);
+            List<TestExcel> streamList = ExcelUtils.read(new ByteArrayInputStream(bytes), new ReadQuery(), TestExcel.class);
+            Assert.assertEquals(list, streamList);
+            Assert.assertEquals(100, list.size());
+            TestExcel row = list.get(99);
+            Assert.assertEquals(" row<99>&", row.getStringValue());
+            Assert.assertEquals(Integer.valueOf(99), row.getIntegerValue());
+            Assert.assertEquals(Short.valueOf((short) -2), row.getShortValue());
+            Assert.assertEquals(Long.valueOf(12345678901L), row.getLongValue());
+            Assert.assertEquals(Double.valueOf(1.25d), row.getDoubleValue());
+            Assert.assertEquals(date, row.getDateValue());
+            Assert.assertEquals(Boolean.FALSE, row.getBooleanValue());
+            Assert.assertEquals(0, new BigDecimal("3.14").compareTo(row.getBigDecimalValue()));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void writeColumnWidths() {
+        WriteOptions options = new WriteOptions().setWidthSampleRows(10);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT, outputStream, IntStream.range(0, 20).mapToObj(i -> {
+            WidthRow row = new WidthRow();
+            // The widths are written before the rows, wider values after the sampled rows are not measured
+            row.setExact(i == 5 ? "\u4E2D\u6587\u5217\u5BBD\u4E2D\u6587\u5217\u5BBD" : "short");
+            row.setSampled(i < 10 ? "short" : "a much longer value");
+            row.setFixed("short");
+            return row;
+        }), options);
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Assert.assertEquals(16 * 256, sheet.getColumnWidth(0));
+            Assert.assertEquals(10 * 256, sheet.getColumnWidth(1));
+            Assert.assertEquals(30 * 256, sheet.getColumnWidth(2));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void writeEmptyWorkbook() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (RowWriter rowWriter = RowWriter.open(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT, outputStream, new WriteOptions())) {
+            rowWriter.finish();
+        }
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals(1, workbook.getNumberOfSheets());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void writeQuotedAttributes() {
+        Date date = new Date(1546398245000L);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        QuotedRow quotedRow = new QuotedRow();
+        quotedRow.setMonth(date);
+        // The sheet name and the format code are attributes of the package parts
+        new ParallelSheetWriter(1).write(outputStream, Collections.singletonMap("Sales \"2019\"", Collections.singletonList(quotedRow)),
+                new WriteOptions());
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals("Sales \"2019\"", workbook.getSheetName(0));
+            Cell cell = workbook.getSheetAt(0).getRow(1).getCell(0);
+            Assert.assertEquals("yyyy\"Y\"mm\"M\"", cell.getCellStyle().getDataFormatString());
+            Assert.assertEquals(date, cell.getDateCellValue());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void writeSameAsUsermodel() {
+        // Not a number, infinite and a date before 1900
+        List<EdgeRow> rows = Arrays.asList(new EdgeRow(Double.NaN, new Date(-2209075200000L)), new EdgeRow(Double.POSITIVE_INFINITY, null));
+        List<String> expected = null;
+        for (ExcelUtils.Type type : new ExcelUtils.Type[]{ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT}) {
+            long[] cells = new long[1];
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(type, outputStream, rows.iterator(), new WriteOptions().setMetricsListener(new ExcelMetricsListener() {
+
+                @Override
+                public void onSheet(int sheetIndex, long rows, long sheetCells, long emptyCells, long errors) {
+                    cells[0] += sheetCells;
+                }
+            }));
+            Assert.assertEquals(type.name(), 3, cells[0]);
+            List<String> actual = new ArrayList<>();
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+                for (int rowNum = 1; rowNum <= rows.size(); rowNum++) {
+                    for (Cell cell : workbook.getSheetAt(0).getRow(rowNum)) {
+                        actual.add(cell.getAddress() + " " + cell.getCellType() + " " + (cell.getCellType() == CellType.ERROR
+                                ? FormulaError.forInt(cell.getErrorCellValue()).getString() : cell.getNumericCellValue()));
+                    }
+                }
+            }
+            if (expected == null) {
+                expected = actual;
+                Assert.assertEquals(Arrays.asList("A2 ERROR #NUM!", "B2 NUMERIC -1.0", "A3 ERROR #DIV/0!"), expected);
+            } else {
+                Assert.assertEquals(expected, actual);
+            }
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EdgeRow {
+
+        @ExcelColumn(name = "Number", number = 0)
+        private Double number;
+
+        @ExcelColumn(name = "Date", number = 1)
+        private Date date;
+    }
+
+    @Data
+    public static class QuotedRow {
+
+        @ExcelColumn(name = "Month", format = "yyyy\"Y\"mm\"M\"")
+        private Date month;
+    }
+
+    @Data
+    public static class WidthRow {
+
+        @ExcelColumn(name = "Exact")
+        private String exact;
+
+        @ExcelColumn(name = "Sampled", number = 1, widthMode = WidthMode.SAMPLED)
+        private String sampled;
+
+        @ExcelColumn(name = "Fixed", number = 2, widthMode = WidthMode.FIXED, width = 30)
+        private String fixed;
+    }
+}
@@ -0,0 +1,65 @@
+package vip.zhaotao.poi.write;
+
+import lombok.SneakyThrows;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class StyleRegistryTest {
+
+    @Test
+    @SneakyThrows
+    public void sharedStyles() {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            StyleRegistry styleRegistry = new StyleRegistry(workbook);
+            Assert.assertNull(styleRegistry.getStyle(""));
+            CellStyle percent = styleRegistry.getStyle("0%");
+            Assert.assertSame(percent, styleRegistry.getStyle("0%"));
+            Assert.assertNotSame(percent, styleRegistry.getStyle("0%", null, HorizontalAlignment.CENTER));
+            Font font = workbook.createFont();
+            font.setBold(true);
+            Assert.assertSame(styleRegistry.getStyle("0%", font, null), styleRegistry.getStyle("0%", font, null));
+            Assert.assertEquals(3, styleRegistry.getCreatedStyleCount());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void writeDoesNotCreateStylePerCell() {
+        List<TestExcel> dataList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            TestExcel testExcel = new TestExcel();
+            testExcel.setIntegerValue(i);
+            testExcel.setLongValue((long) i);
+            testExcel.setFloatValue((float) i);
+            testExcel.setDoubleValue((double) i);
+            testExcel.setDateValue(new Date());
+            dataList.add(testExcel);
+        }
+        for (ExcelUtils.Type type : ExcelUtils.Type.values()) {
+            if (type.isDelimited()) {
+                // Delimited text is not a workbook
+                continue;
+            }
+            int defaultStyleCount;
+            try (Workbook workbook = type == ExcelUtils.Type.MICROSOFT_EXCEL ? WorkbookFactory.create(false) : WorkbookFactory.create(true)) {
+                defaultStyleCount = workbook.getNumCellStyles();
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(type, outputStream, dataList);
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+                // TestExcel has 5 formatted columns
+                Assert.assertEquals(defaultStyleCount + 5, workbook.getNumCellStyles());
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package vip.zhaotao.poi.write;
+
+import lombok.Data;
+import lombok.SneakyThrows;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import vip.zhaotao.poi.annotation.ExcelColumn;
+import vip.zhaotao.poi.annotation.WidthMode;
+import vip.zhaotao.poi.excel.TestExcel;
+import vip.zhaotao.poi.util.ExcelUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class WorkbookWriterTest {
+
+    @Test
+    @SneakyThrows
+    public void writeStreamWithRollover() {
+        WriteOptions options = new WriteOptions().setRowAccessWindowSize(10).setMaxRowsPerSheet(100);
+        for (ExcelUtils.Type type : ExcelUtils.Type.values()) {
+            if (type.isDelimited()) {
+                // Delimited text is not a workbook
+                continue;
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(type, outputStream, this.getTestData(250), options);
+            byte[] bytes = outputStream.toByteArray();
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(bytes))) {
+                Assert.assertEquals(3, workbook.getNumberOfSheets());
+                Assert.assertEquals(100, workbook.getSheetAt(0).getLastRowNum());
+                Assert.assertEquals(50, workbook.getSheetAt(2).getLastRowNum());
+                Assert.assertEquals("String", workbook.getSheetAt(2).getRow(0).getCell(1).getStringCellValue());
+            }
+            List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(bytes), TestExcel.class);
+            Assert.assertEquals(250, list.size());
+            Assert.assertEquals("row249", list.get(249).getStringValue());
+        }
+    }
+
+    @Test
+    public void writePages() {
+        int pageSize = 30;
+        List<TestExcel> dataList = this.getTestData(100).collect(Collectors.toList());
+        PageSupplier<TestExcel> pageSupplier = pageNum -> pageNum * pageSize >= dataList.size() ? Collections.emptyList()
+                : dataList.subList(pageNum * pageSize, Math.min(dataList.size(), (pageNum + 1) * pageSize));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, outputStream, pageSupplier);
+        List<TestExcel> list = ExcelUtils.read(new ByteArrayInputStream(outputStream.toByteArray()), TestExcel.class);
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(Integer.valueOf(99), list.get(99).getIntegerValue());
+    }
+
+    @Test
+    public void writeEmptyIterator() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtils.write(ExcelUtils.Type.OFFICE_OPEN_XML_SHEET, outputStream, Collections.<TestExcel>emptyIterator());
+        Assert.assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    @SneakyThrows
+    public void writeColumnWidths() {
+        WriteOptions options = new WriteOptions().setWidthSampleRows(10).setMaxRowsPerSheet(50);
+        for (ExcelUtils.Type type : ExcelUtils.Type.values()) {
+            if (type.isDelimited() || type == ExcelUtils.Type.OFFICE_OPEN_XML_SHEET_DIRECT) {
+                // No column widths in delimited text, the direct writer measures the sampled rows only, see SpreadsheetMLWriterTest
+                continue;
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExcelUtils.write(type, outputStream, IntStream.range(0, 100).mapToObj(i -> {
+                WidthRow row = new WidthRow();
+                // Wider values after the sampled rows
+                row.setExact(i == 99 ? "\u4E2D\u6587\u5217\u5BBD\u4E2D\u6587\u5217\u5BBD" : "short");
+                row.setSampled(i < 10 ? "short" : StringUtils.repeat('x', 300));
+                row.setFixed("short");
+                return row;
+            }), options);
+            try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()))) {
+                Sheet first = workbook.getSheetAt(0);
+                Sheet second = workbook.getSheetAt(1);
+                Assert.assertEquals(10 * 256, first.getColumnWidth(0));
+                // Eight CJK characters
+                Assert.assertEquals(16 * 256, second.getColumnWidth(0));
+                Assert.assertEquals(10 * 256, first.getColumnWidth(1));
+                Assert.assertEquals(255 * 256, second.getColumnWidth(1));
+                Assert.assertEquals(30 * 256, first.getColumnWidth(2));
+                Assert.assertEquals(30 * 256, second.getColumnWidth(2));
+            }
+        }
+    }
+
+    private Stream<TestExcel> getTestData(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            // The usermodel read does not accept missing cells, so every column is set
+            return new TestExcel('A', "row" + i, (byte) 1, (short) 1, i, (long) i, 1f, 1d, new Date(), Boolean.TRUE, BigDecimal.ONE);
+        });
+    }
+
+    @Data
+    public static class WidthRow {
+
+        @ExcelColumn(name = "Exact")
+        private String exact;
+
+        @ExcelColumn(name = "Sampled", number = 1, widthMode = WidthMode.SAMPLED)
+        private String sampled;
+
+        @ExcelColumn(name = "Fixed", number = 2, widthMode = WidthMode.FIXED, width = 30)
+        private String fixed;
+    }
+}